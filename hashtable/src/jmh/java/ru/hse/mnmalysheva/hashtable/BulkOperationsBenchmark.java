@@ -0,0 +1,63 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading {@link HashTable} from a dump with {@link HashTable#putAll} compared to separate puts,
+ * and scanning all entries with sequential and parallel streams.
+ * Run large sizes with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkOperationsBenchmark {
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private ArrayList<Map.Entry<Integer, Integer>> dump;
+    private HashTable<Integer, Integer> table;
+
+    @Setup
+    public void createDump() {
+        dump = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            dump.add(Map.entry(i, i));
+        }
+        table = new HashTable<>();
+        table.putAll(dump);
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> putOneByOne() {
+        var loadedTable = new HashTable<Integer, Integer>();
+        for (var entry : dump) {
+            loadedTable.put(entry.getKey(), entry.getValue());
+        }
+        return loadedTable;
+    }
+
+    @Benchmark
+    public HashTable<Integer, Integer> putAll() {
+        var loadedTable = new HashTable<Integer, Integer>();
+        loadedTable.putAll(dump);
+        return loadedTable;
+    }
+
+    @Benchmark
+    public long sequentialScan() {
+        return table.stream().mapToLong(Map.Entry::getValue).sum();
+    }
+
+    /** Gains over the sequential scan depend on the number of available cores. */
+    @Benchmark
+    public long parallelScan() {
+        return table.parallelStream().mapToLong(Map.Entry::getValue).sum();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ConcurrentHashTable} compared to {@link HashTable} guarded by a single lock.
+ * Thread count is set from command line, e.g. {@code -t 1}, {@code -t 8}, {@code -t 32}.
+ * Writes replace values of existing keys and put or remove keys from a separate range, so table size stays stable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentHashTableBenchmark {
+    private static final int NUMBER_OF_KEYS = 1 << 17;
+    private static final String VALUE = "value";
+
+    /** Percentage of reads among operations. */
+    @Param({"90", "10"})
+    private int readPercentage;
+
+    private String[] keys;
+    private String[] volatileKeys;
+    private ConcurrentHashTable stripedTable;
+    private HashTable<String, String> lockedTable;
+
+    @Setup
+    public void fillTables() {
+        keys = new String[NUMBER_OF_KEYS];
+        volatileKeys = new String[NUMBER_OF_KEYS];
+        stripedTable = new ConcurrentHashTable();
+        lockedTable = new HashTable<>();
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            keys[i] = "key" + i;
+            volatileKeys[i] = "volatile" + i;
+            stripedTable.put(keys[i], VALUE);
+            lockedTable.put(keys[i], VALUE);
+        }
+    }
+
+    @Benchmark
+    public String striped() {
+        var random = ThreadLocalRandom.current();
+        int index = random.nextInt(NUMBER_OF_KEYS);
+        int operation = random.nextInt(100);
+        if (operation < readPercentage) {
+            return stripedTable.get(keys[index]);
+        }
+        if ((operation & 1) == 0) {
+            return stripedTable.put(keys[index], VALUE);
+        }
+        return random.nextBoolean()
+                ? stripedTable.putIfAbsent(volatileKeys[index], VALUE)
+                : stripedTable.remove(volatileKeys[index]);
+    }
+
+    @Benchmark
+    public String globalLock() {
+        var random = ThreadLocalRandom.current();
+        int index = random.nextInt(NUMBER_OF_KEYS);
+        int operation = random.nextInt(100);
+        synchronized (lockedTable) {
+            if (operation < readPercentage) {
+                return lockedTable.get(keys[index]);
+            }
+            if ((operation & 1) == 0) {
+                return lockedTable.put(keys[index], VALUE);
+            }
+            if (random.nextBoolean()) {
+                return lockedTable.contains(volatileKeys[index]) ? VALUE : lockedTable.put(volatileKeys[index], VALUE);
+            }
+            return lockedTable.remove(volatileKeys[index]);
+        }
+    }
+}
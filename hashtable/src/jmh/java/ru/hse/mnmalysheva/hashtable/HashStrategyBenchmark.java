@@ -0,0 +1,95 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link SeededStringHashStrategy} compared to the natural {@link String#hashCode()} strategy.
+ * Structured keys resemble identifiers of real records, flooding keys all have the same {@link String#hashCode()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashStrategyBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 12;
+    /** Number of "Aa"/"BB" blocks in flooding keys, there are 2^13 such keys. */
+    private static final int FLOODING_BLOCKS = 13;
+    private static final String VALUE = "value";
+
+    @Param({"natural", "seeded"})
+    private String strategy;
+
+    @Param({"structured", "flooding"})
+    private String keySet;
+
+    private String[] keys;
+    private String[] lookupKeys;
+    private HashTable<String, String> table;
+    private int next;
+
+    @Setup
+    public void fillTable() {
+        keys = keySet.equals("structured") ? structuredKeys() : floodingKeys();
+        var random = new Random(239);
+        lookupKeys = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            lookupKeys[i] = keys[random.nextInt(keys.length)];
+        }
+        table = createTable();
+        for (var key : keys) {
+            table.put(key, VALUE);
+        }
+    }
+
+    @Benchmark
+    public String get() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return table.get(lookupKeys[next]);
+    }
+
+    /** Time to fill an empty table with all keys. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public HashTable<String, String> fill() {
+        var filledTable = createTable();
+        for (var key : keys) {
+            filledTable.put(key, VALUE);
+        }
+        return filledTable;
+    }
+
+    private HashTable<String, String> createTable() {
+        return strategy.equals("seeded") ? new HashTable<>(new SeededStringHashStrategy()) : new HashTable<>();
+    }
+
+    private static String[] structuredKeys() {
+        var result = new String[1 << FLOODING_BLOCKS];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = "user:" + (100000 + i * 7) + ":profile/" + (i % 3 == 0 ? "avatar" : "settings");
+        }
+        return result;
+    }
+
+    private static String[] floodingKeys() {
+        var result = new ArrayList<String>();
+        result.add("");
+        for (int i = 0; i < FLOODING_BLOCKS; i++) {
+            var longerKeys = new ArrayList<String>();
+            for (var key : result) {
+                longerKeys.add(key + "Aa");
+                longerKeys.add(key + "BB");
+            }
+            result = longerKeys;
+        }
+        return result.toArray(new String[0]);
+    }
+}
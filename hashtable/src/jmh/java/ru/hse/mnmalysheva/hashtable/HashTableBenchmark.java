@@ -0,0 +1,90 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares chained {@link HashTable} with {@link OpenAddressingHashTable}.
+ * Lookups use random keys, half of them absent. Run large sizes with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashTableBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+    private static final String VALUE = "value";
+
+    @Param({"1000000", "10000000"})
+    private int size;
+
+    private String[] keys;
+    private String[] lookupKeys;
+    private HashTable<String, String> chainedTable;
+    private OpenAddressingHashTable openTable;
+    private int next;
+
+    @Setup
+    public void fillTables() {
+        keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = "key" + i;
+        }
+        var random = new Random(239);
+        lookupKeys = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            int index = random.nextInt(size);
+            lookupKeys[i] = random.nextBoolean() ? keys[index] : "absent" + index;
+        }
+        chainedTable = new HashTable<>();
+        openTable = new OpenAddressingHashTable();
+        for (var key : keys) {
+            chainedTable.put(key, VALUE);
+            openTable.put(key, VALUE);
+        }
+    }
+
+    @Benchmark
+    public String chainedGet() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return chainedTable.get(lookupKeys[next]);
+    }
+
+    @Benchmark
+    public String openAddressingGet() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return openTable.get(lookupKeys[next]);
+    }
+
+    /** Time to fill an empty table with all keys, including every resize. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public HashTable<String, String> chainedFill() {
+        var table = new HashTable<String, String>();
+        for (var key : keys) {
+            table.put(key, VALUE);
+        }
+        return table;
+    }
+
+    /** Time to fill an empty table with all keys, including every resize. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public OpenAddressingHashTable openAddressingFill() {
+        var table = new OpenAddressingHashTable();
+        for (var key : keys) {
+            table.put(key, VALUE);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jol.vm.VM;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints memory taken by {@link HashTable} structure per key, without keys and values themselves.
+ * Object sizes are taken from JOL. Run with {@code gradle footprint}.
+ */
+public class HashTableFootprint {
+    private static final int[] SIZES = {100_000, 1_000_000, 10_000_000};
+    private static final Map<Class<?>, List<Field>> referenceFields = new HashMap<>();
+
+    public static void main(String[] args) throws IllegalAccessException {
+        System.out.println(VM.current().details());
+        var value = new Object();
+        for (int size : SIZES) {
+            var table = new HashTable<Integer, Object>();
+            for (int i = 0; i < size; i++) {
+                table.put(i, value);
+            }
+            System.out.printf("%,d keys: %.1f bytes per key%n", size, (double) structureSize(table) / size);
+        }
+    }
+
+    /** Total size of objects reachable from the table, which belong to this package or are arrays. */
+    private static long structureSize(Object root) throws IllegalAccessException {
+        var visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        var stack = new ArrayDeque<>();
+        stack.push(root);
+        long size = 0;
+        while (!stack.isEmpty()) {
+            var object = stack.pop();
+            if (!visited.add(object)) {
+                continue;
+            }
+            size += VM.current().sizeOf(object);
+            if (object instanceof Object[]) {
+                for (var element : (Object[]) object) {
+                    if (isStructure(element)) {
+                        stack.push(element);
+                    }
+                }
+                continue;
+            }
+            for (var field : getReferenceFields(object.getClass())) {
+                var fieldValue = field.get(object);
+                if (isStructure(fieldValue)) {
+                    stack.push(fieldValue);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isStructure(Object object) {
+        return object != null && (object.getClass().isArray()
+                || object.getClass().getPackageName().equals(HashTable.class.getPackageName()));
+    }
+
+    private static List<Field> getReferenceFields(Class<?> type) {
+        return referenceFields.computeIfAbsent(type, key -> {
+            var fields = new ArrayList<Field>();
+            for (Class<?> current = key; current != null; current = current.getSuperclass()) {
+                for (var field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup and lookup time of {@link MappedHashTable} compared to {@link HashTable} rebuilt from a text dump,
+ * which is how a heap table has to be restored on every launch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappedHashTableBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+
+    @Param({"1000000"})
+    private int size;
+
+    private Path directory;
+    private Path tableFile;
+    private Path dumpFile;
+    private String[] lookupKeys;
+    private HashTable<String, String> heapTable;
+    private MappedHashTable mappedTable;
+    private int next;
+
+    @Setup
+    public void writeFiles() throws IOException {
+        directory = Files.createTempDirectory("mapped-hash-table-benchmark");
+        tableFile = directory.resolve("table.bin");
+        dumpFile = directory.resolve("table.txt");
+        try (var table = new MappedHashTable(tableFile); var dump = Files.newBufferedWriter(dumpFile)) {
+            for (int i = 0; i < size; i++) {
+                var key = "key" + i;
+                var value = "value of key " + i;
+                table.put(key, value);
+                dump.write(key + '\t' + value + '\n');
+            }
+        }
+        var random = new Random(239);
+        lookupKeys = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            lookupKeys[i] = "key" + random.nextInt(size);
+        }
+        heapTable = loadDump();
+        mappedTable = new MappedHashTable(tableFile, true);
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        mappedTable.close();
+        Files.delete(tableFile);
+        Files.delete(dumpFile);
+        Files.delete(directory);
+    }
+
+    /** Read dump and put all keys to a new heap table. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public HashTable<String, String> heapStartup() throws IOException {
+        return loadDump();
+    }
+
+    /** Open the file and look up a key, which only touches a few pages. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public String mappedStartup() throws IOException {
+        try (var table = new MappedHashTable(tableFile, true)) {
+            return table.get(lookupKeys[0]);
+        }
+    }
+
+    @Benchmark
+    public String heapGet() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return heapTable.get(lookupKeys[next]);
+    }
+
+    @Benchmark
+    public String mappedGet() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return mappedTable.get(lookupKeys[next]);
+    }
+
+    private HashTable<String, String> loadDump() throws IOException {
+        var table = new HashTable<String, String>();
+        try (var dump = Files.newBufferedReader(dumpFile)) {
+            String line;
+            while ((line = dump.readLine()) != null) {
+                int separator = line.indexOf('\t');
+                table.put(line.substring(0, separator), line.substring(separator + 1));
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a single {@link HashTable#put} while table grows through several resizes.
+ * Look at {@code p0.999} and higher percentiles in the output.
+ * Garbage collection pauses also land in the tail, compare runs with the same collector and heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PutLatencyBenchmark {
+    private static final int NUMBER_OF_KEYS = 1 << 21;
+    private static final String VALUE = "value";
+
+    private String[] keys;
+    private HashTable<String, String> table;
+    private int next;
+
+    @Setup
+    public void createKeys() {
+        keys = new String[NUMBER_OF_KEYS];
+        for (int i = 0; i < NUMBER_OF_KEYS; i++) {
+            keys[i] = "key" + i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void createTable() {
+        table = new HashTable<>();
+        next = 0;
+    }
+
+    @Benchmark
+    public String put() {
+        if (next == NUMBER_OF_KEYS) {
+            // start growing again from an empty table
+            table = new HashTable<>();
+            next = 0;
+        }
+        return table.put(keys[next++], VALUE);
+    }
+}
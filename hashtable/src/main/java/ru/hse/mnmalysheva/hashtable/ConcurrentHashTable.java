@@ -0,0 +1,331 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe chained hash table with string keys and values.
+ * Reads take no locks: bucket chains are immutable apart from values, removal copies the chain prefix.
+ * Writes lock one of {@link #NUMBER_OF_STRIPES} stripes, bucket {@code i} belongs to stripe
+ * {@code i % NUMBER_OF_STRIPES} in a table of any size.
+ * When table grows, buckets are moved to the new table in chunks by writing threads,
+ * moved buckets are replaced by a forwarding node so that readers and writers continue in the new table.
+ */
+public class ConcurrentHashTable {
+    /** Must be a power of two and a multiple of the number of stripes. */
+    private static final int DEFAULT_TABLE_SIZE = 1024;
+    /** Must be a power of two. */
+    private static final int NUMBER_OF_STRIPES = 64;
+    /** Distance between stripe counters, so that they do not share cache lines. */
+    private static final int COUNTER_PADDING = 16;
+    /** Number of buckets moved at once by a thread helping with resize. */
+    private static final int TRANSFER_STRIDE = 64;
+    /** Hash of forwarding nodes, hashes of keys are never negative. */
+    private static final int MOVED = -1;
+    private static final VarHandle TABLE;
+
+    static {
+        try {
+            TABLE = MethodHandles.lookup().findVarHandle(ConcurrentHashTable.class, "table", Table.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] stripeLocks = new Object[NUMBER_OF_STRIPES];
+    /** Number of keys in every stripe, changed under stripe lock. */
+    private final AtomicIntegerArray stripeSizes = new AtomicIntegerArray(NUMBER_OF_STRIPES * COUNTER_PADDING);
+    private volatile Table table = new Table(DEFAULT_TABLE_SIZE);
+
+    public ConcurrentHashTable() {
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    /** Number of keys in table. Concurrent updates may or may not be taken into account. */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+            size += stripeSizes.get(i * COUNTER_PADDING);
+        }
+        return size;
+    }
+
+    /** Check if table contains key. */
+    public boolean contains(@NotNull String key) {
+        return get(key) != null;
+    }
+
+    /** Get value from table.
+     * @return value if table contains key, null otherwise.
+     */
+    public @Nullable String get(@NotNull String key) {
+        int hash = getHash(key);
+        var currentTable = table;
+        while (true) {
+            var node = currentTable.getBucket(hash & (currentTable.size() - 1));
+            if (node instanceof Forward) {
+                currentTable = ((Forward) node).nextTable;
+                continue;
+            }
+            for (; node != null; node = node.next) {
+                if (node.hash == hash && key.equals(node.key)) {
+                    return node.value;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Put key to table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String put(@NotNull String key, @NotNull String value) {
+        return update(key, (k, oldValue) -> value, false);
+    }
+
+    /** Put key to table if it does not contain the key yet, atomically.
+     * @return current value if table contained key, null otherwise.
+     */
+    public @Nullable String putIfAbsent(@NotNull String key, @NotNull String value) {
+        return update(key, (k, oldValue) -> oldValue == null ? value : oldValue, false);
+    }
+
+    /**
+     * Atomically replace value of the key with the result of remapping function.
+     * Function is called under stripe lock, so it should be short and must not access this table.
+     * @param remappingFunction takes key and current value or {@code null} if there is no key,
+     *                          returns new value or {@code null} to remove the key.
+     * @return new value or null if key is absent after the call.
+     */
+    public @Nullable String compute(@NotNull String key,
+                                    @NotNull BiFunction<? super String, ? super String, ? extends String> remappingFunction) {
+        return update(key, remappingFunction, true);
+    }
+
+    /** Remove key from table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String remove(@NotNull String key) {
+        return update(key, (k, oldValue) -> null, false);
+    }
+
+    /** Remove all keys. Readers that started before the call may still see old keys. */
+    public void clear() {
+        clearUnderLocks(0);
+    }
+
+    /** Spreads high bits of string hash code to low ones, since bucket index is taken from low bits. */
+    private static int getHash(@NotNull String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    private int getStripe(int bucketIndex) {
+        return bucketIndex & (NUMBER_OF_STRIPES - 1);
+    }
+
+    private @Nullable String update(@NotNull String key,
+                                    @NotNull BiFunction<? super String, ? super String, ? extends String> function,
+                                    boolean returnsNewValue) {
+        int hash = getHash(key);
+        int stripe = getStripe(hash);
+        var currentTable = table;
+        while (true) {
+            if (currentTable.nextTable != null) {
+                helpTransfer(currentTable);
+            }
+            int index = hash & (currentTable.size() - 1);
+            String oldValue;
+            String newValue;
+            boolean isInserted = false;
+            synchronized (stripeLocks[stripe]) {
+                if (currentTable.isDiscarded) {
+                    currentTable = table;
+                    continue;
+                }
+                var head = currentTable.getBucket(index);
+                if (head instanceof Forward) {
+                    currentTable = ((Forward) head).nextTable;
+                    continue;
+                }
+                var node = head;
+                while (node != null && !(node.hash == hash && key.equals(node.key))) {
+                    node = node.next;
+                }
+                oldValue = node == null ? null : node.value;
+                newValue = function.apply(key, oldValue);
+                if (node != null && newValue != null) {
+                    if (newValue != oldValue) {
+                        node.value = newValue;
+                    }
+                } else if (newValue != null) {
+                    currentTable.setBucket(index, new Node(hash, key, newValue, head));
+                    addToStripeSize(stripe, 1);
+                    isInserted = true;
+                } else if (node != null) {
+                    currentTable.setBucket(index, removeNode(head, node));
+                    addToStripeSize(stripe, -1);
+                }
+            }
+            if (isInserted) {
+                growIfNeeded(stripe);
+            }
+            return returnsNewValue ? newValue : oldValue;
+        }
+    }
+
+    private void addToStripeSize(int stripe, int delta) {
+        int index = stripe * COUNTER_PADDING;
+        stripeSizes.lazySet(index, stripeSizes.get(index) + delta);
+    }
+
+    /** Returns chain without the node. Nodes before it are copied since links are immutable. */
+    private static @Nullable Node removeNode(@NotNull Node head, @NotNull Node removedNode) {
+        var result = removedNode.next;
+        for (var node = head; node != removedNode; node = node.next) {
+            result = new Node(node.hash, node.key, node.value, result);
+        }
+        return result;
+    }
+
+    /** Starts resize if the stripe suggests that table is three quarters full. */
+    private void growIfNeeded(int stripe) {
+        var currentTable = table;
+        long estimatedSize = (long) stripeSizes.get(stripe * COUNTER_PADDING) * NUMBER_OF_STRIPES;
+        if (estimatedSize < currentTable.size() - currentTable.size() / 4
+                || currentTable.nextTable != null || currentTable.size() > Integer.MAX_VALUE / 2) {
+            return;
+        }
+        currentTable.startResize();
+        helpTransfer(currentTable);
+    }
+
+    /** Moves next chunk of buckets to the next table, publishes the next table after the last chunk. */
+    private void helpTransfer(@NotNull Table oldTable) {
+        var nextTable = oldTable.nextTable;
+        int start = oldTable.transferIndex.getAndAdd(TRANSFER_STRIDE);
+        if (start >= oldTable.size()) {
+            return;
+        }
+        int end = Math.min(start + TRANSFER_STRIDE, oldTable.size());
+        for (int i = start; i < end; i++) {
+            transferBucket(oldTable, nextTable, i);
+        }
+        if (oldTable.numberOfTransferred.addAndGet(end - start) == oldTable.size()) {
+            TABLE.compareAndSet(this, oldTable, nextTable);
+        }
+    }
+
+    /** Splits bucket between two buckets of twice larger table. Both of them belong to the same stripe. */
+    private void transferBucket(@NotNull Table oldTable, @NotNull Table nextTable, int index) {
+        synchronized (stripeLocks[getStripe(index)]) {
+            if (oldTable.isDiscarded) {
+                return;
+            }
+            Node low = null;
+            Node high = null;
+            for (var node = oldTable.getBucket(index); node != null; node = node.next) {
+                if ((node.hash & oldTable.size()) == 0) {
+                    low = new Node(node.hash, node.key, node.value, low);
+                } else {
+                    high = new Node(node.hash, node.key, node.value, high);
+                }
+            }
+            nextTable.setBucket(index, low);
+            nextTable.setBucket(index + oldTable.size(), high);
+            oldTable.setBucket(index, nextTable.forwardingNode);
+        }
+    }
+
+    private void clearUnderLocks(int stripe) {
+        if (stripe < NUMBER_OF_STRIPES) {
+            synchronized (stripeLocks[stripe]) {
+                clearUnderLocks(stripe + 1);
+            }
+            return;
+        }
+        for (var discardedTable = table; discardedTable != null; discardedTable = discardedTable.nextTable) {
+            discardedTable.isDiscarded = true;
+        }
+        table = new Table(DEFAULT_TABLE_SIZE);
+        for (int i = 0; i < NUMBER_OF_STRIPES; i++) {
+            stripeSizes.set(i * COUNTER_PADDING, 0);
+        }
+    }
+
+    private static class Node {
+        private final int hash;
+        private final String key;
+        private volatile String value;
+        private final Node next;
+
+        private Node(int hash, String key, String value, Node next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /** Replaces a bucket that was moved to the next table. */
+    private static class Forward extends Node {
+        private final Table nextTable;
+
+        private Forward(@NotNull Table nextTable) {
+            super(MOVED, null, null, null);
+            this.nextTable = nextTable;
+        }
+    }
+
+    private static class Table {
+        private static final VarHandle NEXT_TABLE;
+
+        static {
+            try {
+                NEXT_TABLE = MethodHandles.lookup().findVarHandle(Table.class, "nextTable", Table.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final AtomicReferenceArray<Node> buckets;
+        /** Twice larger table this one is being moved to, {@code null} if there is no resize. */
+        private volatile Table nextTable;
+        /** Node placed to buckets of the previous table that were moved to this one. */
+        private final Forward forwardingNode = new Forward(this);
+        /** Start of the next chunk of buckets to move. */
+        private final AtomicInteger transferIndex = new AtomicInteger();
+        private final AtomicInteger numberOfTransferred = new AtomicInteger();
+        /** Set by clear under all stripe locks. */
+        private volatile boolean isDiscarded;
+
+        private Table(int size) {
+            buckets = new AtomicReferenceArray<>(size);
+        }
+
+        private int size() {
+            return buckets.length();
+        }
+
+        private Node getBucket(int index) {
+            return buckets.get(index);
+        }
+
+        private void setBucket(int index, Node node) {
+            buckets.set(index, node);
+        }
+
+        private void startResize() {
+            NEXT_TABLE.compareAndSet(this, null, new Table(size() * 2));
+        }
+    }
+}
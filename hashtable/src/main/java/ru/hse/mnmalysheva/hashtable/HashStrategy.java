@@ -0,0 +1,17 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Hashing and equality of hash table keys. Equal keys must have equal hashes. */
+public interface HashStrategy<T> {
+    /** Strategy using {@link Object#hashCode()} and {@link Object#equals(Object)}. */
+    static <T> HashStrategy<T> natural() {
+        @SuppressWarnings("unchecked")
+        var strategy = (HashStrategy<T>) NaturalHashStrategy.INSTANCE;
+        return strategy;
+    }
+
+    int hash(@NotNull T key);
+
+    boolean equals(@NotNull T first, @NotNull T second);
+}
@@ -3,14 +3,77 @@ package ru.hse.mnmalysheva.hashtable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-/** Chained hash table with string keys and values */
-public class HashTable {
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Chained hash table. Keys are hashed and compared by a {@link HashStrategy}, their hashes are cached in entries.
+ * Table is resized incrementally: after resize starts, every put and remove moves a few buckets
+ * from the old table to the new one, and lookups consult both tables until migration ends.
+ *
+ * <p>Iteration returns entries of the table itself, not copies. It is fail-fast: if keys are added or removed
+ * during iteration, it throws {@link ConcurrentModificationException}, so a completed iteration has seen
+ * a consistent snapshot of the table.
+ */
+public class HashTable<K, V> implements Iterable<Map.Entry<K, V>> {
     private static final int DEFAULT_TABLE_SIZE = 1000;
-    private List<Entry>[] table;
+    /** Table stops doubling at this size, after that buckets just get longer. */
+    private static final int MAX_TABLE_SIZE = 1 << 30;
+    /** Number of old table buckets moved by every put and remove during resize. */
+    private static final int MIGRATION_STEP = 16;
+    private final HashStrategy<? super K> strategy;
+    /** Table never shrinks below this size. */
+    private final int minTableSize;
+    /**
+     * Bucket is {@code null} if it is empty, a single {@link Entry} or an array of two or more entries
+     * followed by {@code null}s, which doubles when it is full.
+     */
+    private Object[] table;
+    /** Table being migrated to {@link #table}, {@code null} if there is no resize in progress. */
+    private Object[] oldTable;
+    /** Buckets of old table before this index have already been migrated. */
+    private int migrationIndex;
     private int numberOfKeys;
+    /** Number of changes of table structure, used to detect them during iteration. */
+    private int modificationCount;
 
+    /** Constructs table using {@link Object#hashCode()} and {@link Object#equals(Object)} of keys. */
     public HashTable() {
-        initTable(DEFAULT_TABLE_SIZE);
+        this(HashStrategy.natural());
+    }
+
+    /** Constructs table using the specified hashing and equality of keys. */
+    public HashTable(@NotNull HashStrategy<? super K> strategy) {
+        this(0, strategy);
+    }
+
+    /**
+     * Constructs table which holds the expected number of keys without resizing.
+     * @throws IllegalArgumentException if expected size is not less than the maximal table size, 2^30.
+     */
+    public HashTable(int expectedSize) {
+        this(expectedSize, HashStrategy.natural());
+    }
+
+    /**
+     * Constructs table which holds the expected number of keys without resizing.
+     * @throws IllegalArgumentException if expected size is not less than the maximal table size, 2^30.
+     */
+    public HashTable(int expectedSize, @NotNull HashStrategy<? super K> strategy) {
+        if (expectedSize >= MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Expected size is too large");
+        }
+        this.strategy = strategy;
+        minTableSize = getTableSize(DEFAULT_TABLE_SIZE, expectedSize);
+        table = createTable(minTableSize);
     }
 
     /** Number of keys in table. */
@@ -19,108 +82,460 @@ public class HashTable {
     }
 
     /** Check if table contains key. */
-    public boolean contains(@NotNull String key) {
+    public boolean contains(@NotNull K key) {
         return get(key) != null;
     }
 
     /** Get value from table.
      * @return value if table contains key, null otherwise.
      */
-    public @Nullable String get(@NotNull String key) {
-        for (var entry : table[getHash(key)]) {
-            if (entry.key.equals(key)) {
-                return entry.value;
-            }
-        }
-        return null;
+    public @Nullable V get(@NotNull K key) {
+        var entry = findEntry(key, getHash(key));
+        return entry == null ? null : entry.value;
     }
 
     /** Put key to table.
      * @return removed value if table contained key, null otherwise.
      */
-    public @Nullable String put(@NotNull String key, @NotNull String value) {
-        var list = table[getHash(key)];
-        Entry previousEntry = null;
-        String previousValue = null;
-        for (Entry entry : list) {
-            if (entry.key.equals(key)) {
-                previousEntry = entry;
-                previousValue = entry.value;
-                break;
-            }
+    public @Nullable V put(@NotNull K key, @NotNull V value) {
+        migrateBuckets(MIGRATION_STEP);
+        int hash = getHash(key);
+        var entry = findEntry(key, hash);
+        if (entry != null) {
+            var previousValue = entry.value;
+            entry.value = value;
+            return previousValue;
         }
-        if (previousEntry != null) {
-            previousEntry.value = value;
-        } else {
-            list.add(new Entry(key, value));
-            numberOfKeys++;
-            adjustTableSize();
-        }
-        return previousValue;
+        addEntry(table, new Entry<>(hash, key, value));
+        numberOfKeys++;
+        modificationCount++;
+        adjustTableSize();
+        return null;
+    }
+
+    /**
+     * Put all entries to table in one pass. Table is resized at most once beforehand,
+     * so this is faster than putting entries one by one.
+     */
+    public void putAll(@NotNull Collection<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        putAll(entries, entries.size());
+    }
+
+    /** Put all entries of another table to this one in one pass. */
+    public void putAll(@NotNull HashTable<? extends K, ? extends V> other) {
+        putAll(other, other.size());
     }
 
     /** Remove key from table.
      * @return removed value if table contained key, null otherwise.
      */
-    public @Nullable String remove(@NotNull String key) {
-        String removedValue = null;
-        for (var iterator = table[getHash(key)].iterator(); iterator.hasNext(); ) {
-            var entry = iterator.next();
-            if (entry.key.equals(key)) {
-                removedValue = entry.value;
-                iterator.remove();
-                numberOfKeys--;
-                adjustTableSize();
-                break;
-            }
+    public @Nullable V remove(@NotNull K key) {
+        migrateBuckets(MIGRATION_STEP);
+        int hash = getHash(key);
+        var removedValue = removeEntry(table, key, hash);
+        if (removedValue == null && oldTable != null) {
+            removedValue = removeEntry(oldTable, key, hash);
+        }
+        if (removedValue != null) {
+            numberOfKeys--;
+            modificationCount++;
+            adjustTableSize();
         }
         return removedValue;
     }
 
     /** Remove all keys. */
     public void clear() {
-        initTable(DEFAULT_TABLE_SIZE);
+        table = createTable(minTableSize);
+        oldTable = null;
         numberOfKeys = 0;
+        modificationCount++;
+    }
+
+    /** Iterator over entries, setting value of an entry changes it in table. */
+    @Override
+    public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /** Spliterator over entries, it is split by ranges of buckets. */
+    @Override
+    public @NotNull Spliterator<Map.Entry<K, V>> spliterator() {
+        return new EntrySpliterator<>(this);
+    }
+
+    /** Sequential stream of entries. */
+    public @NotNull Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
     }
 
-    private int getHash(@NotNull String key) {
-        return Math.abs(key.hashCode() % table.length);
+    /** Parallel stream of entries, table must not be modified while it runs. */
+    public @NotNull Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 
-    private void initTable(int size) {
-        @SuppressWarnings("unchecked")
-        var listArray = (List<Entry>[]) new List[size];
-        table = listArray;
+    private void putAll(@NotNull Iterable<? extends Map.Entry<? extends K, ? extends V>> entries,
+                        int numberOfEntries) {
+        int size = getTableSize(table.length, (long) numberOfKeys + numberOfEntries);
+        if (size != table.length || oldTable != null) {
+            rehash(size);
+        }
+        for (var entry : entries) {
+            K key = entry.getKey();
+            int hash = getHash(key);
+            var existingEntry = findEntry(table, key, hash);
+            if (existingEntry != null) {
+                existingEntry.value = entry.getValue();
+            } else {
+                addEntry(table, new Entry<>(hash, key, entry.getValue()));
+                numberOfKeys++;
+            }
+        }
+        modificationCount++;
+        adjustTableSize();
+    }
+
+    /**
+     * Size obtained by doubling the current one until table has more buckets than keys
+     * or reaches the maximal size.
+     */
+    private static int getTableSize(int currentSize, long numberOfKeys) {
+        long size = currentSize;
+        while (size <= numberOfKeys && size < MAX_TABLE_SIZE) {
+            size *= 2;
+        }
+        return (int) Math.min(size, MAX_TABLE_SIZE);
+    }
+
+    /** Mixes high bits of key hash into low ones, so that keys differing in high bits get different buckets. */
+    private int getHash(@NotNull K key) {
+        int hash = strategy.hash(key);
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int getBucketIndex(int hash, int tableSize) {
+        return Math.floorMod(hash, tableSize);
+    }
+
+    private static Object[] createTable(int size) {
+        return new Object[size];
+    }
+
+    private static void addEntry(@NotNull Object[] targetTable, @NotNull Entry<?, ?> entry) {
+        int index = getBucketIndex(entry.hash, targetTable.length);
+        var bucket = targetTable[index];
+        if (bucket == null) {
+            targetTable[index] = entry;
+        } else if (bucket instanceof Entry) {
+            targetTable[index] = new Entry<?, ?>[] {(Entry<?, ?>) bucket, entry};
+        } else {
+            var entries = (Entry<?, ?>[]) bucket;
+            int size = getBucketSize(entries);
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+                targetTable[index] = entries;
+            }
+            entries[size] = entry;
+        }
+    }
+
+    private static int getBucketSize(@NotNull Entry<?, ?>[] entries) {
+        int size = entries.length;
+        while (entries[size - 1] == null) {
+            size--;
+        }
+        return size;
+    }
+
+    /** Pass every entry of a bucket to the action. */
+    private static <K, V> void forEachEntry(@Nullable Object bucket, @NotNull Consumer<? super Entry<K, V>> action) {
+        if (bucket instanceof Entry) {
+            action.accept(asEntry(bucket));
+        } else if (bucket != null) {
+            for (var entry : (Entry<?, ?>[]) bucket) {
+                if (entry == null) {
+                    break;
+                }
+                action.accept(asEntry(entry));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Entry<K, V> asEntry(@NotNull Object entry) {
+        return (Entry<K, V>) entry;
+    }
+
+    private boolean matches(@NotNull Entry<K, V> entry, @NotNull K key, int hash) {
+        return entry.hash == hash && strategy.equals(entry.key, key);
+    }
+
+    private @Nullable Entry<K, V> findEntry(@NotNull Object[] sourceTable, @NotNull K key, int hash) {
+        var bucket = sourceTable[getBucketIndex(hash, sourceTable.length)];
+        if (bucket instanceof Entry) {
+            Entry<K, V> entry = asEntry(bucket);
+            return matches(entry, key, hash) ? entry : null;
+        }
+        if (bucket != null) {
+            for (var entry : (Entry<?, ?>[]) bucket) {
+                if (entry == null) {
+                    break;
+                }
+                if (matches(asEntry(entry), key, hash)) {
+                    return asEntry(entry);
+                }
+            }
+        }
+        return null;
+    }
+
+    private @Nullable V removeEntry(@NotNull Object[] sourceTable, @NotNull K key, int hash) {
+        int index = getBucketIndex(hash, sourceTable.length);
+        var bucket = sourceTable[index];
+        if (bucket instanceof Entry) {
+            Entry<K, V> entry = asEntry(bucket);
+            if (!matches(entry, key, hash)) {
+                return null;
+            }
+            sourceTable[index] = null;
+            return entry.value;
+        }
+        if (bucket == null) {
+            return null;
+        }
+        var entries = (Entry<?, ?>[]) bucket;
+        int size = getBucketSize(entries);
         for (int i = 0; i < size; i++) {
-            table[i] = new List<>();
+            Entry<K, V> entry = asEntry(entries[i]);
+            if (matches(entry, key, hash)) {
+                entries[i] = entries[size - 1];
+                entries[size - 1] = null;
+                if (size == 2) {
+                    sourceTable[index] = entries[0];
+                }
+                return entry.value;
+            }
         }
+        return null;
     }
 
-    private void resize(int size) {
-        var oldTable = table;
-        initTable(size);
-        for (var list : oldTable) {
-            for (var entry : list) {
-                table[getHash(entry.key)].add(entry);
+    private @Nullable Entry<K, V> findEntry(@NotNull K key, int hash) {
+        var entry = findEntry(table, key, hash);
+        if (entry == null && oldTable != null) {
+            entry = findEntry(oldTable, key, hash);
+        }
+        return entry;
+    }
+
+    /** Move up to the specified number of old table buckets to the current table. */
+    private void migrateBuckets(int numberOfBuckets) {
+        if (oldTable == null) {
+            return;
+        }
+        modificationCount++;
+        int end = migrationIndex + Math.min(numberOfBuckets, oldTable.length - migrationIndex);
+        for (; migrationIndex < end; migrationIndex++) {
+            forEachEntry(oldTable[migrationIndex], entry -> addEntry(table, entry));
+            oldTable[migrationIndex] = null;
+        }
+        if (migrationIndex == oldTable.length) {
+            oldTable = null;
+        }
+    }
+
+    /** Move all entries to a new table of the specified size at once. */
+    private void rehash(int size) {
+        var newTable = createTable(size);
+        for (var sourceTable : Arrays.asList(oldTable, table)) {
+            if (sourceTable == null) {
+                continue;
+            }
+            for (var bucket : sourceTable) {
+                forEachEntry(bucket, entry -> addEntry(newTable, entry));
             }
         }
+        table = newTable;
+        oldTable = null;
     }
 
+    private void resize(int size) {
+        // a previous resize can still be in progress if keys were added or removed in bulk
+        migrateBuckets(Integer.MAX_VALUE);
+        oldTable = table;
+        migrationIndex = 0;
+        table = createTable(size);
+    }
+
+    /**
+     * Table doubles when there are as many keys as buckets and halves when there are
+     * less than one key per eight buckets, so after a resize the number of keys
+     * has to at least double or halve before the next one.
+     */
     private void adjustTableSize() {
-        if (numberOfKeys >= table.length) {
-            resize(table.length * 2);
-        } else if (table.length > DEFAULT_TABLE_SIZE && numberOfKeys * 4 < table.length) {
+        if (numberOfKeys >= table.length && table.length < MAX_TABLE_SIZE) {
+            resize(getTableSize(table.length, table.length));
+        } else if (table.length > minTableSize && numberOfKeys * 8 < table.length) {
             resize(table.length / 2);
         }
     }
 
-    private static class Entry {
-        private final String key;
-        private String value;
+    private static class Entry<K, V> implements Map.Entry<K, V> {
+        private final int hash;
+        private final K key;
+        private V value;
 
-        private Entry(@NotNull String key, @NotNull String value) {
+        private Entry(int hash, @NotNull K key, @NotNull V value) {
+            this.hash = hash;
             this.key = key;
             this.value = value;
         }
+
+        @Override
+        public @NotNull K getKey() {
+            return key;
+        }
+
+        @Override
+        public @NotNull V getValue() {
+            return value;
+        }
+
+        @Override
+        public @NotNull V setValue(@NotNull V value) {
+            var previousValue = this.value;
+            this.value = value;
+            return previousValue;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Map.Entry)) {
+                return false;
+            }
+            var entry = (Map.Entry<?, ?>) other;
+            return key.equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * Spliterator over buckets of old table followed by buckets of current table.
+     * Every entry is in exactly one of them, so a range of buckets may be traversed independently.
+     */
+    private static class EntrySpliterator<K, V> implements Spliterator<Map.Entry<K, V>> {
+        private final HashTable<K, V> hashTable;
+        private final Object[] oldTable;
+        private final Object[] table;
+        private final int expectedModificationCount;
+        private final boolean isSized;
+        private int index;
+        private final int fence;
+        private long estimatedSize;
+        /** Bucket being traversed if it has several entries, otherwise {@code null}. */
+        private Entry<?, ?>[] bucketEntries;
+        private int bucketPosition;
+
+        private EntrySpliterator(@NotNull HashTable<K, V> hashTable) {
+            this.hashTable = hashTable;
+            oldTable = hashTable.oldTable == null ? createTable(0) : hashTable.oldTable;
+            table = hashTable.table;
+            expectedModificationCount = hashTable.modificationCount;
+            isSized = true;
+            fence = oldTable.length + table.length;
+            estimatedSize = hashTable.numberOfKeys;
+        }
+
+        private EntrySpliterator(@NotNull EntrySpliterator<K, V> parent, int index, int fence) {
+            hashTable = parent.hashTable;
+            oldTable = parent.oldTable;
+            table = parent.table;
+            expectedModificationCount = parent.expectedModificationCount;
+            isSized = false;
+            this.index = index;
+            this.fence = fence;
+            estimatedSize = parent.estimatedSize;
+        }
+
+        @Override
+        public boolean tryAdvance(@NotNull Consumer<? super Map.Entry<K, V>> action) {
+            while (true) {
+                if (bucketEntries != null) {
+                    if (bucketPosition < bucketEntries.length && bucketEntries[bucketPosition] != null) {
+                        action.accept(asEntry(bucketEntries[bucketPosition++]));
+                        checkForModification();
+                        return true;
+                    }
+                    bucketEntries = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                var bucket = getBucket(index++);
+                if (bucket instanceof Entry) {
+                    action.accept(asEntry(bucket));
+                    checkForModification();
+                    return true;
+                }
+                if (bucket != null) {
+                    bucketEntries = (Entry<?, ?>[]) bucket;
+                    bucketPosition = 0;
+                }
+            }
+        }
+
+        @Override
+        public void forEachRemaining(@NotNull Consumer<? super Map.Entry<K, V>> action) {
+            if (bucketEntries != null) {
+                while (bucketPosition < bucketEntries.length && bucketEntries[bucketPosition] != null) {
+                    action.accept(asEntry(bucketEntries[bucketPosition++]));
+                }
+                bucketEntries = null;
+            }
+            for (; index < fence; index++) {
+                HashTable.<K, V>forEachEntry(getBucket(index), action);
+            }
+            checkForModification();
+        }
+
+        @Override
+        public @Nullable Spliterator<Map.Entry<K, V>> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (bucketEntries != null || middle <= index) {
+                return null;
+            }
+            estimatedSize /= 2;
+            var prefix = new EntrySpliterator<>(this, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimatedSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return (isSized ? SIZED : 0) | DISTINCT | NONNULL;
+        }
+
+        private @Nullable Object getBucket(int bucketIndex) {
+            return bucketIndex < oldTable.length ? oldTable[bucketIndex] : table[bucketIndex - oldTable.length];
+        }
+
+        private void checkForModification() {
+            if (hashTable.modificationCount != expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
     }
 }
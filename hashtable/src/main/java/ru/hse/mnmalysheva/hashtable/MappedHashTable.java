@@ -0,0 +1,484 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Hash table with string keys and values stored off-heap in a memory-mapped file.
+ * Opening an existing file does not read the table, pages are loaded by the OS on first access
+ * and are shared by all processes mapping the same file.
+ *
+ * <p>File starts with a header, the rest of it is an append-only arena of records and indexes.
+ * Record holds UTF-8 bytes of a key and its value. Index is an open addressing table of record offsets.
+ * Every change first appends a record, then switches a single index slot (or the header index pointer
+ * on resize) to it, so if a process dies in the middle of an operation, the reopened table contains
+ * either the old or the new value of the key. Surviving an OS crash additionally requires {@link #flush()}.
+ * Replaced records and old indexes are never reclaimed.
+ *
+ * <p>Table is not thread-safe, and a file must not be opened for writing by several tables at once.
+ */
+public class MappedHashTable implements Closeable {
+    private static final int MAGIC = 0x4d485431;
+    private static final int VERSION = 1;
+    private static final int MAGIC_POSITION = 0;
+    private static final int VERSION_POSITION = 4;
+    private static final int INDEX_OFFSET_POSITION = 8;
+    private static final int ARENA_END_POSITION = 16;
+    private static final int SIZE_POSITION = 24;
+    private static final int TOMBSTONES_POSITION = 32;
+    /** Nonzero if size and number of tombstones in the header are up to date, i.e. table was closed. */
+    private static final int CLEAN_POSITION = 40;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int ALIGNMENT = 8;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
+    private static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    /**
+     * Index slot holds record offset divided by {@link #ALIGNMENT} in lower bits
+     * and upper bits of key hash above them, so most mismatching records are skipped without reading.
+     */
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long EMPTY = 0;
+    /** Removed key. Records are never placed in the header, so this can't be a real slot. */
+    private static final long TOMBSTONE = 1;
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final int segmentShift;
+    private final int segmentMask;
+    /** File is mapped by segments since a single buffer can't exceed 2 GB, the last one may be shorter. */
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private long fileLength;
+    private long indexOffset;
+    private long indexCapacity;
+    private long arenaEnd;
+    private long numberOfKeys;
+    private long numberOfTombstones;
+
+    /** Open table stored in the file, the file is created if it doesn't exist. */
+    public MappedHashTable(@NotNull Path file) throws IOException {
+        this(file, false);
+    }
+
+    /**
+     * Open table stored in the file.
+     * @param readOnly if true, the file must exist, is not modified and may be shared with other readers.
+     */
+    public MappedHashTable(@NotNull Path file, boolean readOnly) throws IOException {
+        this(file, readOnly, DEFAULT_SEGMENT_SIZE);
+    }
+
+    MappedHashTable(@NotNull Path file, boolean readOnly, int segmentSize) throws IOException {
+        if (Integer.bitCount(segmentSize) != 1 || segmentSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be a power of two");
+        }
+        this.readOnly = readOnly;
+        segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        segmentMask = segmentSize - 1;
+        channel = readOnly
+                ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE);
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Number of keys in table. */
+    public long size() {
+        return numberOfKeys;
+    }
+
+    /** Check if table contains key. */
+    public boolean contains(@NotNull String key) {
+        return get(key) != null;
+    }
+
+    /** Get value from table.
+     * @return value if table contains key, null otherwise.
+     */
+    public @Nullable String get(@NotNull String key) {
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long slot = findSlot(keyBytes, hash(keyBytes));
+        long slotValue = readLong(slot);
+        return isRecord(slotValue) ? readValue(recordOffset(slotValue)) : null;
+    }
+
+    /** Put key to table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String put(@NotNull String key, @NotNull String value) {
+        checkWritable();
+        if ((numberOfKeys + numberOfTombstones + 1) * 2 > indexCapacity) {
+            rebuildIndex();
+        }
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+        long slot = findSlot(keyBytes, hash);
+        long slotValue = readLong(slot);
+        long record = appendRecord(keyBytes, value.getBytes(StandardCharsets.UTF_8));
+        commit(slot, (hash & ~OFFSET_MASK) | (record / ALIGNMENT));
+        if (isRecord(slotValue)) {
+            return readValue(recordOffset(slotValue));
+        }
+        if (slotValue == TOMBSTONE) {
+            numberOfTombstones--;
+        }
+        numberOfKeys++;
+        return null;
+    }
+
+    /** Remove key from table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String remove(@NotNull String key) {
+        checkWritable();
+        var keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long slot = findSlot(keyBytes, hash(keyBytes));
+        long slotValue = readLong(slot);
+        if (!isRecord(slotValue)) {
+            return null;
+        }
+        commit(slot, TOMBSTONE);
+        numberOfKeys--;
+        numberOfTombstones++;
+        return readValue(recordOffset(slotValue));
+    }
+
+    /** Remove all keys and truncate the file. */
+    public void clear() {
+        checkWritable();
+        commit(INDEX_OFFSET_POSITION, 0);
+        commit(ARENA_END_POSITION, HEADER_SIZE);
+        numberOfKeys = 0;
+        numberOfTombstones = 0;
+        arenaEnd = HEADER_SIZE;
+        createIndex(INITIAL_INDEX_CAPACITY);
+        try {
+            // remapping is needed since accessing a mapped region beyond the end of file fails
+            segments = new MappedByteBuffer[0];
+            channel.truncate(arenaEnd);
+            fileLength = 0;
+            mapFile(arenaEnd);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Write all changes to the storage device. */
+    public void flush() {
+        for (var segment : segments) {
+            segment.force();
+        }
+    }
+
+    /** Write size to the file header and close it. */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        if (!readOnly) {
+            writeLong(SIZE_POSITION, numberOfKeys);
+            writeLong(TOMBSTONES_POSITION, numberOfTombstones);
+            commit(CLEAN_POSITION, 1);
+            flush();
+        }
+        segments = new MappedByteBuffer[0];
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        long length = channel.size();
+        if (readOnly && length < HEADER_SIZE) {
+            throw new IOException("File is too short to hold a hash table");
+        }
+        length = Math.max(length, HEADER_SIZE);
+        mapFile(length);
+        if (!readOnly && length == HEADER_SIZE && segments[0].getInt(MAGIC_POSITION) == 0) {
+            // new file, or its creation was interrupted
+            segments[0].putInt(VERSION_POSITION, VERSION);
+            writeLong(ARENA_END_POSITION, HEADER_SIZE);
+            VarHandle.releaseFence();
+            segments[0].putInt(MAGIC_POSITION, MAGIC);
+        }
+        if (segments[0].getInt(MAGIC_POSITION) != MAGIC || segments[0].getInt(VERSION_POSITION) != VERSION) {
+            throw new IOException("File doesn't hold a hash table of a supported version");
+        }
+        arenaEnd = readLong(ARENA_END_POSITION);
+        indexOffset = readLong(INDEX_OFFSET_POSITION);
+        if (arenaEnd < HEADER_SIZE || arenaEnd > length || indexOffset < 0 || indexOffset >= arenaEnd) {
+            throw new IOException("Hash table file is corrupted");
+        }
+        if (indexOffset == 0) {
+            // new file or clear was interrupted
+            if (readOnly) {
+                throw new IOException("Hash table file is not initialized");
+            }
+            createIndex(INITIAL_INDEX_CAPACITY);
+        }
+        indexCapacity = readLong(indexOffset);
+        if (readLong(CLEAN_POSITION) != 0) {
+            numberOfKeys = readLong(SIZE_POSITION);
+            numberOfTombstones = readLong(TOMBSTONES_POSITION);
+        } else {
+            countKeys();
+        }
+        if (!readOnly) {
+            writeLong(CLEAN_POSITION, 0);
+        }
+    }
+
+    /** Restore counters after the table wasn't closed. */
+    private void countKeys() {
+        numberOfKeys = 0;
+        numberOfTombstones = 0;
+        for (long i = 0; i < indexCapacity; i++) {
+            long slotValue = readLong(slotPosition(i));
+            if (slotValue == TOMBSTONE) {
+                numberOfTombstones++;
+            } else if (slotValue != EMPTY) {
+                numberOfKeys++;
+            }
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Table is opened read-only");
+        }
+    }
+
+    /** FNV-1a with a final mix, part of the file format. */
+    private static long hash(@NotNull byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static boolean isRecord(long slotValue) {
+        return slotValue != EMPTY && slotValue != TOMBSTONE;
+    }
+
+    private static long recordOffset(long slotValue) {
+        return (slotValue & OFFSET_MASK) * ALIGNMENT;
+    }
+
+    private long slotPosition(long slotIndex) {
+        return indexOffset + ALIGNMENT + slotIndex * ALIGNMENT;
+    }
+
+    /**
+     * Find slot of the key.
+     * @return position of the slot holding the key if there is one,
+     * otherwise position of the first tombstone or empty slot where the key may be put.
+     */
+    private long findSlot(@NotNull byte[] key, long hash) {
+        long tag = hash & ~OFFSET_MASK;
+        long mask = indexCapacity - 1;
+        long freeSlot = -1;
+        for (long i = hash & mask; ; i = (i + 1) & mask) {
+            long slot = slotPosition(i);
+            long slotValue = readLong(slot);
+            if (slotValue == EMPTY) {
+                return freeSlot == -1 ? slot : freeSlot;
+            }
+            if (slotValue == TOMBSTONE) {
+                if (freeSlot == -1) {
+                    freeSlot = slot;
+                }
+            } else if ((slotValue & ~OFFSET_MASK) == tag && keyEquals(recordOffset(slotValue), key)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean keyEquals(long record, @NotNull byte[] key) {
+        if (readInt(record) != key.length) {
+            return false;
+        }
+        long keyStart = record + RECORD_HEADER_SIZE;
+        for (int i = 0; i < key.length; i++) {
+            if (readByte(keyStart + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @NotNull String readValue(long record) {
+        int keyLength = readInt(record);
+        var value = new byte[readInt(record + 4)];
+        readBytes(record + RECORD_HEADER_SIZE + keyLength, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /** Append record to the arena, it is not referenced by the index yet. */
+    private long appendRecord(@NotNull byte[] key, @NotNull byte[] value) {
+        long record = allocate(RECORD_HEADER_SIZE + (long) key.length + value.length);
+        writeInt(record, key.length);
+        writeInt(record + 4, value.length);
+        writeBytes(record + RECORD_HEADER_SIZE, key);
+        writeBytes(record + RECORD_HEADER_SIZE + key.length, value);
+        return record;
+    }
+
+    /** Reserve arena space, it is committed to the header before anything refers to it. */
+    private long allocate(long size) {
+        long start = arenaEnd;
+        long end = start + (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        if (end / ALIGNMENT > OFFSET_MASK) {
+            throw new IllegalStateException("Hash table file is full");
+        }
+        if (end > fileLength) {
+            try {
+                mapFile(Math.max(end, Math.min(fileLength * 2, fileLength + segmentMask + 1)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        arenaEnd = end;
+        commit(ARENA_END_POSITION, arenaEnd);
+        return start;
+    }
+
+    /** Write a new index without tombstones to the arena and switch the header to it. */
+    private void rebuildIndex() {
+        long capacity = INITIAL_INDEX_CAPACITY;
+        while (capacity < (numberOfKeys + 1) * 4) {
+            capacity *= 2;
+        }
+        long oldIndexOffset = indexOffset;
+        long oldCapacity = indexCapacity;
+        long newIndexOffset = allocate(ALIGNMENT + capacity * ALIGNMENT);
+        // arena space isn't reused, so the new index is zero-filled
+        writeLong(newIndexOffset, capacity);
+        long mask = capacity - 1;
+        for (long i = 0; i < oldCapacity; i++) {
+            long slotValue = readLong(oldIndexOffset + ALIGNMENT + i * ALIGNMENT);
+            if (!isRecord(slotValue)) {
+                continue;
+            }
+            long record = recordOffset(slotValue);
+            long hash = hash(readKey(record));
+            long j = hash & mask;
+            while (readLong(newIndexOffset + ALIGNMENT + j * ALIGNMENT) != EMPTY) {
+                j = (j + 1) & mask;
+            }
+            writeLong(newIndexOffset + ALIGNMENT + j * ALIGNMENT, slotValue);
+        }
+        commit(INDEX_OFFSET_POSITION, newIndexOffset);
+        indexOffset = newIndexOffset;
+        indexCapacity = capacity;
+        numberOfTombstones = 0;
+    }
+
+    private void createIndex(long capacity) {
+        long newIndexOffset = allocate(ALIGNMENT + capacity * ALIGNMENT);
+        // arena end may have been rolled back by an interrupted clear, so the space may hold old data
+        for (long i = 1; i <= capacity; i++) {
+            writeLong(newIndexOffset + i * ALIGNMENT, EMPTY);
+        }
+        writeLong(newIndexOffset, capacity);
+        commit(INDEX_OFFSET_POSITION, newIndexOffset);
+        indexOffset = newIndexOffset;
+        indexCapacity = capacity;
+    }
+
+    private @NotNull byte[] readKey(long record) {
+        var key = new byte[readInt(record)];
+        readBytes(record + RECORD_HEADER_SIZE, key);
+        return key;
+    }
+
+    /** Grow the file if needed and map all of it. */
+    private void mapFile(long length) throws IOException {
+        var mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        long segmentSize = segmentMask + 1L;
+        int numberOfSegments = (int) ((length + segmentMask) >>> segmentShift);
+        // full segments stay mapped, the last one is remapped since it has grown
+        int firstChanged = (int) (fileLength >>> segmentShift);
+        var newSegments = Arrays.copyOf(segments, numberOfSegments);
+        for (int i = firstChanged; i < numberOfSegments; i++) {
+            long start = i * segmentSize;
+            var segment = channel.map(mode, start, Math.min(segmentSize, length - start));
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            newSegments[i] = segment;
+        }
+        segments = newSegments;
+        fileLength = length;
+    }
+
+    /** Write a long after all preceding writes, so a dead process never leaves it without data it refers to. */
+    private void commit(long position, long value) {
+        VarHandle.releaseFence();
+        writeLong(position, value);
+    }
+
+    private long readLong(long position) {
+        return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+    }
+
+    private void writeLong(long position, long value) {
+        segments[(int) (position >>> segmentShift)].putLong((int) (position & segmentMask), value);
+    }
+
+    private int readInt(long position) {
+        return segments[(int) (position >>> segmentShift)].getInt((int) (position & segmentMask));
+    }
+
+    private void writeInt(long position, int value) {
+        segments[(int) (position >>> segmentShift)].putInt((int) (position & segmentMask), value);
+    }
+
+    private byte readByte(long position) {
+        return segments[(int) (position >>> segmentShift)].get((int) (position & segmentMask));
+    }
+
+    /** Bytes may cross segment boundaries, unlike aligned longs and ints. */
+    private void readBytes(long position, @NotNull byte[] destination) {
+        int done = 0;
+        while (done < destination.length) {
+            long current = position + done;
+            int offset = (int) (current & segmentMask);
+            int length = Math.min(destination.length - done, segmentMask + 1 - offset);
+            var segment = segments[(int) (current >>> segmentShift)].duplicate();
+            segment.position(offset);
+            segment.get(destination, done, length);
+            done += length;
+        }
+    }
+
+    private void writeBytes(long position, @NotNull byte[] source) {
+        int done = 0;
+        while (done < source.length) {
+            long current = position + done;
+            int offset = (int) (current & segmentMask);
+            int length = Math.min(source.length - done, segmentMask + 1 - offset);
+            var segment = segments[(int) (current >>> segmentShift)].duplicate();
+            segment.position(offset);
+            segment.put(source, done, length);
+            done += length;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+/** See {@link HashStrategy#natural()}. */
+final class NaturalHashStrategy implements HashStrategy<Object> {
+    static final NaturalHashStrategy INSTANCE = new NaturalHashStrategy();
+
+    private NaturalHashStrategy() {}
+
+    @Override
+    public int hash(@NotNull Object key) {
+        return key.hashCode();
+    }
+
+    @Override
+    public boolean equals(@NotNull Object first, @NotNull Object second) {
+        return first.equals(second);
+    }
+}
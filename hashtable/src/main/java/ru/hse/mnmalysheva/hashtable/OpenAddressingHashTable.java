@@ -0,0 +1,157 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hash table with string keys and values using open addressing with linear probing.
+ * Keys, values and cached hash codes are kept in parallel arrays, so only growing and shrinking allocate.
+ * Removal shifts following entries back instead of leaving tombstones.
+ */
+public class OpenAddressingHashTable {
+    /** Must be a power of two. */
+    private static final int DEFAULT_CAPACITY = 1024;
+    /** Hash code of an empty slot. Stored hash codes are never equal to it. */
+    private static final int EMPTY = 0;
+    private int[] hashes;
+    private String[] keys;
+    private String[] values;
+    private int numberOfKeys;
+
+    public OpenAddressingHashTable() {
+        initTable(DEFAULT_CAPACITY);
+    }
+
+    /** Number of keys in table. */
+    public int size() {
+        return numberOfKeys;
+    }
+
+    /** Check if table contains key. */
+    public boolean contains(@NotNull String key) {
+        return find(key, getHash(key)) >= 0;
+    }
+
+    /** Get value from table.
+     * @return value if table contains key, null otherwise.
+     */
+    public @Nullable String get(@NotNull String key) {
+        int index = find(key, getHash(key));
+        return index >= 0 ? values[index] : null;
+    }
+
+    /** Put key to table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String put(@NotNull String key, @NotNull String value) {
+        int hash = getHash(key);
+        int index = find(key, hash);
+        if (index >= 0) {
+            var previousValue = values[index];
+            values[index] = value;
+            return previousValue;
+        }
+        index = ~index;
+        hashes[index] = hash;
+        keys[index] = key;
+        values[index] = value;
+        numberOfKeys++;
+        if (numberOfKeys * 2 > hashes.length) {
+            resize(hashes.length * 2);
+        }
+        return null;
+    }
+
+    /** Remove key from table.
+     * @return removed value if table contained key, null otherwise.
+     */
+    public @Nullable String remove(@NotNull String key) {
+        int index = find(key, getHash(key));
+        if (index < 0) {
+            return null;
+        }
+        var removedValue = values[index];
+        deleteSlot(index);
+        numberOfKeys--;
+        if (hashes.length > DEFAULT_CAPACITY && numberOfKeys * 8 < hashes.length) {
+            resize(hashes.length / 2);
+        }
+        return removedValue;
+    }
+
+    /** Remove all keys. */
+    public void clear() {
+        initTable(DEFAULT_CAPACITY);
+        numberOfKeys = 0;
+    }
+
+    /** Mixes high bits of string hash code into low ones, since slot index is taken from low bits. */
+    private static int getHash(@NotNull String key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    /**
+     * Find slot of the key.
+     * @return slot index if table contains key, otherwise bitwise complement of the empty slot where it belongs.
+     */
+    private int find(@NotNull String key, int hash) {
+        int mask = hashes.length - 1;
+        for (int index = hash & mask; ; index = (index + 1) & mask) {
+            int slotHash = hashes[index];
+            if (slotHash == EMPTY) {
+                return ~index;
+            }
+            if (slotHash == hash && key.equals(keys[index])) {
+                return index;
+            }
+        }
+    }
+
+    /** Empty slot and move back following entries of the same probe sequence, so that lookups do not stop early. */
+    private void deleteSlot(int index) {
+        int mask = hashes.length - 1;
+        int hole = index;
+        for (int next = (hole + 1) & mask; hashes[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            // entry may fill the hole only if the hole lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                hashes[hole] = hashes[next];
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        hashes[hole] = EMPTY;
+        keys[hole] = null;
+        values[hole] = null;
+    }
+
+    private void initTable(int capacity) {
+        hashes = new int[capacity];
+        keys = new String[capacity];
+        values = new String[capacity];
+    }
+
+    private void resize(int capacity) {
+        var oldHashes = hashes;
+        var oldKeys = keys;
+        var oldValues = values;
+        initTable(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            int hash = oldHashes[i];
+            if (hash == EMPTY) {
+                continue;
+            }
+            int index = hash & mask;
+            while (hashes[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            hashes[index] = hash;
+            keys[index] = oldKeys[i];
+            values[index] = oldValues[i];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.security.SecureRandom;
+
+/**
+ * Flood-resistant hash of strings: SipHash-2-4 of UTF-16LE representation with a secret 128-bit seed.
+ * Unlike {@link String#hashCode()}, keys with colliding hashes cannot be crafted without knowing the seed.
+ * Hash is not cached in the string, so it is several times slower to compute than {@link String#hashCode()}.
+ */
+public class SeededStringHashStrategy implements HashStrategy<String> {
+    private final long k0;
+    private final long k1;
+
+    /** Constructs strategy with a random seed. */
+    public SeededStringHashStrategy() {
+        var random = new SecureRandom();
+        k0 = random.nextLong();
+        k1 = random.nextLong();
+    }
+
+    /** Constructs strategy with the specified seed, e.g. to get the same hashes in different processes. */
+    public SeededStringHashStrategy(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    @Override
+    public int hash(@NotNull String key) {
+        long hash = sipHash24(k0, k1, key);
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(@NotNull String first, @NotNull String second) {
+        return first.equals(second);
+    }
+
+    /** SipHash-2-4 of string chars taken as little-endian pairs of bytes. */
+    static long sipHash24(long k0, long k1, @NotNull String key) {
+        var state = new long[] {
+                0x736f6d6570736575L ^ k0,
+                0x646f72616e646f6dL ^ k1,
+                0x6c7967656e657261L ^ k0,
+                0x7465646279746573L ^ k1
+        };
+        int length = key.length();
+        int end = length & ~3;
+        for (int i = 0; i < end; i += 4) {
+            long word = key.charAt(i)
+                    | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32
+                    | (long) key.charAt(i + 3) << 48;
+            compress(state, word);
+        }
+        long lastWord = (2L * length & 0xff) << 56;
+        for (int i = end; i < length; i++) {
+            lastWord |= (long) key.charAt(i) << (16 * (i - end));
+        }
+        compress(state, lastWord);
+        state[2] ^= 0xff;
+        for (int i = 0; i < 4; i++) {
+            round(state);
+        }
+        return state[0] ^ state[1] ^ state[2] ^ state[3];
+    }
+
+    private static void compress(long[] state, long word) {
+        state[3] ^= word;
+        round(state);
+        round(state);
+        state[0] ^= word;
+    }
+
+    private static void round(long[] state) {
+        long v0 = state[0];
+        long v1 = state[1];
+        long v2 = state[2];
+        long v3 = state[3];
+        v0 += v1;
+        v1 = Long.rotateLeft(v1, 13);
+        v1 ^= v0;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v3;
+        v3 = Long.rotateLeft(v3, 16);
+        v3 ^= v2;
+        v0 += v3;
+        v3 = Long.rotateLeft(v3, 21);
+        v3 ^= v0;
+        v2 += v1;
+        v1 = Long.rotateLeft(v1, 17);
+        v1 ^= v2;
+        v2 = Long.rotateLeft(v2, 32);
+        state[0] = v0;
+        state[1] = v1;
+        state[2] = v2;
+        state[3] = v3;
+    }
+}
@@ -0,0 +1,227 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHashTableTest {
+    private static final int NUMBER_OF_THREADS = 8;
+    private ConcurrentHashTable testTable;
+
+    @BeforeEach
+    void init() {
+        testTable = new ConcurrentHashTable();
+    }
+
+    @Test
+    void putGetRemove() {
+        assertNull(testTable.put("1", "a"));
+        assertNull(testTable.put("2", "b"));
+        assertEquals("a", testTable.put("1", "c"));
+        assertEquals("c", testTable.get("1"));
+        assertTrue(testTable.contains("2"));
+        assertNull(testTable.get("3"));
+        assertEquals("b", testTable.remove("2"));
+        assertNull(testTable.remove("2"));
+        assertFalse(testTable.contains("2"));
+        assertEquals(1, testTable.size());
+    }
+
+    @Test
+    void keysWithSameHashCode() {
+        testTable.put("AaAa", "1");
+        testTable.put("BBBB", "2");
+        testTable.put("AaBB", "3");
+        testTable.put("BBAa", "4");
+        assertEquals("3", testTable.remove("AaBB"));
+        assertEquals("1", testTable.get("AaAa"));
+        assertEquals("2", testTable.get("BBBB"));
+        assertEquals("4", testTable.get("BBAa"));
+        assertNull(testTable.get("AaBB"));
+        assertEquals(3, testTable.size());
+    }
+
+    @Test
+    void putIfAbsent() {
+        assertNull(testTable.putIfAbsent("1", "a"));
+        assertEquals("a", testTable.putIfAbsent("1", "b"));
+        assertEquals("a", testTable.get("1"));
+        assertEquals(1, testTable.size());
+    }
+
+    @Test
+    void compute() {
+        assertEquals("a", testTable.compute("1", (key, value) -> value == null ? "a" : value + "a"));
+        assertEquals("aa", testTable.compute("1", (key, value) -> value == null ? "a" : value + "a"));
+        assertEquals("aa", testTable.get("1"));
+        assertNull(testTable.compute("1", (key, value) -> null));
+        assertFalse(testTable.contains("1"));
+        assertNull(testTable.compute("2", (key, value) -> null));
+        assertEquals(0, testTable.size());
+    }
+
+    @Test
+    void clearRemovesAllKeys() {
+        for (int i = 0; i < 5000; i++) {
+            testTable.put(Integer.toString(i), "a");
+        }
+        testTable.clear();
+        assertEquals(0, testTable.size());
+        assertNull(testTable.get("1"));
+        assertNull(testTable.put("1", "b"));
+        assertEquals("b", testTable.get("1"));
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        var random = new Random(239);
+        var expected = new HashMap<String, String>();
+        for (int i = 0; i < 200_000; i++) {
+            var key = Integer.toString(random.nextInt(50_000));
+            var value = Integer.toString(i);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(expected.put(key, value), testTable.put(key, value));
+                    break;
+                case 2:
+                    assertEquals(expected.remove(key), testTable.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), testTable.get(key));
+            }
+        }
+        assertEquals(expected.size(), testTable.size());
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), testTable.get(entry.getKey()));
+        }
+    }
+
+    @RepeatedTest(10)
+    void concurrentPutsOfDifferentKeys() throws InterruptedException {
+        final int keysPerThread = 20_000;
+        runInThreads(thread -> {
+            for (int i = 0; i < keysPerThread; i++) {
+                assertNull(testTable.put(thread + ":" + i, Integer.toString(i)));
+            }
+        });
+        assertEquals(NUMBER_OF_THREADS * keysPerThread, testTable.size());
+        for (int thread = 0; thread < NUMBER_OF_THREADS; thread++) {
+            for (int i = 0; i < keysPerThread; i++) {
+                assertEquals(Integer.toString(i), testTable.get(thread + ":" + i));
+            }
+        }
+    }
+
+    @RepeatedTest(10)
+    void concurrentComputeIsAtomic() throws InterruptedException {
+        final int numberOfIncrements = 10_000;
+        final int numberOfKeys = 16;
+        runInThreads(thread -> {
+            for (int i = 0; i < numberOfIncrements; i++) {
+                testTable.compute(Integer.toString(i % numberOfKeys),
+                        (key, value) -> value == null ? "1" : Integer.toString(Integer.parseInt(value) + 1));
+            }
+        });
+        for (int i = 0; i < numberOfKeys; i++) {
+            assertEquals(Integer.toString(NUMBER_OF_THREADS * numberOfIncrements / numberOfKeys),
+                    testTable.get(Integer.toString(i)));
+        }
+    }
+
+    @RepeatedTest(10)
+    void readersSeeExistingKeysDuringResize() throws InterruptedException {
+        final int numberOfStableKeys = 1000;
+        for (int i = 0; i < numberOfStableKeys; i++) {
+            testTable.put("stable" + i, Integer.toString(i));
+        }
+        var isWriting = new AtomicBoolean(true);
+        var failure = new AtomicReference<String>();
+        var readers = new ArrayList<Thread>();
+        for (int i = 0; i < NUMBER_OF_THREADS / 2; i++) {
+            var reader = new Thread(() -> {
+                while (isWriting.get()) {
+                    for (int j = 0; j < numberOfStableKeys; j++) {
+                        if (!Integer.toString(j).equals(testTable.get("stable" + j))) {
+                            failure.set("stable" + j);
+                        }
+                    }
+                }
+            });
+            readers.add(reader);
+            reader.start();
+        }
+        runInThreads(thread -> {
+            for (int i = 0; i < 50_000; i++) {
+                testTable.put(thread + ":" + i, "a");
+                if (i % 3 == 0) {
+                    testTable.remove(thread + ":" + (i / 2));
+                }
+            }
+        });
+        isWriting.set(false);
+        for (var reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+
+    @RepeatedTest(10)
+    void concurrentPutIfAbsentHasOneWinner() throws InterruptedException {
+        var winners = new String[NUMBER_OF_THREADS];
+        runInThreads(thread -> {
+            for (int i = 0; i < 5000; i++) {
+                if (testTable.putIfAbsent(Integer.toString(i), Integer.toString(thread)) == null) {
+                    winners[thread] = winners[thread] == null ? "" : winners[thread];
+                    winners[thread] += i + ",";
+                }
+            }
+        });
+        int numberOfWins = 0;
+        for (int thread = 0; thread < NUMBER_OF_THREADS; thread++) {
+            if (winners[thread] != null) {
+                for (var key : winners[thread].split(",")) {
+                    assertEquals(Integer.toString(thread), testTable.get(key));
+                    numberOfWins++;
+                }
+            }
+        }
+        assertEquals(5000, numberOfWins);
+        assertEquals(5000, testTable.size());
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+
+    private static void runInThreads(ThreadBody body) throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        var failure = new AtomicReference<Throwable>();
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            final int thread = i;
+            var worker = new Thread(() -> {
+                try {
+                    body.run(thread);
+                } catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+            threads.add(worker);
+            worker.start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            fail(failure.get());
+        }
+    }
+}
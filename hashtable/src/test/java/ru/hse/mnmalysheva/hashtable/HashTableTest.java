@@ -1,16 +1,26 @@
 package ru.hse.mnmalysheva.hashtable;
 
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HashTableTest {
-    private HashTable testTable;
+    private HashTable<String, String> testTable;
 
     @BeforeEach
     void init() {
-        testTable = new HashTable();
+        testTable = new HashTable<>();
     }
 
     // size tests
@@ -358,4 +368,277 @@ class HashTableTest {
             assertEquals(Integer.toString(i), testTable.get(Integer.toString(i)));
         }
     }
+
+    @Test
+    void operationsDuringResizeMatchHashMap() {
+        var random = new Random(239);
+        var expected = new HashMap<String, String>();
+        for (int round = 0; round < 4; round++) {
+            // grow well past several resizes, then shrink back, mixing in lookups
+            for (int i = 0; i < 20000; i++) {
+                var key = Integer.toString(random.nextInt(30000));
+                assertEquals(expected.put(key, key + round), testTable.put(key, key + round));
+                var lookupKey = Integer.toString(random.nextInt(30000));
+                assertEquals(expected.get(lookupKey), testTable.get(lookupKey));
+            }
+            for (int i = 0; i < 30000; i++) {
+                var key = Integer.toString(random.nextInt(30000));
+                assertEquals(expected.remove(key), testTable.remove(key));
+                var lookupKey = Integer.toString(random.nextInt(30000));
+                assertEquals(expected.containsKey(lookupKey), testTable.contains(lookupKey));
+            }
+            assertEquals(expected.size(), testTable.size());
+        }
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), testTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void sizeOscillatingAroundResizeThreshold() {
+        for (int i = 0; i < 999; i++) {
+            testTable.put(Integer.toString(i), "a");
+        }
+        for (int i = 0; i < 1000; i++) {
+            testTable.put("x", "b");
+            assertEquals(1000, testTable.size());
+            assertEquals("b", testTable.remove("x"));
+            assertEquals(999, testTable.size());
+        }
+        for (int i = 0; i < 999; i++) {
+            assertEquals("a", testTable.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    void nonStringKeys() {
+        var table = new HashTable<Integer, Long>();
+        for (int i = -5000; i < 5000; i++) {
+            assertNull(table.put(i, (long) i * i));
+        }
+        assertEquals(10000, table.size());
+        for (int i = -5000; i < 5000; i++) {
+            assertEquals(Long.valueOf((long) i * i), table.get(i));
+        }
+        assertNull(table.get(5000));
+    }
+
+    @Test
+    void customStrategy() {
+        var table = new HashTable<String, String>(new HashStrategy<>() {
+            @Override
+            public int hash(@NotNull String key) {
+                return key.toLowerCase().hashCode();
+            }
+
+            @Override
+            public boolean equals(@NotNull String first, @NotNull String second) {
+                return first.equalsIgnoreCase(second);
+            }
+        });
+        assertNull(table.put("Key", "a"));
+        assertEquals("a", table.put("KEY", "b"));
+        assertEquals(1, table.size());
+        assertEquals("b", table.get("key"));
+        assertEquals("b", table.remove("kEy"));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void collidingKeysInOneBucket() {
+        var keys = collidingKeys(10);
+        Collections.shuffle(keys, new Random(239));
+        for (var key : keys) {
+            assertNull(testTable.put(key, key));
+        }
+        Collections.shuffle(keys, new Random(239));
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i), testTable.remove(keys.get(i)));
+            assertEquals(keys.size() - i - 1, testTable.size());
+            if (i + 1 < keys.size()) {
+                assertEquals(keys.get(i + 1), testTable.get(keys.get(i + 1)));
+            }
+            assertEquals(keys.size() - i - 1, testTable.stream().count());
+        }
+    }
+
+    @Test
+    void seededStrategyWithCollidingKeys() {
+        var table = new HashTable<String, String>(new SeededStringHashStrategy());
+        var keys = collidingKeys(10);
+        for (var key : keys) {
+            assertEquals("Aa".repeat(10).hashCode(), key.hashCode());
+            assertNull(table.put(key, key));
+        }
+        assertEquals(keys.size(), table.size());
+        for (var key : keys) {
+            assertEquals(key, table.get(key));
+        }
+        for (var key : keys) {
+            assertEquals(key, table.remove(key));
+        }
+        assertEquals(0, table.size());
+    }
+
+    // bulk load tests
+
+    @Test
+    void putAllFromCollection() {
+        testTable.put("0", "old");
+        testTable.put("a", "a");
+        var entries = new ArrayList<Map.Entry<String, String>>();
+        for (int i = 0; i < 10000; i++) {
+            entries.add(Map.entry(Integer.toString(i), "value" + i));
+        }
+        entries.add(Map.entry("1", "duplicate"));
+        testTable.putAll(entries);
+        assertEquals(10001, testTable.size());
+        assertEquals("value0", testTable.get("0"));
+        assertEquals("duplicate", testTable.get("1"));
+        assertEquals("a", testTable.get("a"));
+        for (int i = 2; i < 10000; i++) {
+            assertEquals("value" + i, testTable.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    void putAllFromTableDuringResize() {
+        var other = new HashTable<String, String>();
+        for (int i = 0; i < 5000; i++) {
+            other.put(Integer.toString(i), "other");
+        }
+        // the last put starts a resize which is still in progress
+        for (int i = 4000; i < 6000; i++) {
+            testTable.put(Integer.toString(i), "test");
+        }
+        testTable.putAll(other);
+        assertEquals(6000, testTable.size());
+        for (int i = 0; i < 6000; i++) {
+            assertEquals(i < 5000 ? "other" : "test", testTable.get(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    void presizedTable() {
+        var table = new HashTable<Integer, Integer>(100000);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 100000; i++) {
+                table.put(i, i);
+            }
+            for (int i = 0; i < 100000; i++) {
+                assertEquals(Integer.valueOf(i), table.remove(i));
+            }
+        }
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    void tooLargeExpectedSizeThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<Integer, Integer>(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new HashTable<Integer, Integer>(1 << 30));
+    }
+
+    // iteration tests
+
+    @Test
+    void iteratorReturnsAllEntriesDuringResize() {
+        var expected = new HashMap<String, String>();
+        for (int i = 0; i < 3000; i++) {
+            testTable.put(Integer.toString(i), "value" + i);
+            expected.put(Integer.toString(i), "value" + i);
+            var actual = new HashMap<String, String>();
+            for (var entry : testTable) {
+                assertNull(actual.put(entry.getKey(), entry.getValue()));
+            }
+            if (i % 500 == 0) {
+                assertEquals(expected, actual);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+    }
+
+    @Test
+    void emptyTableIterator() {
+        assertFalse(testTable.iterator().hasNext());
+        assertEquals(0, testTable.stream().count());
+    }
+
+    @Test
+    void setValueChangesTable() {
+        testTable.put("1", "a");
+        var entry = testTable.iterator().next();
+        assertEquals("a", entry.setValue("b"));
+        assertEquals("b", testTable.get("1"));
+        assertEquals(Map.entry("1", "b"), entry);
+    }
+
+    @Test
+    void modificationDuringIteration() {
+        for (int i = 0; i < 100; i++) {
+            testTable.put(Integer.toString(i), "a");
+        }
+        var iterator = testTable.iterator();
+        iterator.next();
+        testTable.put("1", "b");
+        iterator.next();
+        testTable.put("new", "b");
+        assertThrows(ConcurrentModificationException.class, () -> {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+        });
+        assertThrows(ConcurrentModificationException.class, () -> testTable.stream().forEach(entry -> testTable.clear()));
+    }
+
+    @Test
+    void splitsCoverEveryEntryOnce() {
+        for (int i = 0; i < 10000; i++) {
+            testTable.put(Integer.toString(i), "a");
+        }
+        var spliterator = testTable.spliterator();
+        assertEquals(10000, spliterator.estimateSize());
+        var splits = new ArrayList<Spliterator<Map.Entry<String, String>>>();
+        splits.add(spliterator);
+        for (int i = 0; i < 5; i++) {
+            var prefixes = new ArrayList<Spliterator<Map.Entry<String, String>>>();
+            for (var split : splits) {
+                var prefix = split.trySplit();
+                if (prefix != null) {
+                    prefixes.add(prefix);
+                }
+            }
+            splits.addAll(prefixes);
+        }
+        assertEquals(32, splits.size());
+        var keys = new HashSet<String>();
+        for (var split : splits) {
+            split.forEachRemaining(entry -> assertTrue(keys.add(entry.getKey())));
+        }
+        assertEquals(10000, keys.size());
+    }
+
+    @Test
+    void parallelStream() {
+        for (int i = 0; i < 100000; i++) {
+            testTable.put(Integer.toString(i), Integer.toString(i));
+        }
+        long sum = testTable.parallelStream().mapToLong(entry -> Long.parseLong(entry.getValue())).sum();
+        assertEquals(99999L * 100000 / 2, sum);
+        assertEquals(100000, testTable.parallelStream().map(Map.Entry::getKey).distinct().count());
+    }
+
+    /** All strings of the specified number of "Aa" and "BB" blocks, which have equal hash codes. */
+    private static ArrayList<String> collidingKeys(int blocks) {
+        var keys = new ArrayList<String>();
+        keys.add("");
+        for (int i = 0; i < blocks; i++) {
+            var longerKeys = new ArrayList<String>();
+            for (var key : keys) {
+                longerKeys.add(key + "Aa");
+                longerKeys.add(key + "BB");
+            }
+            keys = longerKeys;
+        }
+        return keys;
+    }
 }
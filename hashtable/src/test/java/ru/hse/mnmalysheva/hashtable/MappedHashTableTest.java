@@ -0,0 +1,243 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedHashTableTest {
+    private Path file;
+    private MappedHashTable testTable;
+
+    @BeforeEach
+    void init() throws IOException {
+        file = Files.createTempFile("mapped-hash-table", ".bin");
+        testTable = new MappedHashTable(file);
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        testTable.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void emptyTable() {
+        assertEquals(0, testTable.size());
+        assertNull(testTable.get("key"));
+        assertFalse(testTable.contains("key"));
+        assertNull(testTable.remove("key"));
+    }
+
+    @Test
+    void putGetRemove() {
+        assertNull(testTable.put("key", "value"));
+        assertEquals("value", testTable.get("key"));
+        assertEquals("value", testTable.put("key", "other value"));
+        assertEquals("other value", testTable.get("key"));
+        assertEquals(1, testTable.size());
+        assertEquals("other value", testTable.remove("key"));
+        assertNull(testTable.get("key"));
+        assertEquals(0, testTable.size());
+        assertNull(testTable.put("key", "value"));
+        assertEquals(1, testTable.size());
+    }
+
+    @Test
+    void emptyAndNonAsciiStrings() {
+        testTable.put("", "");
+        testTable.put("ключ", "значение");
+        testTable.put("鍵", "🔑");
+        assertEquals("", testTable.get(""));
+        assertEquals("значение", testTable.get("ключ"));
+        assertEquals("🔑", testTable.get("鍵"));
+    }
+
+    @Test
+    void reopenedTableKeepsKeys() throws IOException {
+        for (int i = 0; i < 10000; i++) {
+            testTable.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 10000; i += 2) {
+            testTable.remove("key" + i);
+        }
+        testTable.close();
+        testTable = new MappedHashTable(file);
+        assertEquals(5000, testTable.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 2 == 0 ? null : "value" + i, testTable.get("key" + i));
+        }
+    }
+
+    @Test
+    void operationsWithReopeningMatchHashMap() throws IOException {
+        var random = new Random(239);
+        var expected = new HashMap<String, String>();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5000; i++) {
+                var key = Integer.toString(random.nextInt(4000));
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(key), testTable.remove(key));
+                } else {
+                    var value = "value" + random.nextInt();
+                    assertEquals(expected.put(key, value), testTable.put(key, value));
+                }
+            }
+            testTable.close();
+            testTable = new MappedHashTable(file);
+            assertEquals(expected.size(), testTable.size());
+        }
+        for (int i = 0; i < 4000; i++) {
+            var key = Integer.toString(i);
+            assertEquals(expected.get(key), testTable.get(key));
+        }
+    }
+
+    @Test
+    void valuesCrossingSegments() throws IOException {
+        testTable.close();
+        testTable = new MappedHashTable(file, false, 128);
+        var random = new Random(239);
+        var expected = new HashMap<String, String>();
+        for (int i = 0; i < 2000; i++) {
+            var key = "key" + random.nextInt(1000);
+            var value = "v".repeat(random.nextInt(500));
+            assertEquals(expected.put(key, value), testTable.put(key, value));
+        }
+        testTable.close();
+        testTable = new MappedHashTable(file, false, 256);
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), testTable.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    void clearTruncatesFile() throws IOException {
+        for (int i = 0; i < 10000; i++) {
+            testTable.put("key" + i, "value" + i);
+        }
+        long filledLength = Files.size(file);
+        testTable.clear();
+        assertEquals(0, testTable.size());
+        assertNull(testTable.get("key1"));
+        assertTrue(Files.size(file) < filledLength / 10);
+        testTable.put("key", "value");
+        testTable.close();
+        testTable = new MappedHashTable(file);
+        assertEquals(1, testTable.size());
+        assertEquals("value", testTable.get("key"));
+    }
+
+    @Test
+    void readOnlyTable() throws IOException {
+        testTable.put("key", "value");
+        testTable.close();
+        testTable = new MappedHashTable(file, true);
+        try (var otherReader = new MappedHashTable(file, true)) {
+            assertEquals("value", otherReader.get("key"));
+        }
+        assertEquals("value", testTable.get("key"));
+        assertThrows(UnsupportedOperationException.class, () -> testTable.put("key", "other value"));
+        assertThrows(UnsupportedOperationException.class, () -> testTable.remove("key"));
+    }
+
+    @Test
+    void notTableFile() throws IOException {
+        testTable.close();
+        Files.write(file, "definitely not a hash table, but long enough to have a header".repeat(2).getBytes());
+        assertThrows(IOException.class, () -> new MappedHashTable(file));
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> new MappedHashTable(file, true));
+    }
+
+    @Test
+    void tableNotClosed() throws IOException {
+        for (int i = 0; i < 10000; i++) {
+            testTable.put("key" + i, "value" + i);
+        }
+        for (int i = 0; i < 10000; i += 3) {
+            testTable.remove("key" + i);
+        }
+        // the first table is abandoned as if its process died, its changes are in the shared page cache
+        var reopenedTable = new MappedHashTable(file);
+        assertEquals(6666, reopenedTable.size());
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(i % 3 == 0 ? null : "value" + i, reopenedTable.get("key" + i));
+        }
+        testTable = reopenedTable;
+    }
+
+    @Test
+    void processKilledWhileWriting() throws Exception {
+        testTable.close();
+        var random = new Random(239);
+        int expectedSize = 0;
+        for (int attempt = 0; attempt < 3; attempt++) {
+            var process = startWriter(expectedSize);
+            try (var output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                assertEquals("started", output.readLine());
+                Thread.sleep(random.nextInt(300));
+            } finally {
+                process.destroyForcibly();
+                process.waitFor();
+            }
+            testTable = new MappedHashTable(file, false, CrashingWriter.SEGMENT_SIZE);
+            // keys are put in order, so the table must hold their prefix
+            assertTrue(testTable.size() >= expectedSize);
+            expectedSize = (int) testTable.size();
+            for (int i = 0; i < expectedSize; i++) {
+                assertEquals("value" + i, testTable.get("key" + i));
+            }
+            for (int i = expectedSize; i < expectedSize + 100; i++) {
+                assertNull(testTable.get("key" + i));
+            }
+            testTable.close();
+        }
+        testTable = new MappedHashTable(file);
+    }
+
+    private @NotNull Process startWriter(int firstKey) throws IOException, URISyntaxException {
+        var classPath = String.join(File.pathSeparator,
+                classPathOf(MappedHashTable.class), classPathOf(CrashingWriter.class), classPathOf(NotNull.class));
+        var java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", classPath, CrashingWriter.class.getName(),
+                file.toString(), Integer.toString(firstKey))
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static @NotNull String classPathOf(@NotNull Class<?> someClass) throws URISyntaxException {
+        return Paths.get(someClass.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+    }
+
+    /** Puts keys in order until it is killed. Small segments make it remap the file often. */
+    static class CrashingWriter {
+        static final int SEGMENT_SIZE = 1 << 16;
+
+        public static void main(String[] args) throws IOException {
+            var table = new MappedHashTable(Paths.get(args[0]), false, SEGMENT_SIZE);
+            int firstKey = Integer.parseInt(args[1]);
+            for (int i = firstKey; i < firstKey + 1000; i++) {
+                table.put("key" + i, "value" + i);
+            }
+            System.out.println("started");
+            System.out.flush();
+            for (int i = firstKey + 1000; ; i++) {
+                table.put("key" + i, "value" + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAddressingHashTableTest {
+    private OpenAddressingHashTable testTable;
+
+    @BeforeEach
+    void init() {
+        testTable = new OpenAddressingHashTable();
+    }
+
+    @Test
+    void emptyTableSize() {
+        assertEquals(0, testTable.size());
+        testTable.put("1", "a");
+        testTable.remove("1");
+        assertEquals(0, testTable.size());
+        testTable.put("2", "b");
+        testTable.clear();
+        assertEquals(0, testTable.size());
+    }
+
+    @Test
+    void sizeDoesNotIncreaseAfterAddingExistingKey() {
+        testTable.put("1", "a");
+        testTable.put("1", "b");
+        assertEquals(1, testTable.size());
+    }
+
+    @Test
+    void putGetRemove() {
+        assertNull(testTable.put("1", "a"));
+        assertNull(testTable.put("2", "b"));
+        assertEquals("a", testTable.put("1", "c"));
+        assertEquals("c", testTable.get("1"));
+        assertEquals("b", testTable.get("2"));
+        assertNull(testTable.get("3"));
+        assertTrue(testTable.contains("2"));
+        assertEquals("b", testTable.remove("2"));
+        assertFalse(testTable.contains("2"));
+        assertNull(testTable.remove("2"));
+        assertEquals(1, testTable.size());
+    }
+
+    @Test
+    void keysWithSameHashCode() {
+        testTable.put("AaAa", "1");
+        testTable.put("BBBB", "2");
+        testTable.put("AaBB", "3");
+        testTable.put("BBAa", "4");
+        assertEquals(4, testTable.size());
+        assertEquals("2", testTable.remove("BBBB"));
+        assertEquals("1", testTable.get("AaAa"));
+        assertEquals("3", testTable.get("AaBB"));
+        assertEquals("4", testTable.get("BBAa"));
+        assertNull(testTable.get("BBBB"));
+        assertEquals("4", testTable.put("BBAa", "5"));
+    }
+
+    @Test
+    void addKeyWithNegativeHashCodeDoesNotThrow() {
+        assert("StringWithNegativeHashCode239".hashCode() < 0);
+        assertDoesNotThrow(() -> testTable.put("StringWithNegativeHashCode239", "Is it ok?"));
+        assertEquals("Is it ok?", testTable.get("StringWithNegativeHashCode239"));
+    }
+
+    @Test
+    void keyWithZeroHashCode() {
+        assertEquals(0, "".hashCode());
+        testTable.put("", "empty");
+        assertEquals("empty", testTable.get(""));
+        assertEquals("empty", testTable.remove(""));
+        assertFalse(testTable.contains(""));
+    }
+
+    @Test
+    void clearRemovesAllKeys() {
+        testTable.put("1", "a");
+        testTable.put("2", "b");
+        testTable.clear();
+        assertNull(testTable.get("1"));
+        assertNull(testTable.get("2"));
+        assertDoesNotThrow(() -> testTable.put("1", "a"));
+        assertEquals("a", testTable.remove("1"));
+    }
+
+    @Test
+    void resizeDoesNotBreakTable() {
+        for (int i = 0; i < 10000; i++) {
+            assertNull(testTable.put(Integer.toString(i), Integer.toString(i)));
+            assertEquals(i + 1, testTable.size());
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertEquals(Integer.toString(i), testTable.get(Integer.toString(i)));
+        }
+        for (int i = 9999; i >= 0; i--) {
+            assertEquals(Integer.toString(i), testTable.remove(Integer.toString(i)));
+            assertEquals(i, testTable.size());
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertNull(testTable.put(Integer.toString(i), Integer.toString(i)));
+        }
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(testTable.contains(Integer.toString(i)));
+        }
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        var random = new Random(239);
+        var expected = new HashMap<String, String>();
+        for (int i = 0; i < 200_000; i++) {
+            var key = Integer.toString(random.nextInt(5000));
+            var value = Integer.toString(i);
+            switch (random.nextInt(3)) {
+                case 0:
+                    assertEquals(expected.put(key, value), testTable.put(key, value));
+                    break;
+                case 1:
+                    assertEquals(expected.remove(key), testTable.remove(key));
+                    break;
+                default:
+                    assertEquals(expected.get(key), testTable.get(key));
+            }
+            assertEquals(expected.size(), testTable.size());
+        }
+        for (var entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), testTable.get(entry.getKey()));
+        }
+    }
+}
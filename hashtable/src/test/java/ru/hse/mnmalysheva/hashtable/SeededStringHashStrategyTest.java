@@ -0,0 +1,41 @@
+package ru.hse.mnmalysheva.hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeededStringHashStrategyTest {
+    private static final long K0 = 0x0706050403020100L;
+    private static final long K1 = 0x0f0e0d0c0b0a0908L;
+
+    /** Reference SipHash-2-4 vectors for messages 00 01 ... n-1, packed into chars as little-endian pairs. */
+    @Test
+    void referenceVectors() {
+        assertEquals(0x726fdb47dd0e0e31L, SeededStringHashStrategy.sipHash24(K0, K1, ""));
+        assertEquals(0x0d6c8009d9a94f5aL, SeededStringHashStrategy.sipHash24(K0, K1, "Ā"));
+        assertEquals(0xcf2794e0277187b7L, SeededStringHashStrategy.sipHash24(K0, K1, "Ā̂"));
+        assertEquals(0x93f5f5799a932462L,
+                SeededStringHashStrategy.sipHash24(K0, K1, "Ā̂Ԅ܆"));
+    }
+
+    @Test
+    void sameSeedGivesSameHash() {
+        var first = new SeededStringHashStrategy(1, 2);
+        var second = new SeededStringHashStrategy(1, 2);
+        assertEquals(first.hash("some key"), second.hash("some key"));
+    }
+
+    @Test
+    void differentSeedsGiveDifferentHashes() {
+        var first = new SeededStringHashStrategy(1, 2);
+        var second = new SeededStringHashStrategy(2, 1);
+        assertNotEquals(first.hash("some key"), second.hash("some key"));
+    }
+
+    @Test
+    void collidingHashCodesGetDifferentHashes() {
+        var strategy = new SeededStringHashStrategy(K0, K1);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(strategy.hash("Aa"), strategy.hash("BB"));
+    }
+}
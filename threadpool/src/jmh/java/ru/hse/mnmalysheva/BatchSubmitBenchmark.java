@@ -0,0 +1,63 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Compares {@link ThreadPool#submitAll} and {@link ThreadPool#allOf} with per-item submit and get. **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchSubmitBenchmark {
+    @Param({"FIFO", "WORK_STEALING"})
+    private SchedulingPolicy policy;
+
+    @Param({"10000", "100000"})
+    private int numberOfTasks;
+
+    private ThreadPool threadPool;
+    private List<Supplier<Integer>> suppliers;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = new ThreadPool(Runtime.getRuntime().availableProcessors(), policy);
+        suppliers = new ArrayList<>(numberOfTasks);
+        for (int i = 0; i < numberOfTasks; i++) {
+            final int finalI = i;
+            suppliers.add(() -> finalI + 1);
+        }
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public long perItem() throws Exception {
+        var futures = new ArrayList<LightFuture<Integer>>(numberOfTasks);
+        for (var supplier : suppliers) {
+            futures.add(threadPool.submit(supplier));
+        }
+        long sum = 0;
+        for (var future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long batch() throws Exception {
+        long sum = 0;
+        for (var result : threadPool.allOf(threadPool.submitAll(suppliers)).get()) {
+            sum += result;
+        }
+        return sum;
+    }
+}
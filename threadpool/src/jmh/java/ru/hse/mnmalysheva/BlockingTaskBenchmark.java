@@ -0,0 +1,57 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Compares fixed-size pool with per-task virtual threads on tasks that mostly sleep. **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockingTaskBenchmark {
+    private static final int NUMBER_OF_TASKS = 1000;
+    private static final int SLEEP_TIME_MILLIS = 10;
+    private static final int FIXED_POOL_SIZE = 16;
+    private static final int VIRTUAL_POOL_CONCURRENCY = 1000;
+
+    @Param({"FIXED", "VIRTUAL"})
+    private String mode;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = mode.equals("FIXED")
+                ? new ThreadPool(FIXED_POOL_SIZE)
+                : ThreadPool.newVirtualThreadPool(VIRTUAL_POOL_CONCURRENCY);
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public long sleepingTasks() throws Exception {
+        var futures = new ArrayList<LightFuture<Integer>>(NUMBER_OF_TASKS);
+        for (int i = 0; i < NUMBER_OF_TASKS; i++) {
+            futures.add(threadPool.submit(() -> {
+                try {
+                    Thread.sleep(SLEEP_TIME_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return 1;
+            }));
+        }
+        long sum = 0;
+        for (var future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** End-to-end latency of a 10-stage continuation chain with queued and inline stages. **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChainLatencyBenchmark {
+    private static final int NUMBER_OF_STAGES = 10;
+
+    @Param({"FIFO", "WORK_STEALING"})
+    private SchedulingPolicy policy;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = new ThreadPool(4, policy);
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public Integer async() throws Exception {
+        LightFuture<Integer> future = threadPool.submit(() -> 0);
+        for (int i = 0; i < NUMBER_OF_STAGES; i++) {
+            future = future.thenApplyAsync(a -> a + 1);
+        }
+        return future.get();
+    }
+
+    @Benchmark
+    public Integer inline() throws Exception {
+        LightFuture<Integer> future = threadPool.submit(() -> 0);
+        for (int i = 0; i < NUMBER_OF_STAGES; i++) {
+            future = future.thenApplyInline(a -> a + 1);
+        }
+        return future.get();
+    }
+}
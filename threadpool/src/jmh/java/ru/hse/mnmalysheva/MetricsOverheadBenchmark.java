@@ -0,0 +1,37 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Measures cost of {@link ThreadPoolMetrics} per task compared to a pool without listener. **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    @Param({"false", "true"})
+    private boolean isMetricsEnabled;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = new ThreadPool(1);
+        if (isMetricsEnabled) {
+            threadPool.setListener(new ThreadPoolMetrics());
+        }
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public Integer submitThenApplyGet() throws Exception {
+        return threadPool.submit(() -> 1).thenApply(a -> a + 1).get();
+    }
+}
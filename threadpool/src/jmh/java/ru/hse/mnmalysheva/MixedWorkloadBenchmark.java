@@ -0,0 +1,59 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of short high priority tasks while the pool is saturated by low priority batch tasks.
+ * A background thread keeps {@link #BACKLOG} batch tasks queued. Look at {@code p0.99} in the output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MixedWorkloadBenchmark {
+    private static final int BACKLOG = 64;
+    private static final int BATCH_TASK_TOKENS = 10_000;
+
+    @Param({"FIFO", "PRIORITY"})
+    private SchedulingPolicy policy;
+
+    private ThreadPool threadPool;
+    private Thread feeder;
+    private volatile boolean toStop;
+
+    @Setup
+    public void startBatchLoad() {
+        threadPool = new ThreadPool(2, policy);
+        toStop = false;
+        feeder = new Thread(() -> {
+            while (!toStop) {
+                if (threadPool.getQueueSize() < BACKLOG) {
+                    threadPool.submit(() -> {
+                        Blackhole.consumeCPU(BATCH_TASK_TOKENS);
+                        return 0;
+                    }, TaskPriority.LOW);
+                } else {
+                    Thread.yield();
+                }
+            }
+        });
+        feeder.start();
+    }
+
+    @TearDown
+    public void stopBatchLoad() throws InterruptedException {
+        toStop = true;
+        feeder.join();
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public Integer highPriorityTask() throws Exception {
+        return threadPool.submit(() -> 1, TaskPriority.HIGH).get();
+    }
+}
@@ -0,0 +1,103 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares eager fixed-size pool with elastic pool of the same maximum size.
+ * {@code startSubmitShutdown} measures pool startup cost,
+ * {@code submitToManyPools} keeps many mostly idle pools alive and reports resident set size
+ * and number of live threads as secondary results (Linux only, RSS is 0 elsewhere).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoolSizingBenchmark {
+    private static final int MAX_POOL_SIZE = 64;
+    private static final int NUMBER_OF_POOLS = 32;
+
+    @State(Scope.Benchmark)
+    public static class PoolKind {
+        @Param({"eager", "elastic"})
+        private String kind;
+
+        ThreadPool create() {
+            if (kind.equals("eager")) {
+                return new ThreadPool(MAX_POOL_SIZE);
+            }
+            return new ThreadPool(1, MAX_POOL_SIZE, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ManyPools {
+        private ThreadPool[] pools;
+        private int next;
+
+        @Setup
+        public void createPools(PoolKind poolKind) {
+            pools = new ThreadPool[NUMBER_OF_POOLS];
+            for (int i = 0; i < NUMBER_OF_POOLS; i++) {
+                pools[i] = poolKind.create();
+            }
+        }
+
+        @TearDown
+        public void shutdownPools() {
+            for (var pool : pools) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /** Values are taken at the end of each iteration, JMH reports their sum over measurement iterations. **/
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long residentSetKb;
+        public long liveThreads;
+
+        @TearDown(Level.Iteration)
+        public void measure() throws IOException {
+            System.gc();
+            liveThreads = Thread.activeCount();
+            residentSetKb = readResidentSetKb();
+        }
+    }
+
+    @Benchmark
+    public Integer startSubmitShutdown(PoolKind poolKind) throws Exception {
+        var pool = poolKind.create();
+        var result = pool.submit(() -> 1).get();
+        pool.shutdown();
+        return result;
+    }
+
+    /** Secondary results are reported as they are only in throughput mode. **/
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Integer submitToManyPools(ManyPools manyPools, Footprint footprint) throws Exception {
+        manyPools.next = (manyPools.next + 1) % NUMBER_OF_POOLS;
+        return manyPools.pools[manyPools.next].submit(() -> 1).get();
+    }
+
+    private static long readResidentSetKb() throws IOException {
+        var status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return 0;
+        }
+        for (var line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,68 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Compares task queue contention of {@link SchedulingPolicy#FIFO} and {@link SchedulingPolicy#WORK_STEALING}. **/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchedulingBenchmark {
+    private static final int NUMBER_OF_TASKS = 1000;
+    private static final int CHAIN_LENGTH = 8;
+
+    @Param({"FIFO", "WORK_STEALING"})
+    private SchedulingPolicy policy;
+
+    @Param({"4", "8", "16"})
+    private int numberOfThreads;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = new ThreadPool(numberOfThreads, policy);
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    /** Several producers submit small tasks at the same time. **/
+    @Benchmark
+    @Threads(4)
+    public void submitFromManyThreads(Blackhole blackhole) throws Exception {
+        var futures = new ArrayList<LightFuture<Integer>>(NUMBER_OF_TASKS);
+        for (int i = 0; i < NUMBER_OF_TASKS; i++) {
+            final int finalI = i;
+            futures.add(threadPool.submit(() -> finalI * finalI));
+        }
+        for (var future : futures) {
+            blackhole.consume(future.get());
+        }
+    }
+
+    /** Continuations are scheduled by pool threads themselves. **/
+    @Benchmark
+    public void thenApplyChains(Blackhole blackhole) throws Exception {
+        var futures = new ArrayList<LightFuture<Integer>>(NUMBER_OF_TASKS / CHAIN_LENGTH);
+        for (int i = 0; i < NUMBER_OF_TASKS / CHAIN_LENGTH; i++) {
+            final int finalI = i;
+            LightFuture<Integer> future = threadPool.submit(() -> finalI);
+            for (int j = 0; j < CHAIN_LENGTH; j++) {
+                future = future.thenApply(a -> a + 1);
+            }
+            futures.add(future);
+        }
+        for (var future : futures) {
+            blackhole.consume(future.get());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.hse.mnmalysheva;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cost of a single task and of {@link LightFuture#thenApply} chains.
+ * Run with {@code -prof gc} to see allocated bytes per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskAllocationBenchmark {
+    @Param({"0", "1", "16"})
+    private int chainLength;
+
+    private ThreadPool threadPool;
+
+    @Setup
+    public void createThreadPool() {
+        threadPool = new ThreadPool(1);
+    }
+
+    @TearDown
+    public void shutdownThreadPool() {
+        threadPool.shutdown();
+    }
+
+    @Benchmark
+    public Integer submitThenApplyGet() throws Exception {
+        LightFuture<Integer> future = threadPool.submit(() -> 1);
+        for (int i = 0; i < chainLength; i++) {
+            future = future.thenApply(a -> a + 1);
+        }
+        return future.get();
+    }
+}
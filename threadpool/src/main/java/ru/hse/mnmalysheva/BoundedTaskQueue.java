@@ -0,0 +1,177 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue with limited capacity shared by all workers. Elements are taken in insertion order.
+ * Capacity is checked by {@link #offer}, {@link #putWhenNotFull} and {@link #replaceOldest} only,
+ * {@link #put} always adds element so that pool threads never block on their own queue.
+ */
+class BoundedTaskQueue<T> implements TaskQueue<T> {
+    private final Queue<T> queue = new ArrayDeque<>();
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    BoundedTaskQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void put(@NotNull T element) {
+        lock.lock();
+        try {
+            queue.add(element);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(@NotNull List<? extends T> elements) {
+        lock.lock();
+        try {
+            queue.addAll(elements);
+            signalNotEmpty(elements.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @NotNull T get() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                notEmpty.await();
+            }
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @Nullable T poll(long timeoutNanos) throws InterruptedException {
+        lock.lock();
+        try {
+            long remainingNanos = timeoutNanos;
+            while (queue.isEmpty()) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+            return take();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NotNull T element) {
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            queue.add(element);
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int offerAll(@NotNull List<? extends T> elements) {
+        lock.lock();
+        try {
+            int numberOfAdded = Math.min(elements.size(), Math.max(capacity - queue.size(), 0));
+            queue.addAll(elements.subList(0, numberOfAdded));
+            signalNotEmpty(numberOfAdded);
+            return numberOfAdded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offerAllOrNothing(@NotNull List<? extends T> elements) {
+        lock.lock();
+        try {
+            if (queue.size() + elements.size() > capacity) {
+                return false;
+            }
+            queue.addAll(elements);
+            signalNotEmpty(elements.size());
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putWhenNotFull(@NotNull T element) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queue.size() >= capacity) {
+                notFull.await();
+            }
+            queue.add(element);
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public @Nullable T replaceOldest(@NotNull T element) {
+        lock.lock();
+        try {
+            T removed = null;
+            if (queue.size() >= capacity) {
+                removed = queue.remove();
+            }
+            queue.add(element);
+            notEmpty.signal();
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Removes the oldest element, queue should be locked and not empty. **/
+    private @NotNull T take() {
+        var element = queue.remove();
+        if (queue.size() < capacity) {
+            notFull.signal();
+        }
+        return element;
+    }
+
+    private void signalNotEmpty(int numberOfAdded) {
+        for (int i = 0; i < numberOfAdded && lock.hasWaiters(notEmpty); i++) {
+            notEmpty.signal();
+        }
+    }
+}
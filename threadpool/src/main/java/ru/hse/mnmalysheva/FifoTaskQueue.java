@@ -0,0 +1,75 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/** Single queue shared by all workers. Elements are taken in insertion order. **/
+class FifoTaskQueue<T> implements TaskQueue<T> {
+    private final Queue<T> queue = new LinkedList<>();
+    private int numberOfWaitingWorkers;
+
+    @Override
+    public synchronized void put(@NotNull T element) {
+        queue.add(element);
+        notify();
+    }
+
+    @Override
+    public synchronized void putAll(@NotNull List<? extends T> elements) {
+        queue.addAll(elements);
+        if (elements.size() >= numberOfWaitingWorkers) {
+            notifyAll();
+        } else {
+            for (int i = 0; i < elements.size(); i++) {
+                notify();
+            }
+        }
+    }
+
+    @Override
+    public synchronized @NotNull T get() throws InterruptedException {
+        while (queue.isEmpty()) {
+            numberOfWaitingWorkers++;
+            try {
+                wait();
+            } finally {
+                numberOfWaitingWorkers--;
+            }
+        }
+        return queue.remove();
+    }
+
+    @Override
+    public synchronized @Nullable T poll(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (queue.isEmpty()) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return null;
+            }
+            numberOfWaitingWorkers++;
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            } finally {
+                numberOfWaitingWorkers--;
+            }
+        }
+        return queue.remove();
+    }
+
+    @Override
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    /** Notified workers stay counted as waiting until they take an element, so the answer is exact. **/
+    @Override
+    public synchronized boolean hasUnclaimedElements() {
+        return queue.size() > numberOfWaitingWorkers;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.hse.mnmalysheva;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.
+ * Values are counted in power-of-two buckets, so percentiles are accurate within a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int NUMBER_OF_BUCKETS = Long.SIZE;
+
+    /** Bucket {@code i} counts values in {@code [2^(i-1), 2^i)}, bucket 0 counts zeros. **/
+    private final AtomicLongArray buckets = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Records a duration, negative values are treated as zero. **/
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        buckets.incrementAndGet(NUMBER_OF_BUCKETS - Long.numberOfLeadingZeros(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /** Returns number of recorded values. **/
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** Returns mean of recorded values, 0 if histogram is empty. **/
+    public long getMean() {
+        long currentCount = count.sum();
+        return currentCount == 0 ? 0 : sum.sum() / currentCount;
+    }
+
+    /** Returns maximum recorded value, 0 if histogram is empty. **/
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns an upper bound of the specified percentile, never greater than maximum recorded value.
+     * @param percentile value in range {@code [0, 100]}.
+     * @return 0 if histogram is empty.
+     * @throws IllegalArgumentException if percentile is out of range.
+     */
+    public long getPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile should be in range [0, 100].");
+        }
+        var counts = new long[NUMBER_OF_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        int bucket = 0;
+        while (bucket < NUMBER_OF_BUCKETS - 1 && seen + counts[bucket] < rank) {
+            seen += counts[bucket];
+            bucket++;
+        }
+        long upperBound = bucket == 0 ? 0 : (1L << bucket) - 1;
+        return Math.min(upperBound, getMax());
+    }
+}
@@ -1,26 +1,103 @@
 package ru.hse.mnmalysheva;
 
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /** A {@code LightFuture} represents the result of computation inside {@link ThreadPool}. **/
 public interface LightFuture<T> {
-    /** Returns {@code true} if this task completed. **/
+    /** Returns {@code true} if this task completed, including completion by cancellation. **/
     boolean isReady();
 
+    /** Returns {@code true} if this task was cancelled before it completed normally. **/
+    boolean isCancelled();
+
     /**
      * Returns the result of computation.
      * @throws LightExecutionException if computation executed with exception.
+     * @throws java.util.concurrent.CancellationException if computation was cancelled.
      * @throws InterruptedException if current thread was interrupted while waiting.
      */
     T get() throws LightExecutionException, InterruptedException;
 
+    /**
+     * Returns the result of computation, waiting at most the given time.
+     * @param timeout maximum time to wait.
+     * @param unit time unit of the timeout argument.
+     * @throws LightExecutionException if computation executed with exception.
+     * @throws java.util.concurrent.CancellationException if computation was cancelled.
+     * @throws InterruptedException if current thread was interrupted while waiting.
+     * @throws TimeoutException if computation did not complete in time.
+     */
+    T get(long timeout, @NotNull TimeUnit unit) throws LightExecutionException, InterruptedException, TimeoutException;
+
+    /**
+     * Attempts to cancel computation. Cancelled task is removed from execution when it is taken from queue,
+     * and all its dependent tasks are cancelled as well.
+     * @param mayInterruptIfRunning {@code true} if thread executing this task should be interrupted.
+     * @return {@code false} if task has already completed, {@code true} otherwise.
+     */
+    boolean cancel(boolean mayInterruptIfRunning);
+
     /**
      * Returns new {@code LightFuture} that represents the result of given {@link Function}
      * applied to the result of current computation.
+     * Function is submitted to the thread pool when current computation completes.
      * @param function function to apply.
      * @param <R> result type.
      * @return result of function application.
      * @throws IllegalStateException if thread pool was shut down.
      */
     <R> LightFuture<R> thenApply(Function<? super T, ? extends R> function);
+
+    /**
+     * Same as {@link #thenApply}, function always goes through the thread pool queue.
+     * @param function function to apply.
+     * @param <R> result type.
+     * @return result of function application.
+     * @throws IllegalStateException if thread pool was shut down.
+     */
+    default <R> LightFuture<R> thenApplyAsync(Function<? super T, ? extends R> function) {
+        return thenApply(function);
+    }
+
+    /**
+     * Returns new {@code LightFuture} that represents the result of given {@link Function}
+     * applied to the result of current computation.
+     * Function is executed by the thread that completes current computation,
+     * or by the caller if current computation has already completed.
+     * Use it for cheap functions only, since they hold the completing thread.
+     * Unlike {@link #thenApply}, it can be called after the thread pool was shut down,
+     * since function never goes through the thread pool queue.
+     * @param function function to apply.
+     * @param <R> result type.
+     * @return result of function application.
+     */
+    <R> LightFuture<R> thenApplyInline(Function<? super T, ? extends R> function);
+
+    /**
+     * Returns new {@code LightFuture} that completes with the same result as the future returned by given function.
+     * Function is applied inline, like in {@link #thenApplyInline}, so it can be called after shutdown too.
+     * @param function function returning future created by a thread pool.
+     * @param <R> result type.
+     * @return result of the returned future.
+     */
+    <R> LightFuture<R> thenCompose(Function<? super T, ? extends LightFuture<R>> function);
+
+    /**
+     * Returns new {@code LightFuture} that represents the result of given {@link BiFunction}
+     * applied to the results of current and other computations.
+     * Function is executed inline by the thread that completes the last of them.
+     * @param other future created by a thread pool.
+     * @param function function to apply.
+     * @param <U> other result type.
+     * @param <R> result type.
+     * @return result of function application.
+     * @throws IllegalArgumentException if other future was not created by a thread pool.
+     */
+    <U, R> LightFuture<R> thenCombine(LightFuture<? extends U> other,
+                                      BiFunction<? super T, ? super U, ? extends R> function);
 }
@@ -0,0 +1,19 @@
+package ru.hse.mnmalysheva;
+
+/** Defines what bounded {@link ThreadPool} does with a submitted task when its queue is full. **/
+public enum OverflowPolicy {
+    /** Caller waits until there is free space in queue. **/
+    BLOCK,
+
+    /** Task is executed by the caller thread. **/
+    CALLER_RUNS,
+
+    /** {@link java.util.concurrent.RejectedExecutionException} is thrown. **/
+    REJECT,
+
+    /**
+     * The oldest task in queue is removed to make room for the new one.
+     * Removed task completes with {@link LightExecutionException}.
+     */
+    DISCARD_OLDEST
+}
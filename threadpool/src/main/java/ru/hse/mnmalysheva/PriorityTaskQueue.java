@@ -0,0 +1,139 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Queue shared by all workers with a FIFO lane per {@link TaskPriority}.
+ * Worker takes element from the highest priority lane, unless heads of some lanes have waited longer
+ * than aging time: then the oldest of them is taken, so that low priority elements are not starved.
+ */
+class PriorityTaskQueue<T> implements TaskQueue<T> {
+    private final Queue<Entry<T>>[] lanes;
+    private final Function<? super T, TaskPriority> priorityOf;
+    private final long agingNanos;
+    private int size;
+    private int numberOfWaitingWorkers;
+
+    /**
+     * Constructs a new {@code PriorityTaskQueue}.
+     * @param priorityOf lane of an element, evaluated once when it is added.
+     * @param agingNanos waiting time after which element is taken regardless of its priority.
+     */
+    PriorityTaskQueue(@NotNull Function<? super T, TaskPriority> priorityOf, long agingNanos) {
+        this.priorityOf = priorityOf;
+        this.agingNanos = agingNanos;
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        var laneArray = (Queue<Entry<T>>[]) new Queue[TaskPriority.values().length];
+        lanes = laneArray;
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    @Override
+    public synchronized void put(@NotNull T element) {
+        add(element, System.nanoTime());
+        notify();
+    }
+
+    @Override
+    public synchronized void putAll(@NotNull List<? extends T> elements) {
+        long enqueueTime = System.nanoTime();
+        for (var element : elements) {
+            add(element, enqueueTime);
+        }
+        if (elements.size() >= numberOfWaitingWorkers) {
+            notifyAll();
+        } else {
+            for (int i = 0; i < elements.size(); i++) {
+                notify();
+            }
+        }
+    }
+
+    @Override
+    public synchronized @NotNull T get() throws InterruptedException {
+        while (size == 0) {
+            numberOfWaitingWorkers++;
+            try {
+                wait();
+            } finally {
+                numberOfWaitingWorkers--;
+            }
+        }
+        return take();
+    }
+
+    @Override
+    public synchronized @Nullable T poll(long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (size == 0) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return null;
+            }
+            numberOfWaitingWorkers++;
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+            } finally {
+                numberOfWaitingWorkers--;
+            }
+        }
+        return take();
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized boolean hasUnclaimedElements() {
+        return size > numberOfWaitingWorkers;
+    }
+
+    private void add(@NotNull T element, long enqueueTime) {
+        lanes[priorityOf.apply(element).ordinal()].add(new Entry<>(element, enqueueTime));
+        size++;
+    }
+
+    private @NotNull T take() {
+        long now = System.nanoTime();
+        int highestLane = -1;
+        int agedLane = -1;
+        long longestWait = agingNanos;
+        for (int i = 0; i < lanes.length; i++) {
+            var head = lanes[i].peek();
+            if (head == null) {
+                continue;
+            }
+            if (highestLane == -1) {
+                highestLane = i;
+            }
+            long wait = now - head.enqueueTime;
+            if (wait > longestWait) {
+                agedLane = i;
+                longestWait = wait;
+            }
+        }
+        size--;
+        return lanes[agedLane == -1 ? highestLane : agedLane].remove().element;
+    }
+
+    private static class Entry<T> {
+        private final T element;
+        private final long enqueueTime;
+
+        private Entry(T element, long enqueueTime) {
+            this.element = element;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+}
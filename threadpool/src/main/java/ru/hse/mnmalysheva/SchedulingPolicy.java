@@ -0,0 +1,21 @@
+package ru.hse.mnmalysheva;
+
+/** Defines how {@link ThreadPool} distributes tasks between its threads. **/
+public enum SchedulingPolicy {
+    /** All threads take tasks from one shared queue in submission order. **/
+    FIFO,
+
+    /**
+     * Every thread has its own deque and takes tasks from other threads when it runs out of work.
+     * Tasks submitted from outside the pool go to a shared injection queue,
+     * {@link LightFuture#thenApply} continuations scheduled by a pool thread go to its local deque.
+     */
+    WORK_STEALING,
+
+    /**
+     * All threads take tasks from one shared queue with a FIFO lane per {@link TaskPriority}.
+     * Higher priority lanes are served first, but a task that has waited longer than
+     * {@link ThreadPool#PRIORITY_AGING_TIME_MILLIS} is served before younger tasks of any priority.
+     */
+    PRIORITY
+}
@@ -0,0 +1,16 @@
+package ru.hse.mnmalysheva;
+
+/**
+ * Priority lane of a task in {@link ThreadPool} with {@link SchedulingPolicy#PRIORITY} policy.
+ * Continuations get the priority of the task they depend on.
+ */
+public enum TaskPriority {
+    /** Latency-sensitive tasks, served before other lanes. **/
+    HIGH,
+
+    /** Default priority. **/
+    NORMAL,
+
+    /** Background tasks, served when other lanes are empty or when they waited longer than aging time. **/
+    LOW
+}
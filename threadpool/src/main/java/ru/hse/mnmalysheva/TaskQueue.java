@@ -0,0 +1,83 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/** Queue that {@link ThreadPool} workers take tasks from. Queues are unbounded unless stated otherwise. **/
+interface TaskQueue<T> {
+    /** Adds element to queue regardless of its capacity and wakes up a worker waiting for it. **/
+    void put(@NotNull T element);
+
+    /**
+     * Adds all elements to queue regardless of its capacity
+     * and wakes up as many waiting workers as there are new elements.
+     */
+    void putAll(@NotNull List<? extends T> elements);
+
+    /**
+     * Retrieves and removes next element, waiting if necessary until it becomes available.
+     * @throws InterruptedException if current thread was interrupted while waiting.
+     */
+    @NotNull T get() throws InterruptedException;
+
+    /**
+     * Retrieves and removes next element, waiting up to the specified time until it becomes available.
+     * @return next element or {@code null} if waiting time elapsed.
+     * @throws InterruptedException if current thread was interrupted while waiting.
+     */
+    @Nullable T poll(long timeoutNanos) throws InterruptedException;
+
+    /** Returns number of elements in queue. **/
+    int size();
+
+    /** Returns whether queue holds more elements than there are workers waiting for them. **/
+    default boolean hasUnclaimedElements() {
+        return size() > 0;
+    }
+
+    /**
+     * Adds element to queue if it is not full.
+     * @return {@code true} if element was added, {@code false} otherwise.
+     */
+    default boolean offer(@NotNull T element) {
+        put(element);
+        return true;
+    }
+
+    /**
+     * Adds elements from the beginning of list while queue is not full.
+     * @return number of added elements.
+     */
+    default int offerAll(@NotNull List<? extends T> elements) {
+        putAll(elements);
+        return elements.size();
+    }
+
+    /**
+     * Adds all elements if queue has space for all of them, otherwise adds nothing.
+     * @return {@code true} if elements were added, {@code false} otherwise.
+     */
+    default boolean offerAllOrNothing(@NotNull List<? extends T> elements) {
+        putAll(elements);
+        return true;
+    }
+
+    /**
+     * Adds element to queue, waiting if necessary until it is not full.
+     * @throws InterruptedException if current thread was interrupted while waiting.
+     */
+    default void putWhenNotFull(@NotNull T element) throws InterruptedException {
+        put(element);
+    }
+
+    /**
+     * Adds element to queue, removing the oldest element if queue is full.
+     * @return removed element or {@code null} if queue was not full.
+     */
+    default @Nullable T replaceOldest(@NotNull T element) {
+        put(element);
+        return null;
+    }
+}
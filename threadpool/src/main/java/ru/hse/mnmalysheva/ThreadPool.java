@@ -1,61 +1,381 @@
 package ru.hse.mnmalysheva;
 
-import java.util.LinkedList;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
-/** Thread pool with fixed number of threads. **/
+/** Thread pool with fixed or elastic number of threads. **/
 public class ThreadPool {
-    private Thread[] threads;
-    private final TaskQueue<Task<?>> tasks = new TaskQueue<>();
+    /** Waiting time after which a task is served regardless of its priority under {@link SchedulingPolicy#PRIORITY}. **/
+    public static final long PRIORITY_AGING_TIME_MILLIS = 100;
+
+    private static final Object NULL_RESULT = new Object();
+    private static final Object INTERRUPTING = new Object();
+    private static final Cancellation CANCELLED = new Cancellation("Task was cancelled.");
+    private static final Cancellation EXPIRED = new Cancellation("Task deadline passed before it started.");
+    private static final Completion CLOSED_STACK = new Waiter(null);
+    private static final VarHandle OUTCOME;
+    private static final VarHandle DEPENDENTS;
+    private static final VarHandle RUNNER;
+    private static final VarHandle NEXT;
+
+    static {
+        try {
+            var lookup = MethodHandles.lookup();
+            OUTCOME = lookup.findVarHandle(Task.class, "outcome", Object.class);
+            DEPENDENTS = lookup.findVarHandle(Task.class, "dependents", Completion.class);
+            RUNNER = lookup.findVarHandle(Task.class, "runner", Object.class);
+            NEXT = lookup.findVarHandle(Completion.class, "next", Completion.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger numberOfWorkers = new AtomicInteger();
+    private final int corePoolSize;
+    private final int maxPoolSize;
+    private final long keepAliveNanos;
+    private final TaskQueue<Task<?>> tasks;
+    private final OverflowPolicy overflowPolicy;
+    private final ThreadFactory taskThreadFactory;
+    private final int maxConcurrency;
+    private final Semaphore concurrencyLimit;
+    private final LongAdder rejectedTaskCount = new LongAdder();
+    private volatile ThreadPoolListener listener;
     private volatile boolean toFinish;
 
     /**
-     * Constructs a new {@code ThreadPool} of specified size.
+     * Constructs a new {@code ThreadPool} of specified size with {@link SchedulingPolicy#FIFO} policy.
      * @param numberOfThreads thread pool size
      */
     public ThreadPool(int numberOfThreads) {
-        if (numberOfThreads <= 0) {
-            throw new IllegalArgumentException("Thread pool should have at least one thread.");
+        this(numberOfThreads, SchedulingPolicy.FIFO);
+    }
+
+    /**
+     * Constructs a new {@code ThreadPool} of specified size with unbounded task queue.
+     * @param numberOfThreads thread pool size
+     * @param policy the way tasks are distributed between threads
+     */
+    public ThreadPool(int numberOfThreads, @NotNull SchedulingPolicy policy) {
+        // unbounded queue is never full, so overflow policy is never applied
+        this(createTaskQueue(checkNumberOfThreads(numberOfThreads), policy), numberOfThreads, OverflowPolicy.REJECT);
+    }
+
+    /**
+     * Constructs a new {@code ThreadPool} of specified size with bounded task queue
+     * and {@link SchedulingPolicy#FIFO} policy.
+     * Queue capacity limits tasks passed to {@link #submit}, continuations are always accepted.
+     * @param numberOfThreads thread pool size
+     * @param queueCapacity maximum number of submitted tasks waiting for execution
+     * @param overflowPolicy what to do with a submitted task when queue is full
+     */
+    public ThreadPool(int numberOfThreads, int queueCapacity, @NotNull OverflowPolicy overflowPolicy) {
+        this(new BoundedTaskQueue<>(checkQueueCapacity(queueCapacity)),
+                checkNumberOfThreads(numberOfThreads), overflowPolicy);
+    }
+
+    /**
+     * Constructs a new elastic {@code ThreadPool} with unbounded FIFO task queue and no threads.
+     * A new thread is started for a submitted task while there are fewer than {@code corePoolSize} threads,
+     * or while queued tasks outnumber threads waiting for them and there are fewer than {@code maxPoolSize} threads.
+     * Threads above core size stop after being idle for keep-alive time.
+     * @param corePoolSize number of threads kept after they were started, even if idle
+     * @param maxPoolSize maximum number of threads
+     * @param keepAliveTime how long a thread above core size waits for a task before it stops
+     * @param unit time unit of {@code keepAliveTime}
+     */
+    public ThreadPool(int corePoolSize, int maxPoolSize, long keepAliveTime, @NotNull TimeUnit unit) {
+        if (corePoolSize < 0 || corePoolSize > maxPoolSize) {
+            throw new IllegalArgumentException("Core pool size should be in range [0, maxPoolSize].");
         }
+        checkNumberOfThreads(maxPoolSize);
+        if (keepAliveTime <= 0) {
+            throw new IllegalArgumentException("Keep-alive time should be positive.");
+        }
+        tasks = new FifoTaskQueue<>();
+        overflowPolicy = OverflowPolicy.REJECT;
+        taskThreadFactory = null;
+        maxConcurrency = maxPoolSize;
+        concurrencyLimit = null;
+        this.corePoolSize = corePoolSize;
+        this.maxPoolSize = maxPoolSize;
+        keepAliveNanos = unit.toNanos(keepAliveTime);
+    }
 
-        threads = new Thread[numberOfThreads];
+    private ThreadPool(@NotNull TaskQueue<Task<?>> tasks, int numberOfThreads, @NotNull OverflowPolicy overflowPolicy) {
+        this.tasks = tasks;
+        this.overflowPolicy = overflowPolicy;
+        taskThreadFactory = null;
+        maxConcurrency = numberOfThreads;
+        concurrencyLimit = null;
+        corePoolSize = numberOfThreads;
+        maxPoolSize = numberOfThreads;
+        keepAliveNanos = Long.MAX_VALUE;
         for (int i = 0; i < numberOfThreads; i++) {
-            threads[i] = new Thread(new ThreadLifecycle());
-            threads[i].start();
+            numberOfWorkers.incrementAndGet();
+            startWorker(new ThreadLifecycle());
         }
     }
 
+    private ThreadPool(int maxConcurrency, @NotNull ThreadFactory taskThreadFactory) {
+        tasks = new FifoTaskQueue<>();
+        overflowPolicy = OverflowPolicy.REJECT;
+        this.taskThreadFactory = taskThreadFactory;
+        this.maxConcurrency = maxConcurrency;
+        concurrencyLimit = new Semaphore(maxConcurrency);
+        corePoolSize = 1;
+        maxPoolSize = 1;
+        keepAliveNanos = Long.MAX_VALUE;
+        numberOfWorkers.incrementAndGet();
+        startWorker(new DispatcherLifecycle());
+    }
+
+    /**
+     * Constructs a new {@code ThreadPool} that runs every task on its own virtual thread.
+     * Suits tasks that spend most of their time blocked, since blocked tasks do not occupy pool threads.
+     * On runtimes without virtual threads a platform thread is started per task instead.
+     * @param maxConcurrency maximum number of tasks executed at the same time
+     * @return new thread pool.
+     */
+    public static ThreadPool newVirtualThreadPool(int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Thread pool should execute at least one task at a time.");
+        }
+        return new ThreadPool(maxConcurrency, createVirtualThreadFactory());
+    }
+
     /**
      * Add task for further execution.
+     * If task queue is bounded and full, acts according to overflow policy.
      * @param supplier computation is invocation of {@link Supplier#get()}.
      * @param <R> result type.
      * @return {@link LightFuture} that represents the result of computation.
      * @throws IllegalStateException if thread pool was shut down.
+     * @throws RejectedExecutionException if task queue is full and overflow policy is {@link OverflowPolicy#REJECT},
+     * or if current thread was interrupted while waiting for free space with {@link OverflowPolicy#BLOCK}.
      */
     public <R> LightFuture<R> submit(Supplier<R> supplier) {
         checkState();
         var task = new Task<>(supplier);
-        submitTask(task);
+        offerTask(task);
         return task;
     }
 
+    /**
+     * Add task that should start before specified timeout expires.
+     * If the deadline passes while task is still in queue, it is dropped without execution
+     * and completes as cancelled, together with its dependent tasks.
+     * Tasks created by {@link LightFuture#thenApply} do not inherit the deadline.
+     * @param supplier computation is invocation of {@link Supplier#get()}.
+     * @param timeout maximum time to wait for execution start.
+     * @param unit time unit of the timeout argument.
+     * @param <R> result type.
+     * @return {@link LightFuture} that represents the result of computation.
+     * @throws IllegalStateException if thread pool was shut down.
+     * @throws RejectedExecutionException same as {@link #submit(Supplier)}.
+     */
+    public <R> LightFuture<R> submit(Supplier<R> supplier, long timeout, @NotNull TimeUnit unit) {
+        checkState();
+        var task = new Task<>(supplier);
+        task.hasDeadline = true;
+        task.deadline = System.nanoTime() + unit.toNanos(timeout);
+        offerTask(task);
+        return task;
+    }
+
+    /**
+     * Add task to the specified priority lane.
+     * Priority is taken into account by {@link SchedulingPolicy#PRIORITY} pools only, other pools ignore it.
+     * Tasks created by {@link LightFuture#thenApply} inherit the priority.
+     * @param supplier computation is invocation of {@link Supplier#get()}.
+     * @param priority lane of the task.
+     * @param <R> result type.
+     * @return {@link LightFuture} that represents the result of computation.
+     * @throws IllegalStateException if thread pool was shut down.
+     * @throws RejectedExecutionException same as {@link #submit(Supplier)}.
+     */
+    public <R> LightFuture<R> submit(Supplier<R> supplier, @NotNull TaskPriority priority) {
+        checkState();
+        var task = new Task<>(supplier);
+        task.priority = priority;
+        offerTask(task);
+        return task;
+    }
+
+    /**
+     * Add several tasks for further execution at once.
+     * Tasks are added to queue in one operation, only as many threads as needed are woken up.
+     * If task queue is bounded, tasks that do not fit are handled one by one according to overflow policy,
+     * except for {@link OverflowPolicy#REJECT}, which rejects the whole batch if it does not fit.
+     * @param suppliers computations in order of submission.
+     * @param <R> result type.
+     * @return {@link LightFuture}s that represent results of computations, in the same order.
+     * @throws IllegalStateException if thread pool was shut down.
+     * @throws RejectedExecutionException if policy is {@link OverflowPolicy#REJECT} and queue does not have
+     * space for all tasks, then none of them is queued; or if waiting for space with {@link OverflowPolicy#BLOCK}
+     * was interrupted, then tasks queued before the interrupt still execute.
+     */
+    public <R> List<LightFuture<R>> submitAll(@NotNull Collection<? extends Supplier<R>> suppliers) {
+        checkState();
+        var newTasks = new ArrayList<Task<R>>(suppliers.size());
+        for (var supplier : suppliers) {
+            var task = new Task<>(supplier);
+            track(task);
+            newTasks.add(task);
+        }
+        int numberOfAdded;
+        if (overflowPolicy == OverflowPolicy.REJECT) {
+            if (!tasks.offerAllOrNothing(newTasks)) {
+                rejectedTaskCount.add(newTasks.size());
+                for (var task : newTasks) {
+                    task.drop();
+                }
+                throw new RejectedExecutionException("Task queue does not have space for all tasks.");
+            }
+            numberOfAdded = newTasks.size();
+        } else {
+            numberOfAdded = tasks.offerAll(newTasks);
+        }
+        for (int i = 0; i < numberOfAdded; i++) {
+            addWorkerIfNeeded();
+        }
+        for (int i = numberOfAdded; i < newTasks.size(); i++) {
+            try {
+                handleOverflow(newTasks.get(i));
+            } catch (RejectedExecutionException e) {
+                for (int j = i + 1; j < newTasks.size(); j++) {
+                    newTasks.get(j).drop();
+                }
+                throw e;
+            }
+        }
+        return Collections.unmodifiableList(newTasks);
+    }
+
+    /**
+     * Returns new {@code LightFuture} that completes when all given futures complete.
+     * No thread is blocked while waiting.
+     * If any of given futures executes with an exception, result executes with an exception too.
+     * @param futures futures created by a {@code ThreadPool}.
+     * @param <R> result type.
+     * @return results of given futures in the same order.
+     * @throws IllegalArgumentException if some future was not created by a {@code ThreadPool}.
+     */
+    public <R> LightFuture<List<R>> allOf(@NotNull List<? extends LightFuture<? extends R>> futures) {
+        var sources = toTasks(futures);
+        var joinTask = new Task<List<R>>(null);
+        var numberOfRemaining = new AtomicInteger(sources.size());
+        if (sources.isEmpty()) {
+            joinTask.complete(new ArrayList<R>());
+        }
+        for (var source : sources) {
+            source.whenComplete(outcome -> {
+                if (isExceptional(outcome)) {
+                    joinTask.complete(propagateFailure("One of the tasks executed with an exception", outcome));
+                } else if (numberOfRemaining.decrementAndGet() == 0) {
+                    var results = new ArrayList<R>(sources.size());
+                    for (var task : sources) {
+                        @SuppressWarnings("unchecked")
+                        var result = (R) task.result(task.outcome);
+                        results.add(result);
+                    }
+                    joinTask.complete(results);
+                }
+            });
+        }
+        return joinTask;
+    }
+
+    /**
+     * Returns new {@code LightFuture} that completes when any of given futures completes, with the same result.
+     * No thread is blocked while waiting.
+     * @param futures futures created by a {@code ThreadPool}.
+     * @param <R> result type.
+     * @return result of the first completed future.
+     * @throws IllegalArgumentException if list is empty or some future was not created by a {@code ThreadPool}.
+     */
+    public <R> LightFuture<R> anyOf(@NotNull List<? extends LightFuture<? extends R>> futures) {
+        if (futures.isEmpty()) {
+            throw new IllegalArgumentException("At least one future is required.");
+        }
+        var joinTask = new Task<R>(null);
+        for (var source : toTasks(futures)) {
+            source.whenComplete(outcome -> {
+                if (isExceptional(outcome)) {
+                    joinTask.complete(propagateFailure("First completed task executed with an exception", outcome));
+                } else {
+                    joinTask.complete(outcome);
+                }
+            });
+        }
+        return joinTask;
+    }
+
+    /**
+     * Installs listener notified about tasks added to queue after this call.
+     * Without a listener pool does not measure task timings at all.
+     * @param listener new listener, {@code null} to disable notifications.
+     */
+    public void setListener(@Nullable ThreadPoolListener listener) {
+        this.listener = listener;
+    }
+
+    /** Returns number of pool threads, including the ones that are about to stop after keep-alive time. **/
+    public int getPoolSize() {
+        return numberOfWorkers.get();
+    }
+
+    /** Returns number of tasks waiting for execution. **/
+    public int getQueueSize() {
+        return tasks.size();
+    }
+
+    /** Returns number of submitted tasks that found task queue full, regardless of overflow policy. **/
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.sum();
+    }
+
     /**
      * Shuts down thread pool.
      * All previously submitted tasks are executed, but no new tasks are accepted.
      */
     public void shutdown() {
         toFinish = true;
-        for (var thread : threads) {
-            boolean isSuccessful = false;
-            while (!isSuccessful) {
-                try {
-                    thread.interrupt();
-                    thread.join();
-                    isSuccessful = true;
-                } catch (InterruptedException ignored) {}
+        // running tasks can start new threads for their continuations, so repeat until every thread stops
+        while (!workers.isEmpty()) {
+            for (var thread : workers) {
+                boolean isSuccessful = false;
+                while (!isSuccessful) {
+                    try {
+                        thread.interrupt();
+                        thread.join();
+                        isSuccessful = true;
+                    } catch (InterruptedException ignored) {}
+                }
             }
         }
     }
@@ -66,11 +386,295 @@ public class ThreadPool {
         }
     }
 
+    private static int checkNumberOfThreads(int numberOfThreads) {
+        if (numberOfThreads <= 0) {
+            throw new IllegalArgumentException("Thread pool should have at least one thread.");
+        }
+        return numberOfThreads;
+    }
+
+    private static int checkQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Task queue capacity should be positive.");
+        }
+        return queueCapacity;
+    }
+
+    private static List<Task<?>> toTasks(@NotNull List<? extends LightFuture<?>> futures) {
+        var result = new ArrayList<Task<?>>(futures.size());
+        for (var future : futures) {
+            result.add(toTask(future));
+        }
+        return result;
+    }
+
+    private static Task<?> toTask(LightFuture<?> future) {
+        if (!(future instanceof Task)) {
+            throw new IllegalArgumentException("Future was not created by a thread pool.");
+        }
+        return (Task<?>) future;
+    }
+
+    private static boolean isExceptional(@NotNull Object outcome) {
+        return outcome instanceof Failure || outcome instanceof Cancellation;
+    }
+
+    /** Returns outcome of a task which source completed exceptionally. Cancellation is propagated as is. **/
+    private static Object propagateFailure(@NotNull String message, @NotNull Object sourceOutcome) {
+        if (sourceOutcome instanceof Cancellation) {
+            return sourceOutcome;
+        }
+        return new Failure(new LightExecutionException(message, ((Failure) sourceOutcome).exception));
+    }
+
+    /** Returns factory of virtual threads if runtime supports them, factory of platform threads otherwise. **/
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            var factory = Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            return (ThreadFactory) factory;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Thread::new;
+        }
+    }
+
+    private static TaskQueue<Task<?>> createTaskQueue(int numberOfThreads, @NotNull SchedulingPolicy policy) {
+        switch (policy) {
+            case WORK_STEALING:
+                return new WorkStealingTaskQueue<>(numberOfThreads);
+            case PRIORITY:
+                return new PriorityTaskQueue<Task<?>>(task -> task.priority,
+                        TimeUnit.MILLISECONDS.toNanos(PRIORITY_AGING_TIME_MILLIS));
+            case FIFO:
+            default:
+                return new FifoTaskQueue<>();
+        }
+    }
+
+    private static Object toOutcome(@Nullable Object result) {
+        return result == null ? NULL_RESULT : result;
+    }
+
+    /**
+     * Notifies completions of the list in order with the outcome of the task they depend on.
+     * Dependent tasks that complete right away, inline ones and ones failed by their parent, get their own
+     * dependents notified by this loop instead of a nested call, so long chains of them do not overflow the stack.
+     */
+    private static void notifyDependents(@Nullable Completion head, @NotNull Object outcome) {
+        // rests of lists with their outcomes, suspended to notify dependents of a completed task first
+        ArrayDeque<Object> suspended = null;
+        var current = head;
+        var currentOutcome = outcome;
+        while (true) {
+            if (current == null) {
+                if (suspended == null || suspended.isEmpty()) {
+                    return;
+                }
+                currentOutcome = suspended.pop();
+                current = (Completion) suspended.pop();
+                continue;
+            }
+            var next = current.next;
+            current.next = null;
+            if (!(current instanceof Task)) {
+                current.onCompletion(currentOutcome);
+                current = next;
+                continue;
+            }
+            var task = (Task<?>) current;
+            if (!task.completeFrom(currentOutcome)) {
+                current = next;
+                continue;
+            }
+            if (next != null) {
+                if (suspended == null) {
+                    suspended = new ArrayDeque<>();
+                }
+                suspended.push(next);
+                suspended.push(currentOutcome);
+            }
+            current = task.takeDependents();
+            currentOutcome = task.outcome;
+        }
+    }
+
+    /** Remembers current listener and enqueue time in task, if there is a listener. **/
+    private void track(Task<?> task) {
+        var currentListener = listener;
+        if (currentListener != null) {
+            task.listener = currentListener;
+            task.enqueueTime = System.nanoTime();
+            currentListener.taskSubmitted();
+        }
+    }
+
+    private void offerTask(Task<?> task) {
+        track(task);
+        if (tasks.offer(task)) {
+            addWorkerIfNeeded();
+        } else {
+            handleOverflow(task);
+        }
+    }
+
+    private void handleOverflow(Task<?> task) {
+        rejectedTaskCount.increment();
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    tasks.putWhenNotFull(task);
+                    addWorkerIfNeeded();
+                } catch (InterruptedException e) {
+                    task.drop();
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for free space in task queue.", e);
+                }
+                break;
+            case CALLER_RUNS:
+                task.execute();
+                break;
+            case DISCARD_OLDEST:
+                var discardedTask = tasks.replaceOldest(task);
+                if (discardedTask != null) {
+                    discardedTask.complete(new Failure(new LightExecutionException(
+                            "Task was discarded because task queue was full"
+                    )));
+                    discardedTask.drop();
+                }
+                break;
+            case REJECT:
+            default:
+                task.drop();
+                throw new RejectedExecutionException("Task queue is full.");
+        }
+    }
+
     private void submitTask(Task<?> task) {
+        track(task);
         tasks.put(task);
+        addWorkerIfNeeded();
+    }
+
+    private boolean isElastic() {
+        return corePoolSize < maxPoolSize;
+    }
+
+    /**
+     * Starts a new thread for a just queued task if current threads are not enough, see elastic constructor.
+     * Fixed-size pools start all their threads up front, so threads that stopped during shutdown are not replaced.
+     */
+    private void addWorkerIfNeeded() {
+        if (!isElastic()) {
+            return;
+        }
+        while (true) {
+            int currentNumber = numberOfWorkers.get();
+            if (currentNumber >= maxPoolSize) {
+                return;
+            }
+            if (currentNumber >= corePoolSize && !tasks.hasUnclaimedElements()) {
+                return;
+            }
+            if (numberOfWorkers.compareAndSet(currentNumber, currentNumber + 1)) {
+                startWorker(new ThreadLifecycle());
+                return;
+            }
+        }
+    }
+
+    /** Starts thread running lifecycle. Caller should have already counted it in {@link #numberOfWorkers}. **/
+    private void startWorker(@NotNull Runnable lifecycle) {
+        var thread = new Thread(() -> {
+            try {
+                lifecycle.run();
+            } finally {
+                workers.remove(Thread.currentThread());
+            }
+        });
+        workers.add(thread);
+        try {
+            thread.start();
+        } catch (Throwable t) {
+            workers.remove(thread);
+            numberOfWorkers.decrementAndGet();
+            throw t;
+        }
+    }
+
+    /**
+     * Takes next task, waiting for it at most keep-alive time if there are more threads than core size.
+     * @return {@code null} if no task appeared during keep-alive time.
+     */
+    private @Nullable Task<?> takeTask() throws InterruptedException {
+        if (isElastic() && numberOfWorkers.get() > corePoolSize) {
+            return tasks.poll(keepAliveNanos);
+        }
+        return tasks.get();
+    }
+
+    /** Stops counting current idle thread as a worker unless it is needed. Returns whether thread should stop. **/
+    private boolean retire() {
+        int currentNumber = numberOfWorkers.get();
+        if (currentNumber <= corePoolSize || !numberOfWorkers.compareAndSet(currentNumber, currentNumber - 1)) {
+            return false;
+        }
+        // a task could have been queued while this thread was counted as a worker
+        while (tasks.size() > 0) {
+            currentNumber = numberOfWorkers.get();
+            if (currentNumber >= maxPoolSize) {
+                return true;
+            }
+            if (numberOfWorkers.compareAndSet(currentNumber, currentNumber + 1)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private class ThreadLifecycle implements Runnable {
+        @Override
+        public void run() {
+            if (toFinish) {
+                // started by a continuation during shutdown
+                Thread.currentThread().interrupt();
+            }
+            boolean isRetired = false;
+            try {
+                while (true) {
+                    Task<?> task;
+                    try {
+                        task = takeTask();
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                    if (task == null) {
+                        if (retire()) {
+                            isRetired = true;
+                            break;
+                        }
+                        continue;
+                    }
+                    task.execute();
+                    if (toFinish) {
+                        // task could have swallowed interruption made by shutdown
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            } finally {
+                // retired thread has already given up its slot, any other exit gives it up here
+                if (!isRetired) {
+                    numberOfWorkers.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes tasks from queue and starts a thread for each of them, keeping at most
+     * {@code maxConcurrency} tasks running. On shutdown waits for running tasks,
+     * since they can add continuations to queue.
+     */
+    private class DispatcherLifecycle implements Runnable {
         @Override
         public void run() {
             while (true) {
@@ -78,37 +682,114 @@ public class ThreadPool {
                 try {
                     task = tasks.get();
                 } catch (InterruptedException e) {
-                    break;
+                    concurrencyLimit.acquireUninterruptibly(maxConcurrency);
+                    concurrencyLimit.release(maxConcurrency);
+                    if (tasks.size() == 0) {
+                        break;
+                    }
+                    Thread.currentThread().interrupt();
+                    continue;
+                }
+                concurrencyLimit.acquireUninterruptibly();
+                try {
+                    taskThreadFactory.newThread(() -> {
+                        try {
+                            task.execute();
+                        } finally {
+                            concurrencyLimit.release();
+                        }
+                    }).start();
+                } catch (Throwable t) {
+                    concurrencyLimit.release();
+                    task.complete(new Failure(new LightExecutionException("Cannot start thread for task", t)));
+                    task.drop();
                 }
-                task.execute();
             }
         }
     }
 
-    private static class TaskQueue<T> {
-        private final Queue<T> queue = new LinkedList<>();
+    /** Action to run when a task completes. Pending completions form a lock-free stack. **/
+    private abstract static class Completion {
+        volatile Completion next;
+
+        abstract void onCompletion(@NotNull Object outcome);
 
-        private synchronized void put(T element) {
-            queue.add(element);
-            notify();
+        /** Returns whether completion is no longer needed and can be removed from stack. **/
+        boolean isAbandoned() {
+            return false;
         }
+    }
 
-        private synchronized T get() throws InterruptedException {
-            while (queue.isEmpty()) {
-                wait();
+    private static class Waiter extends Completion {
+        /** Waiting thread, {@code null} after it stopped waiting before completion. **/
+        volatile Thread thread;
+
+        private Waiter(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        void onCompletion(@NotNull Object outcome) {
+            var currentThread = thread;
+            if (currentThread != null) {
+                LockSupport.unpark(currentThread);
             }
-            return queue.remove();
+        }
+
+        @Override
+        boolean isAbandoned() {
+            return thread == null;
+        }
+    }
+
+    private static class Callback extends Completion {
+        final Consumer<Object> action;
+
+        private Callback(Consumer<Object> action) {
+            this.action = action;
+        }
+
+        @Override
+        void onCompletion(@NotNull Object outcome) {
+            action.accept(outcome);
+        }
+    }
+
+    private static class Cancellation {
+        final String message;
+
+        private Cancellation(@NotNull String message) {
+            this.message = message;
         }
     }
 
-    private class Task<T> implements LightFuture<T> {
+    private static class Failure {
+        final LightExecutionException exception;
+
+        private Failure(@NotNull LightExecutionException exception) {
+            this.exception = exception;
+        }
+    }
+
+    /**
+     * Task state is a single {@code outcome} word: {@code null} while task is not ready,
+     * {@link #NULL_RESULT} or result itself after successful execution, {@link Failure} otherwise.
+     * Dependent tasks and waiting threads are kept in a Treiber stack
+     * which is replaced by {@link #CLOSED_STACK} on completion.
+     */
+    private class Task<T> extends Completion implements LightFuture<T> {
         Supplier<T> supplier;
-        final List<Task<?>> futureTasks = new LinkedList<>();
-        final Object readinessLock = new Object();
-        volatile boolean isReady;
-        boolean isSuccessful;
-        T result;
-        LightExecutionException executionException;
+        boolean isInline;
+        TaskPriority priority = TaskPriority.NORMAL;
+        boolean hasDeadline;
+        long deadline;
+        /** Listener installed when task was queued, {@code null} if task is not tracked. **/
+        ThreadPoolListener listener;
+        long enqueueTime;
+        volatile Object outcome;
+        volatile Completion dependents;
+        /** Thread executing supplier, {@link #INTERRUPTING} while it is being interrupted by cancel. **/
+        volatile Object runner;
 
         private Task(Supplier<T> supplier) {
             this.supplier = supplier;
@@ -116,75 +797,300 @@ public class ThreadPool {
 
         @Override
         public boolean isReady() {
-            return isReady;
+            return outcome != null;
         }
 
         @Override
         public T get() throws LightExecutionException, InterruptedException {
-            if (!isReady) {
-                synchronized (readinessLock) {
-                    while (!isReady) {
-                        readinessLock.wait();
-                    }
+            var currentOutcome = outcome;
+            if (currentOutcome == null) {
+                currentOutcome = awaitOutcome(false, 0);
+            }
+            return report(currentOutcome);
+        }
+
+        @Override
+        public T get(long timeout, @NotNull TimeUnit unit)
+                throws LightExecutionException, InterruptedException, TimeoutException {
+            var currentOutcome = outcome;
+            if (currentOutcome == null) {
+                currentOutcome = awaitOutcome(true, System.nanoTime() + unit.toNanos(timeout));
+                if (currentOutcome == null) {
+                    throw new TimeoutException();
                 }
             }
-            if (isSuccessful) {
-                return result;
+            return report(currentOutcome);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!complete(CANCELLED)) {
+                return false;
+            }
+            if (mayInterruptIfRunning) {
+                var currentRunner = runner;
+                if (currentRunner instanceof Thread && RUNNER.compareAndSet(this, currentRunner, INTERRUPTING)) {
+                    ((Thread) currentRunner).interrupt();
+                    runner = null;
+                }
             }
-            throw executionException;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return outcome instanceof Cancellation;
         }
 
         @Override
         public <R> LightFuture<R> thenApply(Function<? super T, ? extends R> function) {
             checkState();
-            var futureTask = new Task<R>(() -> function.apply(result));
-            if (!isReady) {
-                synchronized (readinessLock) {
-                    if (!isReady) {
-                        futureTasks.add(futureTask);
-                        return futureTask;
-                    }
+            return addDependent(function, false);
+        }
+
+        @Override
+        public <R> LightFuture<R> thenApplyInline(Function<? super T, ? extends R> function) {
+            return addDependent(function, true);
+        }
+
+        @Override
+        public <R> LightFuture<R> thenCompose(Function<? super T, ? extends LightFuture<R>> function) {
+            var composedTask = new Task<R>(null);
+            whenComplete(parentOutcome -> {
+                if (isExceptional(parentOutcome)) {
+                    composedTask.complete(propagateFailure("Parental task executed with an exception", parentOutcome));
+                    return;
+                }
+                Task<?> innerTask;
+                try {
+                    innerTask = toTask(function.apply(result(parentOutcome)));
+                } catch (Throwable t) {
+                    composedTask.complete(new Failure(new LightExecutionException(t)));
+                    return;
                 }
+                innerTask.whenComplete(innerOutcome -> composedTask.complete(isExceptional(innerOutcome)
+                        ? propagateFailure("Composed task executed with an exception", innerOutcome)
+                        : innerOutcome));
+            });
+            return composedTask;
+        }
+
+        @Override
+        public <U, R> LightFuture<R> thenCombine(LightFuture<? extends U> other,
+                                                 BiFunction<? super T, ? super U, ? extends R> function) {
+            var otherTask = toTask(other);
+            var combinedTask = new Task<R>(() -> {
+                @SuppressWarnings("unchecked")
+                var otherResult = (U) otherTask.result(otherTask.outcome);
+                return function.apply(result(outcome), otherResult);
+            });
+            var numberOfRemaining = new AtomicInteger(2);
+            Consumer<Object> onSourceCompletion = sourceOutcome -> {
+                if (isExceptional(sourceOutcome)) {
+                    combinedTask.complete(propagateFailure("Combined task executed with an exception", sourceOutcome));
+                } else if (numberOfRemaining.decrementAndGet() == 0) {
+                    combinedTask.execute();
+                }
+            };
+            whenComplete(onSourceCompletion);
+            otherTask.whenComplete(onSourceCompletion);
+            return combinedTask;
+        }
+
+        /** Called when parental task completes. **/
+        @Override
+        void onCompletion(@NotNull Object parentOutcome) {
+            if (completeFrom(parentOutcome)) {
+                notifyDependents(takeDependents(), outcome);
             }
-            if (isSuccessful) {
-                submitTask(futureTask);
-                return futureTask;
+        }
+
+        /**
+         * Fails task if parental task failed, executes it if it is inline and submits it to the pool otherwise.
+         * Dependents are not notified.
+         * @return {@code true} if task completed by this call, so its dependents have to be notified.
+         */
+        private boolean completeFrom(@NotNull Object parentOutcome) {
+            if (isExceptional(parentOutcome)) {
+                return OUTCOME.compareAndSet(this, null,
+                        propagateFailure("Parental task executed with an exception", parentOutcome));
+            }
+            if (isInline) {
+                return compute();
+            }
+            submitTask(this);
+            return false;
+        }
+
+        private <R> Task<R> addDependent(Function<? super T, ? extends R> function, boolean isInline) {
+            var futureTask = new Task<R>(() -> function.apply(result(outcome)));
+            futureTask.isInline = isInline;
+            futureTask.priority = priority;
+            if (!push(futureTask)) {
+                futureTask.onCompletion(outcome);
             }
-            futureTask.setExecutionException(executionException);
             return futureTask;
         }
 
         private void execute() {
+            if (compute()) {
+                notifyDependents(takeDependents(), outcome);
+            }
+        }
+
+        /**
+         * Executes supplier unless task was cancelled or expired. Dependents are not notified.
+         * @return {@code true} if task completed by this call, so its dependents have to be notified.
+         */
+        private boolean compute() {
+            if (outcome != null) {
+                // cancelled while waiting in queue
+                drop();
+                return false;
+            }
+            if (hasDeadline && System.nanoTime() - deadline > 0) {
+                drop();
+                return OUTCOME.compareAndSet(this, null, EXPIRED);
+            }
+            long startTime = listener == null ? 0 : System.nanoTime();
+            var currentThread = Thread.currentThread();
+            runner = currentThread;
+            Object newOutcome;
             try {
-                result = supplier.get();
-                isSuccessful = true;
+                newOutcome = toOutcome(supplier.get());
             } catch (Throwable t) {
-                setExecutionException(new LightExecutionException(t));
-                return;
+                newOutcome = new Failure(new LightExecutionException(t));
+            }
+            if (!RUNNER.compareAndSet(this, currentThread, null)) {
+                // task was cancelled, wait until interruption is delivered and clear it
+                while (runner == INTERRUPTING) {
+                    Thread.onSpinWait();
+                }
+                Thread.interrupted();
             }
-            setReady();
-            for (var futureTask : futureTasks) {
-                submitTask(futureTask);
+            supplier = null;
+            if (listener != null) {
+                long finishTime = System.nanoTime();
+                listener.taskFinished(startTime - enqueueTime, finishTime - startTime, newOutcome instanceof Failure);
             }
-            futureTasks.clear();
+            return OUTCOME.compareAndSet(this, null, newOutcome);
         }
 
-        private void setReady() {
-            synchronized (readinessLock) {
-                isReady = true;
-                readinessLock.notifyAll();
+        /** Reports that task left the queue without execution. **/
+        private void drop() {
+            if (listener != null) {
+                listener.taskDropped();
             }
         }
 
-        private void setExecutionException(LightExecutionException e) {
-            executionException = e;
-            setReady();
-            for (var futureTask : futureTasks) {
-                futureTask.setExecutionException(new LightExecutionException(
-                        "Parental task executed with an exception", e
-                ));
+        /** Sets task outcome and notifies dependents. Returns {@code false} if task has already completed. **/
+        private boolean complete(@NotNull Object newOutcome) {
+            if (!OUTCOME.compareAndSet(this, null, newOutcome)) {
+                return false;
             }
-            futureTasks.clear();
+            notifyDependents(takeDependents(), newOutcome);
+            return true;
+        }
+
+        /** Closes stack of dependents and returns them as a list in order they were added. **/
+        private @Nullable Completion takeDependents() {
+            var head = (Completion) DEPENDENTS.getAndSet(this, CLOSED_STACK);
+            Completion reversed = null;
+            while (head != null) {
+                var next = head.next;
+                head.next = reversed;
+                reversed = head;
+                head = next;
+            }
+            return reversed;
+        }
+
+        /** Runs action with task outcome when task completes, or immediately if it has already completed. **/
+        private void whenComplete(@NotNull Consumer<Object> action) {
+            if (!push(new Callback(action))) {
+                action.accept(outcome);
+            }
+        }
+
+        /** Adds completion to stack. Returns {@code false} if task is already completed. **/
+        private boolean push(@NotNull Completion completion) {
+            while (true) {
+                var head = dependents;
+                if (head == CLOSED_STACK) {
+                    return false;
+                }
+                completion.next = head;
+                if (DEPENDENTS.compareAndSet(this, head, completion)) {
+                    return true;
+                }
+            }
+        }
+
+        /** Waits for task completion. Returns {@code null} if timed wait reached the deadline. **/
+        private @Nullable Object awaitOutcome(boolean isTimed, long waitDeadline) throws InterruptedException {
+            var waiter = new Waiter(Thread.currentThread());
+            if (push(waiter)) {
+                Object currentOutcome;
+                while ((currentOutcome = outcome) == null) {
+                    if (Thread.interrupted()) {
+                        abandon(waiter);
+                        throw new InterruptedException();
+                    }
+                    if (isTimed) {
+                        long remaining = waitDeadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            abandon(waiter);
+                            return null;
+                        }
+                        LockSupport.parkNanos(this, remaining);
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+                return currentOutcome;
+            }
+            return outcome;
+        }
+
+        /** Marks waiter that stopped waiting and removes abandoned waiters from stack. **/
+        private void abandon(@NotNull Waiter waiter) {
+            waiter.thread = null;
+            // unlink abandoned completions from the top of the stack
+            Completion head;
+            while ((head = dependents) != null && head != CLOSED_STACK && head.isAbandoned()) {
+                DEPENDENTS.compareAndSet(this, head, head.next);
+            }
+            if (head == null || head == CLOSED_STACK) {
+                return;
+            }
+            // completions below the top are unlinked with CAS, so a concurrent completion never loses one
+            var previous = head;
+            var current = previous.next;
+            while (current != null) {
+                var next = current.next;
+                if (!current.isAbandoned()) {
+                    previous = current;
+                } else if (!NEXT.compareAndSet(previous, current, next)) {
+                    // previous was unlinked or stack was closed, abandoned waiter will be removed later
+                    return;
+                }
+                current = next;
+            }
+        }
+
+        private T report(@NotNull Object currentOutcome) throws LightExecutionException {
+            if (currentOutcome instanceof Failure) {
+                throw ((Failure) currentOutcome).exception;
+            }
+            if (currentOutcome instanceof Cancellation) {
+                throw new CancellationException(((Cancellation) currentOutcome).message);
+            }
+            return result(currentOutcome);
+        }
+
+        @SuppressWarnings("unchecked")
+        private T result(Object currentOutcome) {
+            return currentOutcome == NULL_RESULT ? null : (T) currentOutcome;
         }
     }
 }
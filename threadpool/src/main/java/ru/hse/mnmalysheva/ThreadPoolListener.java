@@ -0,0 +1,22 @@
+package ru.hse.mnmalysheva;
+
+/**
+ * Receives notifications about tasks passing through a {@link ThreadPool}.
+ * Methods are called from pool threads and submitting threads, so implementations should be thread-safe and fast.
+ * Tasks run inline by {@link LightFuture#thenApplyInline} are not reported.
+ */
+public interface ThreadPoolListener {
+    /** Called when a task or a continuation is added to task queue. **/
+    default void taskSubmitted() {}
+
+    /**
+     * Called when a task finishes execution.
+     * @param waitNanos time task spent in queue.
+     * @param runNanos time spent executing task supplier.
+     * @param isFailed whether supplier threw an exception.
+     */
+    default void taskFinished(long waitNanos, long runNanos, boolean isFailed) {}
+
+    /** Called when a queued task is removed without execution: it was cancelled, expired or discarded. **/
+    default void taskDropped() {}
+}
@@ -0,0 +1,152 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ThreadPoolListener} that collects task counters and histograms of
+ * queue wait time, execution time and end-to-end time.
+ * Can be published over JMX with {@link #register}.
+ */
+public class ThreadPoolMetrics implements ThreadPoolListener, ThreadPoolMetricsMXBean {
+    private final LongAdder submittedTaskCount = new LongAdder();
+    private final LongAdder completedTaskCount = new LongAdder();
+    private final LongAdder failedTaskCount = new LongAdder();
+    private final LongAdder droppedTaskCount = new LongAdder();
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LatencyHistogram totalTime = new LatencyHistogram();
+
+    @Override
+    public void taskSubmitted() {
+        submittedTaskCount.increment();
+    }
+
+    @Override
+    public void taskFinished(long waitNanos, long runNanos, boolean isFailed) {
+        (isFailed ? failedTaskCount : completedTaskCount).increment();
+        waitTime.record(waitNanos);
+        runTime.record(runNanos);
+        totalTime.record(waitNanos + runNanos);
+    }
+
+    @Override
+    public void taskDropped() {
+        droppedTaskCount.increment();
+    }
+
+    /**
+     * Registers metrics in platform MBean server.
+     * @param name value of {@code name} key of MBean object name.
+     * @return object name metrics were registered with.
+     * @throws JMException if name is malformed or already registered.
+     */
+    public ObjectName register(@NotNull String name) throws JMException {
+        var objectName = new ObjectName("ru.hse.mnmalysheva:type=ThreadPool,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /** Returns histogram of time tasks spent in queue. **/
+    public LatencyHistogram getWaitTimeHistogram() {
+        return waitTime;
+    }
+
+    /** Returns histogram of task execution time. **/
+    public LatencyHistogram getRunTimeHistogram() {
+        return runTime;
+    }
+
+    /** Returns histogram of time from task submission to the end of its execution. **/
+    public LatencyHistogram getTotalTimeHistogram() {
+        return totalTime;
+    }
+
+    /** Returns number of tasks added to queue, including continuations. **/
+    @Override
+    public long getSubmittedTaskCount() {
+        return submittedTaskCount.sum();
+    }
+
+    /** Returns number of tasks executed successfully. **/
+    @Override
+    public long getCompletedTaskCount() {
+        return completedTaskCount.sum();
+    }
+
+    /** Returns number of tasks whose supplier threw an exception. **/
+    @Override
+    public long getFailedTaskCount() {
+        return failedTaskCount.sum();
+    }
+
+    /** Returns number of tasks removed without execution. **/
+    @Override
+    public long getDroppedTaskCount() {
+        return droppedTaskCount.sum();
+    }
+
+    @Override
+    public long getMeanWaitTime() {
+        return waitTime.getMean();
+    }
+
+    @Override
+    public long getMedianWaitTime() {
+        return waitTime.getPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentileWaitTime() {
+        return waitTime.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxWaitTime() {
+        return waitTime.getMax();
+    }
+
+    @Override
+    public long getMeanRunTime() {
+        return runTime.getMean();
+    }
+
+    @Override
+    public long getMedianRunTime() {
+        return runTime.getPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentileRunTime() {
+        return runTime.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxRunTime() {
+        return runTime.getMax();
+    }
+
+    @Override
+    public long getMeanTotalTime() {
+        return totalTime.getMean();
+    }
+
+    @Override
+    public long getMedianTotalTime() {
+        return totalTime.getPercentile(50);
+    }
+
+    @Override
+    public long get99thPercentileTotalTime() {
+        return totalTime.getPercentile(99);
+    }
+
+    @Override
+    public long getMaxTotalTime() {
+        return totalTime.getMax();
+    }
+}
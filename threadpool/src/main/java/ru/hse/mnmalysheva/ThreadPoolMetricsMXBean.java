@@ -0,0 +1,36 @@
+package ru.hse.mnmalysheva;
+
+/** Management interface of {@link ThreadPoolMetrics}. All durations are in nanoseconds. **/
+public interface ThreadPoolMetricsMXBean {
+    long getSubmittedTaskCount();
+
+    long getCompletedTaskCount();
+
+    long getFailedTaskCount();
+
+    long getDroppedTaskCount();
+
+    long getMeanWaitTime();
+
+    long getMedianWaitTime();
+
+    long get99thPercentileWaitTime();
+
+    long getMaxWaitTime();
+
+    long getMeanRunTime();
+
+    long getMedianRunTime();
+
+    long get99thPercentileRunTime();
+
+    long getMaxRunTime();
+
+    long getMeanTotalTime();
+
+    long getMedianTotalTime();
+
+    long get99thPercentileTotalTime();
+
+    long getMaxTotalTime();
+}
@@ -0,0 +1,158 @@
+package ru.hse.mnmalysheva;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Task queue with a deque per worker and a shared injection queue.
+ * Worker takes elements from its own deque in LIFO order, then from injection queue,
+ * then steals the oldest elements from other workers' deques.
+ * Elements put by a worker go to its own deque, elements put by other threads go to injection queue.
+ */
+class WorkStealingTaskQueue<T> implements TaskQueue<T> {
+    private final Queue<T> injectionQueue = new ConcurrentLinkedQueue<>();
+    private final Deque<T>[] deques;
+    private final AtomicInteger numberOfWorkers = new AtomicInteger();
+    private final ThreadLocal<Integer> workerIndex = new ThreadLocal<>();
+    private final Queue<Thread> idleWorkers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs a new {@code WorkStealingTaskQueue}.
+     * @param numberOfWorkers maximum number of threads calling {@link #get()}.
+     */
+    WorkStealingTaskQueue(int numberOfWorkers) {
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        var dequeArray = (Deque<T>[]) new Deque[numberOfWorkers];
+        deques = dequeArray;
+        for (int i = 0; i < numberOfWorkers; i++) {
+            deques[i] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    @Override
+    public void put(@NotNull T element) {
+        var index = workerIndex.get();
+        if (index != null) {
+            deques[index].addFirst(element);
+        } else {
+            injectionQueue.add(element);
+        }
+        wakeUpIdleWorkers(1);
+    }
+
+    @Override
+    public void putAll(@NotNull List<? extends T> elements) {
+        var index = workerIndex.get();
+        if (index != null) {
+            for (var element : elements) {
+                deques[index].addFirst(element);
+            }
+        } else {
+            injectionQueue.addAll(elements);
+        }
+        wakeUpIdleWorkers(elements.size());
+    }
+
+    @Override
+    public @NotNull T get() throws InterruptedException {
+        // wait without timeout returns only when an element is found
+        return take(false, 0);
+    }
+
+    @Override
+    public @Nullable T poll(long timeoutNanos) throws InterruptedException {
+        return take(true, System.nanoTime() + timeoutNanos);
+    }
+
+    /** Returns approximate number of elements, since queue may change during traversal. **/
+    @Override
+    public int size() {
+        int size = injectionQueue.size();
+        for (var deque : deques) {
+            size += deque.size();
+        }
+        return size;
+    }
+
+    /** Takes next element, waiting for it until the deadline if wait is timed. Returns {@code null} on timeout. **/
+    private @Nullable T take(boolean isTimed, long deadline) throws InterruptedException {
+        int index = registerWorker();
+        var currentThread = Thread.currentThread();
+        while (true) {
+            var element = find(index);
+            if (element != null) {
+                return element;
+            }
+            // register as idle before the last check so that concurrent put cannot be missed
+            idleWorkers.add(currentThread);
+            element = find(index);
+            if (element != null) {
+                idleWorkers.remove(currentThread);
+                return element;
+            }
+            if (Thread.interrupted()) {
+                idleWorkers.remove(currentThread);
+                throw new InterruptedException();
+            }
+            if (isTimed) {
+                long remainingNanos = deadline - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    idleWorkers.remove(currentThread);
+                    return null;
+                }
+                LockSupport.parkNanos(this, remainingNanos);
+            } else {
+                LockSupport.park(this);
+            }
+            idleWorkers.remove(currentThread);
+        }
+    }
+
+    private int registerWorker() {
+        var index = workerIndex.get();
+        if (index == null) {
+            index = numberOfWorkers.getAndIncrement();
+            if (index >= deques.length) {
+                throw new IllegalStateException("Too many workers for this queue.");
+            }
+            workerIndex.set(index);
+        }
+        return index;
+    }
+
+    private void wakeUpIdleWorkers(int numberOfElements) {
+        for (int i = 0; i < numberOfElements; i++) {
+            var idleWorker = idleWorkers.poll();
+            if (idleWorker == null) {
+                return;
+            }
+            LockSupport.unpark(idleWorker);
+        }
+    }
+
+    private @Nullable T find(int index) {
+        var element = deques[index].pollFirst();
+        if (element != null) {
+            return element;
+        }
+        element = injectionQueue.poll();
+        if (element != null) {
+            return element;
+        }
+        for (int i = 1; i < deques.length; i++) {
+            element = deques[(index + i) % deques.length].pollLast();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+}
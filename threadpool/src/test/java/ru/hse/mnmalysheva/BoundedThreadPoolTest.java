@@ -0,0 +1,171 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedThreadPoolTest extends ThreadPoolTest {
+    private static final int QUEUE_CAPACITY = 16;
+
+    @Override
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return new ThreadPool(numberOfThreads, QUEUE_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    @Test
+    void cannotCreatePoolWithNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(1, 0, OverflowPolicy.BLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(1, -1, OverflowPolicy.BLOCK));
+    }
+
+    @Test
+    void rejectThrowsWhenQueueIsFull() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 1, OverflowPolicy.REJECT);
+        var latch = new CountDownLatch(1);
+        var blocker = occupyThread(pool, latch);
+        var queued = pool.submit(() -> 2);
+        assertEquals(1, pool.getQueueSize());
+        assertThrows(RejectedExecutionException.class, () -> pool.submit(() -> 3));
+        assertEquals(1, pool.getRejectedTaskCount());
+        latch.countDown();
+        assertEquals(1, blocker.get().intValue());
+        assertEquals(2, queued.get().intValue());
+        assertEquals(0, pool.getQueueSize());
+        pool.shutdown();
+    }
+
+    @Test
+    void callerRunsWhenQueueIsFull() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 1, OverflowPolicy.CALLER_RUNS);
+        var latch = new CountDownLatch(1);
+        occupyThread(pool, latch);
+        pool.submit(() -> Thread.currentThread());
+        var future = pool.submit(() -> Thread.currentThread());
+        assertTrue(future.isReady());
+        assertSame(Thread.currentThread(), future.get());
+        assertEquals(1, pool.getRejectedTaskCount());
+        latch.countDown();
+        pool.shutdown();
+    }
+
+    @Test
+    void discardOldestWhenQueueIsFull() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 1, OverflowPolicy.DISCARD_OLDEST);
+        var latch = new CountDownLatch(1);
+        var blocker = occupyThread(pool, latch);
+        var discarded = pool.submit(() -> 2);
+        var dependent = discarded.thenApply(a -> a * 2);
+        var accepted = pool.submit(() -> 3);
+        assertEquals(1, pool.getRejectedTaskCount());
+        assertThrows(LightExecutionException.class, discarded::get);
+        assertThrows(LightExecutionException.class, dependent::get);
+        latch.countDown();
+        assertEquals(1, blocker.get().intValue());
+        assertEquals(3, accepted.get().intValue());
+        pool.shutdown();
+    }
+
+    @Test
+    void blockWaitsForFreeSpace() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 1, OverflowPolicy.BLOCK);
+        var latch = new CountDownLatch(1);
+        occupyThread(pool, latch);
+        pool.submit(() -> 2);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        var producer = new Thread(() -> futures.add(pool.submit(() -> 3)));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        latch.countDown();
+        producer.join();
+        assertEquals(3, futures.get(0).get().intValue());
+        assertEquals(1, pool.getRejectedTaskCount());
+        pool.shutdown();
+    }
+
+    @Test
+    void continuationsIgnoreCapacity() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 1, OverflowPolicy.REJECT);
+        var latch = new CountDownLatch(1);
+        var blocker = occupyThread(pool, latch);
+        var continuations = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            final int finalI = i;
+            continuations.add(blocker.thenApply(a -> a + finalI));
+        }
+        latch.countDown();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1 + i, continuations.get(i).get().intValue());
+        }
+        assertEquals(0, pool.getRejectedTaskCount());
+        pool.shutdown();
+    }
+
+    @Test
+    void submitAllAppliesPolicyToTasksThatDoNotFit() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 2, OverflowPolicy.CALLER_RUNS);
+        var latch = new CountDownLatch(1);
+        occupyThread(pool, latch);
+        var suppliers = new ArrayList<Supplier<Thread>>();
+        for (int i = 0; i < 4; i++) {
+            suppliers.add(Thread::currentThread);
+        }
+        var futures = pool.submitAll(suppliers);
+        assertEquals(2, pool.getQueueSize());
+        assertEquals(2, pool.getRejectedTaskCount());
+        assertFalse(futures.get(0).isReady());
+        assertFalse(futures.get(1).isReady());
+        assertSame(Thread.currentThread(), futures.get(2).get());
+        assertSame(Thread.currentThread(), futures.get(3).get());
+        latch.countDown();
+        assertNotSame(Thread.currentThread(), futures.get(0).get());
+        pool.shutdown();
+    }
+
+    @Test
+    void submitAllRejectsWholeBatchThatDoesNotFit() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 2, OverflowPolicy.REJECT);
+        var metrics = new ThreadPoolMetrics();
+        pool.setListener(metrics);
+        var latch = new CountDownLatch(1);
+        var blocker = occupyThread(pool, latch);
+        var queued = pool.submit(() -> 2);
+        var suppliers = new ArrayList<Supplier<Integer>>();
+        for (int i = 0; i < 2; i++) {
+            suppliers.add(() -> 3);
+        }
+        assertThrows(RejectedExecutionException.class, () -> pool.submitAll(suppliers));
+        assertEquals(1, pool.getQueueSize());
+        assertEquals(2, pool.getRejectedTaskCount());
+        assertEquals(2, metrics.getDroppedTaskCount());
+        var accepted = pool.submitAll(suppliers.subList(0, 1));
+        assertEquals(2, pool.getQueueSize());
+        latch.countDown();
+        assertEquals(1, blocker.get().intValue());
+        assertEquals(2, queued.get().intValue());
+        assertEquals(3, accepted.get(0).get().intValue());
+        assertEquals(5, metrics.getSubmittedTaskCount());
+        assertEquals(3, metrics.getCompletedTaskCount());
+        assertEquals(2, metrics.getDroppedTaskCount());
+        pool.shutdown();
+    }
+
+    /** Submits task that blocks the only pool thread until latch is released. **/
+    private static LightFuture<Integer> occupyThread(ThreadPool pool, CountDownLatch latch) throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var future = pool.submit(() -> {
+            started.countDown();
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 1;
+        });
+        started.await();
+        return future;
+    }
+}
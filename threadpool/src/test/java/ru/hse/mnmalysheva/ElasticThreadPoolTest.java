@@ -0,0 +1,112 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElasticThreadPoolTest extends ThreadPoolTest {
+    @Override
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return new ThreadPool(numberOfThreads / 2, numberOfThreads, 1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void cannotCreatePoolWithInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(-1, 1, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(2, 1, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(0, 0, 1, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(1, 2, 0, TimeUnit.SECONDS));
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void threadsStartOnDemand() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(2, 4, 1, TimeUnit.SECONDS);
+        assertEquals(0, pool.getPoolSize());
+        assertEquals(1, pool.submit(() -> 1).get().intValue());
+        assertEquals(1, pool.getPoolSize());
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void poolGrowsUpToMaxSize() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 4, 1, TimeUnit.SECONDS);
+        var latch = new CountDownLatch(1);
+        var futures = occupyThreads(pool, 4, latch);
+        assertEquals(4, pool.getPoolSize());
+        futures.add(pool.submit(() -> 2));
+        assertEquals(4, pool.getPoolSize());
+        assertEquals(1, pool.getQueueSize());
+        latch.countDown();
+        for (var future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void idleThreadsAboveCoreSizeStop() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(1, 4, 20, TimeUnit.MILLISECONDS);
+        var latch = new CountDownLatch(1);
+        var futures = occupyThreads(pool, 4, latch);
+        latch.countDown();
+        for (var future : futures) {
+            future.get();
+        }
+        awaitPoolSize(pool, 1);
+        Thread.sleep(100);
+        assertEquals(1, pool.getPoolSize());
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void poolWithoutCoreThreadsRestarts() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(0, 2, 10, TimeUnit.MILLISECONDS);
+        assertEquals(1, pool.submit(() -> 1).get().intValue());
+        awaitPoolSize(pool, 0);
+        assertEquals(2, pool.submit(() -> 2).thenApply(a -> a * 1).get().intValue());
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void tasksAreNotLostWhileThreadsStop() throws LightExecutionException, InterruptedException {
+        var pool = new ThreadPool(0, 2, 1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, pool.submit(() -> 1).thenApply(a -> a - 1).get().intValue());
+            if (i % 10 == 0) {
+                Thread.sleep(2);
+            }
+        }
+        pool.shutdown();
+        assertEquals(0, pool.getPoolSize());
+    }
+
+    private static ArrayList<LightFuture<Integer>> occupyThreads(ThreadPool pool, int numberOfThreads,
+                                                                 CountDownLatch latch) throws InterruptedException {
+        var started = new CountDownLatch(numberOfThreads);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < numberOfThreads; i++) {
+            futures.add(pool.submit(() -> {
+                started.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException ignored) {}
+                return 1;
+            }));
+        }
+        started.await();
+        return futures;
+    }
+
+    private static void awaitPoolSize(ThreadPool pool, int expectedSize) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getPoolSize() != expectedSize && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expectedSize, pool.getPoolSize());
+    }
+}
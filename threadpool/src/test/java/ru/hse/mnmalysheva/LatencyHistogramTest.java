@@ -0,0 +1,102 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void initHistogram() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    void emptyHistogram() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    @Test
+    void testCountMeanAndMax() {
+        histogram.record(10);
+        histogram.record(20);
+        histogram.record(30);
+        assertEquals(3, histogram.getCount());
+        assertEquals(20, histogram.getMean());
+        assertEquals(30, histogram.getMax());
+    }
+
+    @Test
+    void negativeValuesAreZeros() {
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(100));
+    }
+
+    @Test
+    void percentileIsWithinFactorOfTwo() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 500_000 && median < 1_000_000);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+        assertEquals(1_000_000, histogram.getPercentile(100));
+        assertTrue(histogram.getPercentile(0) <= 2000);
+    }
+
+    @Test
+    void percentilesAreMonotonic() {
+        for (int i = 0; i < 100; i++) {
+            histogram.record(i * i * i);
+        }
+        long previous = 0;
+        for (int percentile = 0; percentile <= 100; percentile++) {
+            long current = histogram.getPercentile(percentile);
+            assertTrue(current >= previous);
+            previous = current;
+        }
+    }
+
+    @Test
+    void largeValues() {
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(50));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    void invalidPercentileThrows() {
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(Double.NaN));
+    }
+
+    @Test
+    void concurrentRecording() throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            var thread = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    histogram.record(j);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(9999, histogram.getMax());
+    }
+}
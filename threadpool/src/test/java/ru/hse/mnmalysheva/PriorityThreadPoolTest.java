@@ -0,0 +1,84 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityThreadPoolTest extends ThreadPoolTest {
+    @Override
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return new ThreadPool(numberOfThreads, SchedulingPolicy.PRIORITY);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void higherPriorityTasksRunFirst() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(1);
+        var latch = new CountDownLatch(1);
+        occupyThread(pool, latch, TaskPriority.NORMAL);
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var futures = new ArrayList<LightFuture<Boolean>>();
+        futures.add(pool.submit(() -> order.add("low 1"), TaskPriority.LOW));
+        futures.add(pool.submit(() -> order.add("normal 1")));
+        futures.add(pool.submit(() -> order.add("high 1"), TaskPriority.HIGH));
+        futures.add(pool.submit(() -> order.add("low 2"), TaskPriority.LOW));
+        futures.add(pool.submit(() -> order.add("normal 2"), TaskPriority.NORMAL));
+        futures.add(pool.submit(() -> order.add("high 2"), TaskPriority.HIGH));
+        latch.countDown();
+        for (var future : futures) {
+            future.get();
+        }
+        assertEquals(List.of("high 1", "high 2", "normal 1", "normal 2", "low 1", "low 2"), order);
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void agedTaskIsNotStarved() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(1);
+        var latch = new CountDownLatch(1);
+        occupyThread(pool, latch, TaskPriority.NORMAL);
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var low = pool.submit(() -> order.add("low"), TaskPriority.LOW);
+        Thread.sleep(ThreadPool.PRIORITY_AGING_TIME_MILLIS * 2);
+        var high = pool.submit(() -> order.add("high"), TaskPriority.HIGH);
+        latch.countDown();
+        low.get();
+        high.get();
+        assertEquals(List.of("low", "high"), order);
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void continuationsInheritPriority() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(1);
+        var latch = new CountDownLatch(1);
+        var blocker = occupyThread(pool, latch, TaskPriority.HIGH);
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var continuation = blocker.thenApply(a -> order.add("continuation"));
+        var low = pool.submit(() -> order.add("low"), TaskPriority.LOW);
+        latch.countDown();
+        continuation.get();
+        low.get();
+        assertEquals(List.of("continuation", "low"), order);
+        pool.shutdown();
+    }
+
+    /** Submits task that blocks the only pool thread until latch is released. **/
+    private static LightFuture<Integer> occupyThread(ThreadPool pool, CountDownLatch latch,
+                                                     TaskPriority priority) throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var future = pool.submit(() -> {
+            started.countDown();
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 1;
+        }, priority);
+        started.await();
+        return future;
+    }
+}
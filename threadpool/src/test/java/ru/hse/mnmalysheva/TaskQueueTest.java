@@ -0,0 +1,63 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskQueueTest {
+    private static List<TaskQueue<Integer>> createQueues() {
+        return List.of(
+                new FifoTaskQueue<>(),
+                new BoundedTaskQueue<>(4),
+                new PriorityTaskQueue<>(element -> TaskPriority.NORMAL, Long.MAX_VALUE),
+                new WorkStealingTaskQueue<>(2)
+        );
+    }
+
+    @Test
+    void pollReturnsNullAfterTimeout() throws InterruptedException {
+        for (var queue : createQueues()) {
+            long start = System.nanoTime();
+            assertNull(queue.poll(TimeUnit.MILLISECONDS.toNanos(20)));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        }
+    }
+
+    @Test
+    void pollReturnsAvailableElement() throws InterruptedException {
+        for (var queue : createQueues()) {
+            queue.put(1);
+            queue.put(2);
+            assertEquals(1, queue.poll(0).intValue());
+            assertEquals(2, queue.poll(TimeUnit.SECONDS.toNanos(5)).intValue());
+            assertEquals(0, queue.size());
+        }
+    }
+
+    @Test
+    void pollWaitsForElement() throws InterruptedException {
+        for (var queue : createQueues()) {
+            var producer = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException ignored) {}
+                queue.put(1);
+            });
+            producer.start();
+            assertEquals(1, queue.poll(TimeUnit.SECONDS.toNanos(5)).intValue());
+            producer.join();
+        }
+    }
+
+    @Test
+    void pollIsInterruptible() {
+        for (var queue : createQueues()) {
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedException.class, () -> queue.poll(TimeUnit.SECONDS.toNanos(5)));
+            assertFalse(Thread.interrupted());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadPoolMetricsTest {
+    @Test
+    void testCounters() {
+        var metrics = new ThreadPoolMetrics();
+        metrics.taskSubmitted();
+        metrics.taskSubmitted();
+        metrics.taskSubmitted();
+        metrics.taskFinished(100, 200, false);
+        metrics.taskFinished(300, 400, true);
+        metrics.taskDropped();
+        assertEquals(3, metrics.getSubmittedTaskCount());
+        assertEquals(1, metrics.getCompletedTaskCount());
+        assertEquals(1, metrics.getFailedTaskCount());
+        assertEquals(1, metrics.getDroppedTaskCount());
+        assertEquals(200, metrics.getMeanWaitTime());
+        assertEquals(300, metrics.getMeanRunTime());
+        assertEquals(700, metrics.getMaxTotalTime());
+    }
+
+    @Test
+    void metricsAreVisibleOverJmx() throws JMException {
+        var metrics = new ThreadPoolMetrics();
+        metrics.taskSubmitted();
+        var name = metrics.register("test pool");
+        var server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "SubmittedTaskCount"));
+            assertEquals(0L, server.getAttribute(name, "MaxWaitTime"));
+            assertThrows(JMException.class, () -> new ThreadPoolMetrics().register("test pool"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package ru.hse.mnmalysheva;
 
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -14,13 +22,17 @@ import java.util.stream.IntStream;
 import static org.junit.jupiter.api.Assertions.*;
 
 class ThreadPoolTest {
-    private static final int REPEATED_TEST_COUNT = 20;
+    static final int REPEATED_TEST_COUNT = 20;
     private static final int NUMBER_OF_THREADS = 8;
     private static ThreadPool threadPool;
 
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return new ThreadPool(numberOfThreads);
+    }
+
     @BeforeEach
     void initThreadPool() {
-        threadPool = new ThreadPool(NUMBER_OF_THREADS);
+        threadPool = createThreadPool(NUMBER_OF_THREADS);
     }
 
     @AfterEach
@@ -30,7 +42,7 @@ class ThreadPoolTest {
 
     @RepeatedTest(REPEATED_TEST_COUNT)
     void testQueue() throws LightExecutionException, InterruptedException {
-        var pool = new ThreadPool(1);
+        var pool = createThreadPool(1);
         final int numberOfTasks = 1000;
         var futures = new ArrayList<LightFuture<Integer>>();
         var results = Collections.synchronizedList(new ArrayList<Integer>());
@@ -50,8 +62,8 @@ class ThreadPoolTest {
 
     @Test
     void cannotCreatePoolWithLessThanOneThread() {
-        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(0));
-        assertThrows(IllegalArgumentException.class, () -> new ThreadPool(-1));
+        assertThrows(IllegalArgumentException.class, () -> createThreadPool(0));
+        assertThrows(IllegalArgumentException.class, () -> createThreadPool(-1));
     }
 
     @RepeatedTest(REPEATED_TEST_COUNT)
@@ -59,7 +71,7 @@ class ThreadPoolTest {
         final int numberOfTasks = 16;
 
         for (int numberOfThreads = 1; numberOfThreads <= 8; numberOfThreads++) {
-            ThreadPool pool = new ThreadPool(numberOfThreads);
+            ThreadPool pool = createThreadPool(numberOfThreads);
 
             var futures = new ArrayList<LightFuture<Long>>();
             var results = new HashSet<Long>();
@@ -243,10 +255,475 @@ class ThreadPoolTest {
         }
     }
 
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void submitAllKeepsOrder() throws LightExecutionException, InterruptedException {
+        StrictSupplier.refresh();
+        final int numberOfTasks = 1000;
+        var suppliers = new ArrayList<Supplier<Integer>>();
+        for (int i = 0; i < numberOfTasks; i++) {
+            final int finalI = i;
+            suppliers.add(() -> finalI * 2);
+        }
+        var futures = threadPool.submitAll(suppliers);
+        assertEquals(numberOfTasks, futures.size());
+        for (int i = 0; i < numberOfTasks; i++) {
+            assertEquals(i * 2, futures.get(i).get().intValue());
+        }
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void submitAllExecutesEveryTaskOnce() throws LightExecutionException, InterruptedException {
+        StrictSupplier.refresh();
+        final int numberOfTasks = 1000;
+        var suppliers = new ArrayList<StrictSupplier>();
+        for (int i = 0; i < numberOfTasks; i++) {
+            suppliers.add(new StrictSupplier());
+        }
+        var results = new ArrayList<>(threadPool.allOf(threadPool.submitAll(suppliers)).get());
+        Collections.sort(results);
+
+        var expected = IntStream.range(0, numberOfTasks).boxed().collect(Collectors.toList());
+        assertEquals(expected, results);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void allOfWaitsForAllFutures() throws LightExecutionException, InterruptedException {
+        var futures = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            final int finalI = i;
+            futures.add(threadPool.submit(() -> {
+                try {
+                    Thread.sleep(10 * finalI);
+                } catch (InterruptedException ignored) {}
+                return finalI;
+            }));
+        }
+        var all = threadPool.allOf(futures);
+        var expected = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        assertEquals(expected, all.get());
+        for (var future : futures) {
+            assertTrue(future.isReady());
+        }
+        assertEquals(expected.size(), all.thenApply(List::size).get().intValue());
+    }
+
+    @Test
+    void allOfEmptyListIsReady() throws LightExecutionException, InterruptedException {
+        var all = threadPool.allOf(new ArrayList<LightFuture<Integer>>());
+        assertTrue(all.isReady());
+        assertEquals(Collections.emptyList(), all.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void allOfFailsIfAnyFutureFails() {
+        var futures = new ArrayList<LightFuture<Integer>>();
+        futures.add(threadPool.submit(() -> 1));
+        futures.add(threadPool.submit(() -> {
+            throw new RuntimeException();
+        }));
+        futures.add(threadPool.submit(() -> 3));
+        assertThrows(LightExecutionException.class, threadPool.allOf(futures)::get);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void anyOfReturnsFirstResult() throws LightExecutionException, InterruptedException {
+        var latch = new CountDownLatch(1);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        futures.add(threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 1;
+        }));
+        futures.add(threadPool.submit(() -> 2));
+        assertEquals(2, threadPool.anyOf(futures).get().intValue());
+        latch.countDown();
+    }
+
+    @Test
+    void anyOfEmptyListThrows() {
+        assertThrows(IllegalArgumentException.class, () -> threadPool.anyOf(new ArrayList<LightFuture<Integer>>()));
+    }
+
+    @Test
+    void joinAcceptsOnlyPoolFutures() {
+        var futures = new ArrayList<LightFuture<Integer>>();
+        futures.add(threadPool.submit(() -> 1));
+        futures.add(new ForeignFuture<>(2));
+        assertThrows(IllegalArgumentException.class, () -> threadPool.allOf(futures));
+        assertThrows(IllegalArgumentException.class, () -> threadPool.anyOf(futures));
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyAsyncWorksOk() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> 5).thenApplyAsync(a -> a * 11).thenApplyAsync(a -> "A" + a);
+        assertEquals("A55", future.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyInlineRunsInCompletingThread() throws LightExecutionException, InterruptedException {
+        var latch = new CountDownLatch(1);
+        var future = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return Thread.currentThread();
+        });
+        var inline = future.thenApplyInline(thread -> thread == Thread.currentThread());
+        latch.countDown();
+        assertTrue(inline.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyInlineAfterCompletionRunsInCaller() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> 5);
+        future.get();
+        var inline = future.thenApplyInline(a -> Thread.currentThread());
+        assertTrue(inline.isReady());
+        assertSame(Thread.currentThread(), inline.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyInlineChain() throws LightExecutionException, InterruptedException {
+        LightFuture<Integer> future = threadPool.submit(() -> 0);
+        for (int i = 0; i < 10; i++) {
+            future = future.thenApplyInline(a -> a + 1).thenApply(a -> a * 2);
+        }
+        assertEquals(2046, future.get().intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyInlineExceptions() {
+        var future1 = threadPool.submit(() -> 5);
+        var future2 = future1.thenApplyInline(a -> {
+            if (a == 5) {
+                throw new RuntimeException();
+            }
+            return a;
+        });
+        var future3 = future2.thenApplyInline(a -> a + 1);
+        assertThrows(LightExecutionException.class, future2::get);
+        assertThrows(LightExecutionException.class, future3::get);
+    }
+
+    @Test
+    void longInlineChainsDoNotOverflowStack()
+            throws LightExecutionException, InterruptedException, TimeoutException {
+        final int chainLength = 100000;
+        var latch = new CountDownLatch(1);
+        var root = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 0;
+        });
+        LightFuture<Integer> sum = root;
+        LightFuture<Integer> failed = root.thenApplyInline(a -> {
+            throw new ArithmeticException();
+        });
+        for (int i = 0; i < chainLength; i++) {
+            sum = sum.thenApplyInline(a -> a + 1);
+            failed = failed.thenApplyInline(a -> a + 1);
+        }
+        latch.countDown();
+        // stack overflow in the completing thread would leave the chains incomplete
+        assertEquals(chainLength, sum.get(10, TimeUnit.SECONDS).intValue());
+        var lastFailed = failed;
+        assertThrows(LightExecutionException.class, () -> lastFailed.get(10, TimeUnit.SECONDS));
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void inlineDependentsRunInDepthFirstOrder() throws LightExecutionException, InterruptedException {
+        var latch = new CountDownLatch(1);
+        var root = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 0;
+        });
+        var order = Collections.synchronizedList(new ArrayList<String>());
+        var first = root.thenApplyInline(a -> order.add("first"));
+        first.thenApplyInline(a -> order.add("first child"));
+        var second = root.thenApplyInline(a -> order.add("second"));
+        latch.countDown();
+        second.get();
+        assertEquals(List.of("first", "first child", "second"), order);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenApplyInlineAfterShutdown() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(1);
+        var future = pool.submit(() -> 5);
+        pool.shutdown();
+        assertThrows(IllegalStateException.class, () -> future.thenApply(a -> a + 1));
+        assertEquals(6, future.thenApplyInline(a -> a + 1).get().intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenComposeWorksOk() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> 5)
+                .thenCompose(a -> threadPool.submit(() -> a * 11))
+                .thenCompose(a -> threadPool.submit(() -> "A" + a));
+        assertEquals("A55", future.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenComposeExceptions() {
+        var parentFailed = threadPool.submit((Supplier<Integer>) () -> {
+            throw new RuntimeException();
+        }).thenCompose(a -> threadPool.submit(() -> a));
+        var functionFailed = threadPool.submit(() -> 5).thenCompose(a -> {
+            throw new RuntimeException();
+        });
+        var innerFailed = threadPool.submit(() -> 5).thenCompose(a -> threadPool.submit(() -> {
+            throw new RuntimeException();
+        }));
+        var foreignInner = threadPool.submit(() -> 5).thenCompose(ForeignFuture::new);
+        assertThrows(LightExecutionException.class, parentFailed::get);
+        assertThrows(LightExecutionException.class, functionFailed::get);
+        assertThrows(LightExecutionException.class, innerFailed::get);
+        assertThrows(LightExecutionException.class, foreignInner::get);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenCombineWorksOk() throws LightExecutionException, InterruptedException {
+        var first = threadPool.submit(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {}
+            return 5;
+        });
+        var second = threadPool.submit(() -> "A");
+        assertEquals("A5", first.thenCombine(second, (a, b) -> b + a).get());
+        assertEquals("5A", second.thenCombine(first, (a, b) -> b + a).get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void thenCombineExceptions() {
+        var ok = threadPool.submit(() -> 5);
+        var failed = threadPool.submit((Supplier<Integer>) () -> {
+            throw new RuntimeException();
+        });
+        assertThrows(LightExecutionException.class, ok.thenCombine(failed, Integer::sum)::get);
+        assertThrows(LightExecutionException.class, failed.thenCombine(ok, Integer::sum)::get);
+        assertThrows(LightExecutionException.class, ok.thenCombine(ok, (a, b) -> {
+            throw new ArithmeticException();
+        })::get);
+        assertThrows(IllegalArgumentException.class, () -> ok.thenCombine(new ForeignFuture<>(1), Integer::sum));
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void getWithTimeout() throws LightExecutionException, InterruptedException, TimeoutException {
+        var latch = new CountDownLatch(1);
+        var future = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 1;
+        });
+        assertThrows(TimeoutException.class, () -> future.get(50, TimeUnit.MILLISECONDS));
+        latch.countDown();
+        assertEquals(1, future.get(5, TimeUnit.SECONDS).intValue());
+        assertEquals(1, future.get(0, TimeUnit.SECONDS).intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void timedOutWaitersDoNotLoseDependents() throws Exception {
+        var latch = new CountDownLatch(1);
+        var future = threadPool.submit(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException ignored) {}
+            return 1;
+        });
+        var dependents = new ArrayList<LightFuture<Integer>>();
+        var pollers = new ArrayList<Thread>();
+        var numberOfTimeouts = new AtomicInteger();
+        for (int i = 0; i < 4; i++) {
+            var poller = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    try {
+                        future.get(0, TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        numberOfTimeouts.incrementAndGet();
+                    } catch (LightExecutionException | InterruptedException ignored) {}
+                }
+            });
+            poller.start();
+            pollers.add(poller);
+        }
+        for (int i = 0; i < 100; i++) {
+            dependents.add(future.thenApplyInline(a -> a + 1));
+            assertThrows(TimeoutException.class, () -> future.get(0, TimeUnit.NANOSECONDS));
+        }
+        for (var poller : pollers) {
+            poller.join();
+        }
+        assertEquals(400, numberOfTimeouts.get());
+        latch.countDown();
+        for (var dependent : dependents) {
+            assertEquals(2, dependent.get(5, TimeUnit.SECONDS).intValue());
+        }
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void cancelledTaskIsNotExecuted() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        occupyAllThreads(latch);
+        var isExecuted = new AtomicBoolean();
+        var future = threadPool.submit(() -> {
+            isExecuted.set(true);
+            return 1;
+        });
+        var dependent = future.thenApply(a -> a + 1);
+        assertTrue(future.cancel(false));
+        assertFalse(future.cancel(false));
+        assertTrue(future.isReady());
+        assertTrue(future.isCancelled());
+        assertTrue(dependent.isCancelled());
+        assertThrows(CancellationException.class, future::get);
+        assertThrows(CancellationException.class, dependent::get);
+        latch.countDown();
+        threadPool.shutdown();
+        assertFalse(isExecuted.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void cancelCompletedTaskReturnsFalse() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> 1);
+        future.get();
+        assertFalse(future.cancel(true));
+        assertFalse(future.isCancelled());
+        assertEquals(1, future.get().intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void cancelInterruptsRunningTask() throws LightExecutionException, InterruptedException {
+        var started = new CountDownLatch(1);
+        var wasInterrupted = new CountDownLatch(1);
+        var future = threadPool.submit(() -> {
+            started.countDown();
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.onSpinWait();
+            }
+            wasInterrupted.countDown();
+            return 1;
+        });
+        started.await();
+        assertTrue(future.cancel(true));
+        assertTrue(wasInterrupted.await(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, future::get);
+        for (int i = 0; i < NUMBER_OF_THREADS * 4; i++) {
+            assertFalse(threadPool.submit(() -> Thread.currentThread().isInterrupted()).get());
+        }
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void expiredTaskIsDropped() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        occupyAllThreads(latch);
+        var isExecuted = new AtomicBoolean();
+        var future = threadPool.submit(() -> {
+            isExecuted.set(true);
+            return 1;
+        }, 10, TimeUnit.MILLISECONDS);
+        var dependent = future.thenApply(a -> a + 1);
+        Thread.sleep(50);
+        latch.countDown();
+        assertThrows(CancellationException.class, future::get);
+        assertThrows(CancellationException.class, dependent::get);
+        assertFalse(isExecuted.get());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void deadlineIsNotInheritedByDependents() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {}
+            return 1;
+        }, 50, TimeUnit.MILLISECONDS);
+        var dependent = future.thenApply(a -> a + 1);
+        assertEquals(1, future.get().intValue());
+        assertEquals(2, dependent.get().intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void taskWithDeadlineRunsInTime() throws LightExecutionException, InterruptedException {
+        var future = threadPool.submit(() -> 1, 5, TimeUnit.SECONDS).thenApply(a -> a + 1);
+        assertEquals(2, future.get().intValue());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void submitWithPriority() throws LightExecutionException, InterruptedException {
+        var futures = new ArrayList<LightFuture<Integer>>();
+        for (var priority : TaskPriority.values()) {
+            futures.add(threadPool.submit(priority::ordinal, priority).thenApply(a -> a + 1));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i + 1, futures.get(i).get().intValue());
+        }
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void metricsCountFinishedTasks() throws LightExecutionException, InterruptedException {
+        var metrics = new ThreadPoolMetrics();
+        threadPool.setListener(metrics);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(threadPool.submit(() -> 1));
+        }
+        for (int i = 0; i < 5; i++) {
+            futures.add(threadPool.submit(() -> {
+                throw new RuntimeException();
+            }));
+        }
+        futures.add(futures.get(0).thenApply(a -> a + 1));
+        for (var future : futures) {
+            try {
+                future.get();
+            } catch (LightExecutionException ignored) {}
+        }
+        assertEquals(16, metrics.getSubmittedTaskCount());
+        assertEquals(11, metrics.getCompletedTaskCount());
+        assertEquals(5, metrics.getFailedTaskCount());
+        assertEquals(0, metrics.getDroppedTaskCount());
+        assertEquals(16, metrics.getWaitTimeHistogram().getCount());
+        assertEquals(16, metrics.getRunTimeHistogram().getCount());
+        assertEquals(16, metrics.getTotalTimeHistogram().getCount());
+        assertTrue(metrics.getMaxTotalTime() >= metrics.getMaxRunTime());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void metricsCountDroppedTasks() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        occupyAllThreads(latch);
+        var metrics = new ThreadPoolMetrics();
+        threadPool.setListener(metrics);
+        threadPool.submit(() -> 1).cancel(false);
+        threadPool.submit(() -> 1, 1, TimeUnit.NANOSECONDS);
+        latch.countDown();
+        threadPool.shutdown();
+        assertEquals(2, metrics.getSubmittedTaskCount());
+        assertEquals(2, metrics.getDroppedTaskCount());
+        assertEquals(0, metrics.getCompletedTaskCount());
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void removedListenerIsNotNotified() throws LightExecutionException, InterruptedException {
+        var metrics = new ThreadPoolMetrics();
+        threadPool.setListener(metrics);
+        threadPool.setListener(null);
+        threadPool.submit(() -> 1).get();
+        assertEquals(0, metrics.getSubmittedTaskCount());
+        assertEquals(0, metrics.getCompletedTaskCount());
+    }
+
     @Test
     void cannotSubmitAfterShutdown() {
         threadPool.shutdown();
         assertThrows(IllegalStateException.class, () -> threadPool.submit(() -> 1));
+        assertThrows(IllegalStateException.class, () -> threadPool.submitAll(Collections.singletonList(() -> 1)));
     }
 
     @Test
@@ -264,6 +741,21 @@ class ThreadPoolTest {
         assertThrows(IllegalStateException.class, () -> future2.thenApply(a -> a * 11));
     }
 
+    /** Occupies every pool thread with a task that waits for the latch. **/
+    private void occupyAllThreads(CountDownLatch latch) throws InterruptedException {
+        var started = new CountDownLatch(NUMBER_OF_THREADS);
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            threadPool.submit(() -> {
+                started.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException ignored) {}
+                return 0;
+            });
+        }
+        started.await();
+    }
+
     private static class StrictSupplier implements Supplier<Integer> {
         private static AtomicInteger count = new AtomicInteger();
         private AtomicBoolean isUsed = new AtomicBoolean();
@@ -280,4 +772,58 @@ class ThreadPoolTest {
             return count.getAndIncrement();
         }
     }
-}
\ No newline at end of file
+
+    private static class ForeignFuture<T> implements LightFuture<T> {
+        private final T result;
+
+        private ForeignFuture(T result) {
+            this.result = result;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public T get() {
+            return result;
+        }
+
+        @Override
+        public T get(long timeout, @NotNull TimeUnit unit) {
+            return result;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public <R> LightFuture<R> thenApply(Function<? super T, ? extends R> function) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <R> LightFuture<R> thenApplyInline(Function<? super T, ? extends R> function) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <R> LightFuture<R> thenCompose(Function<? super T, ? extends LightFuture<R>> function) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U, R> LightFuture<R> thenCombine(LightFuture<? extends U> other,
+                                                 BiFunction<? super T, ? super U, ? extends R> function) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
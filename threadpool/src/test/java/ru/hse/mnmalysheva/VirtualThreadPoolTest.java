@@ -0,0 +1,83 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPoolTest extends ThreadPoolTest {
+    @Override
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return ThreadPool.newVirtualThreadPool(numberOfThreads);
+    }
+
+    /** Every task gets its own thread here, so the limit is checked on running tasks instead. **/
+    @Override
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void testThreadPoolSize() throws LightExecutionException, InterruptedException {
+        final int numberOfTasks = 16;
+
+        for (int maxConcurrency = 1; maxConcurrency <= 8; maxConcurrency++) {
+            ThreadPool pool = createThreadPool(maxConcurrency);
+
+            var running = new AtomicInteger();
+            var maxRunning = new AtomicInteger();
+            var futures = new ArrayList<LightFuture<Integer>>();
+            for (int i = 0; i < numberOfTasks; i++) {
+                futures.add(pool.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ignored) {}
+                    running.decrementAndGet();
+                    return 0;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+            assertEquals(maxConcurrency, maxRunning.get());
+
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void blockedTasksDoNotOccupyThreads() throws LightExecutionException, InterruptedException {
+        final int numberOfTasks = 100;
+        var pool = createThreadPool(numberOfTasks);
+        var futures = new ArrayList<LightFuture<Integer>>();
+        long start = System.nanoTime();
+        for (int i = 0; i < numberOfTasks; i++) {
+            futures.add(pool.submit(() -> {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException ignored) {}
+                return 1;
+            }));
+        }
+        for (var future : futures) {
+            assertEquals(1, future.get().intValue());
+        }
+        assertTrue(System.nanoTime() - start < 100 * 200 * 1_000_000L / 4);
+        pool.shutdown();
+    }
+
+    @Test
+    void shutdownWaitsForContinuationsOfRunningTasks() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(2);
+        var future = pool.submit(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {}
+            return 1;
+        });
+        var continuation = future.thenApply(a -> a + 1);
+        pool.shutdown();
+        assertTrue(continuation.isReady());
+        assertEquals(2, continuation.get().intValue());
+    }
+}
@@ -0,0 +1,58 @@
+package ru.hse.mnmalysheva;
+
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkStealingThreadPoolTest extends ThreadPoolTest {
+    @Override
+    ThreadPool createThreadPool(int numberOfThreads) {
+        return new ThreadPool(numberOfThreads, SchedulingPolicy.WORK_STEALING);
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void continuationsInLocalDequeAreStolen() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(2);
+        var barrier = new CyclicBarrier(2);
+        var parent = pool.submit(() -> 1);
+        // both continuations get to the same local deque, so they run together only if one is stolen
+        var first = parent.thenApply(a -> awaitBarrier(barrier, a));
+        var second = parent.thenApply(a -> awaitBarrier(barrier, a + 1));
+        assertEquals(1, first.get().intValue());
+        assertEquals(2, second.get().intValue());
+        pool.shutdown();
+    }
+
+    @RepeatedTest(REPEATED_TEST_COUNT)
+    void continuationDuringShutdownDoesNotStartWorkers() throws LightExecutionException, InterruptedException {
+        var pool = createThreadPool(8);
+        var started = new CountDownLatch(1);
+        var parent = pool.submit(() -> {
+            started.countDown();
+            // ignores interruption, so that idle threads stop before the continuation is queued
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return 1;
+        });
+        var dependent = parent.thenApply(a -> a + 1);
+        started.await();
+        pool.shutdown();
+        assertEquals(2, dependent.get().intValue());
+        assertEquals(0, pool.getPoolSize());
+    }
+
+    private static int awaitBarrier(CyclicBarrier barrier, int result) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a sorted dictionary into {@link Trie}: adding words one by one,
+ * {@link Trie#buildFromSorted} and {@link Trie#buildFromSortedInParallel}.
+ * Ten million words need a lot of heap, e.g. {@code -jvmArgs -Xmx16g}, smaller sizes are set with {@code -p size=}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkLoadBenchmark {
+    @Param({"10000000"})
+    private int size;
+
+    private List<String> words;
+
+    @Setup
+    public void generateWords() {
+        var generated = Words.generate(size);
+        Arrays.sort(generated);
+        words = Arrays.asList(generated);
+    }
+
+    @Benchmark
+    public Trie addOneByOne() {
+        var trie = new Trie();
+        for (var word : words) {
+            trie.add(word);
+        }
+        return trie;
+    }
+
+    @Benchmark
+    public Trie buildFromSorted() {
+        return Trie.buildFromSorted(words.iterator());
+    }
+
+    @Benchmark
+    public Trie buildFromSortedInParallel() {
+        return Trie.buildFromSortedInParallel(words);
+    }
+}
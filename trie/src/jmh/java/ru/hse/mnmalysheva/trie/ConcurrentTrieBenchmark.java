@@ -0,0 +1,89 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of lookups in a trie shared by reader threads while one writer keeps adding and removing words.
+ * {@link Trie} readers take monitors of hash tables on the path, {@link ConcurrentTrie} readers take no locks.
+ * Number of readers is set with {@code -tg N,1}, the second number is for the writer.
+ * Run with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentTrieBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+    /** Writer keeps this number of its words in the trie, removing the oldest one on every add. */
+    private static final int NUMBER_OF_WRITTEN = 1 << 10;
+
+    @Param({"1000000"})
+    private int size;
+
+    private String[] lookupWords;
+    /** Words which are not in the dictionary. */
+    private String[] writtenWords;
+    private Trie trie;
+    private ConcurrentTrie concurrentTrie;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Setup
+    public void fillTries() {
+        var words = Words.generate(size);
+        var random = new Random(239);
+        lookupWords = new String[NUMBER_OF_LOOKUPS];
+        writtenWords = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            var word = words[random.nextInt(size)];
+            lookupWords[i] = random.nextBoolean() ? word : word + "x";
+            writtenWords[i] = word + "y";
+        }
+        trie = new Trie();
+        concurrentTrie = new ConcurrentTrie();
+        for (var word : words) {
+            trie.add(word);
+            concurrentTrie.add(word);
+        }
+    }
+
+    @Benchmark
+    @Group("trie")
+    @GroupThreads(4)
+    public boolean trieContains(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.contains(lookupWords[cursor.next]);
+    }
+
+    @Benchmark
+    @Group("trie")
+    public boolean trieWrite(Cursor cursor) {
+        int next = cursor.next++;
+        trie.remove(writtenWords[(next - NUMBER_OF_WRITTEN) & (NUMBER_OF_LOOKUPS - 1)]);
+        return trie.add(writtenWords[next & (NUMBER_OF_LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    @Group("concurrentTrie")
+    @GroupThreads(4)
+    public boolean concurrentTrieContains(Cursor cursor) {
+        cursor.next = (cursor.next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return concurrentTrie.contains(lookupWords[cursor.next]);
+    }
+
+    @Benchmark
+    @Group("concurrentTrie")
+    public boolean concurrentTrieWrite(Cursor cursor) {
+        int next = cursor.next++;
+        concurrentTrie.remove(writtenWords[(next - NUMBER_OF_WRITTEN) & (NUMBER_OF_LOOKUPS - 1)]);
+        return concurrentTrie.add(writtenWords[next & (NUMBER_OF_LOOKUPS - 1)]);
+    }
+}
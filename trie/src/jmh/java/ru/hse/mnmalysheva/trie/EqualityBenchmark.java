@@ -0,0 +1,61 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Trie#hashCode} and {@link Trie#equals} on tries with a million words, which are used as cache keys.
+ * Different trie has the same size and differs by a single word. Run with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EqualityBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    private Trie trie;
+    private Trie equalTrie;
+    private Trie differentTrie;
+    private String extraWord;
+
+    @Setup
+    public void fillTries() {
+        var words = Words.generate(size + 1);
+        trie = new Trie();
+        equalTrie = new Trie();
+        differentTrie = new Trie();
+        for (int i = 0; i < size; i++) {
+            trie.add(words[i]);
+            equalTrie.add(words[size - 1 - i]);
+            differentTrie.add(words[i + 1]);
+        }
+        extraWord = words[size];
+    }
+
+    @Benchmark
+    public int hashCodeOfTrie() {
+        return trie.hashCode();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean equalsOfEqualTries() {
+        return trie.equals(equalTrie);
+    }
+
+    @Benchmark
+    public boolean equalsOfDifferentTries() {
+        return trie.equals(differentTrie);
+    }
+
+    /** Cost of keeping hashes up to date. */
+    @Benchmark
+    public boolean addRemove() {
+        return trie.add(extraWord) && trie.remove(extraWord);
+    }
+}
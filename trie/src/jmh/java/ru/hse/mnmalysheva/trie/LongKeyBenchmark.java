@@ -0,0 +1,88 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations of {@link Trie} and {@link CompactTrie} on short keys and on pathologically long ones.
+ * There are about a million characters of keys for every key length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LongKeyBenchmark {
+    private static final int TOTAL_LENGTH = 1_000_000;
+
+    @Param({"10", "100000"})
+    private int keyLength;
+
+    private String[] keys;
+    /** Keys differing from {@link #keys} by the last character, they are not in tries. */
+    private String[] otherKeys;
+    private Trie trie;
+    private CompactTrie compactTrie;
+    private int next;
+
+    @Setup
+    public void fillTries() {
+        var random = new Random(239);
+        int numberOfKeys = TOTAL_LENGTH / keyLength;
+        keys = new String[numberOfKeys];
+        otherKeys = new String[numberOfKeys];
+        trie = new Trie();
+        compactTrie = new CompactTrie();
+        for (int i = 0; i < numberOfKeys; i++) {
+            var key = new StringBuilder();
+            for (int j = 0; j < keyLength - 1; j++) {
+                key.append((char) ('a' + random.nextInt(26)));
+            }
+            keys[i] = key.toString() + 'a';
+            otherKeys[i] = key.toString() + 'b';
+            trie.add(keys[i]);
+            compactTrie.add(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean trieContains() {
+        next = (next + 1) % keys.length;
+        return trie.contains(keys[next]);
+    }
+
+    @Benchmark
+    public boolean compactTrieContains() {
+        next = (next + 1) % keys.length;
+        return compactTrie.contains(keys[next]);
+    }
+
+    @Benchmark
+    public boolean trieAddRemove() {
+        next = (next + 1) % keys.length;
+        return trie.add(otherKeys[next]) && trie.remove(otherKeys[next]);
+    }
+
+    @Benchmark
+    public boolean compactTrieAddRemove() {
+        next = (next + 1) % keys.length;
+        return compactTrie.add(otherKeys[next]) && compactTrie.remove(otherKeys[next]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void trieSerialize() throws IOException {
+        trie.serialize(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void compactTrieSerialize() throws IOException {
+        compactTrie.serialize(OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete queries on {@link Trie} filled with a synthetic dictionary with random weights.
+ * Short prefixes have large subtrees, {@link #scanSubtree} shows the cost of visiting all of their strings.
+ * Run with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefixQueryBenchmark {
+    private static final int NUMBER_OF_PREFIXES = 1 << 10;
+    private static final int K = 10;
+
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"1", "3"})
+    private int prefixLength;
+
+    private String[] prefixes;
+    private Trie trie;
+    private int next;
+
+    @Setup
+    public void fillTrie() {
+        var words = Words.generate(size);
+        var random = new Random(239);
+        trie = new Trie();
+        for (var word : words) {
+            trie.add(word, random.nextInt(1_000_000));
+        }
+        prefixes = new String[NUMBER_OF_PREFIXES];
+        for (int i = 0; i < NUMBER_OF_PREFIXES; i++) {
+            String word;
+            do {
+                word = words[random.nextInt(size)];
+            } while (word.length() < prefixLength);
+            prefixes[i] = word.substring(0, prefixLength);
+        }
+    }
+
+    @Benchmark
+    public List<String> topK() {
+        next = (next + 1) & (NUMBER_OF_PREFIXES - 1);
+        return trie.topK(prefixes[next], K);
+    }
+
+    @Benchmark
+    public List<String> startingWithLimit() {
+        next = (next + 1) & (NUMBER_OF_PREFIXES - 1);
+        return trie.startingWith(prefixes[next], K);
+    }
+
+    @Benchmark
+    public int scanSubtree() {
+        next = (next + 1) & (NUMBER_OF_PREFIXES - 1);
+        int count = 0;
+        for (var iterator = trie.startingWith(prefixes[next]); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+}
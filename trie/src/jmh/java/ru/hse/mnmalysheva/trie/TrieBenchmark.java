@@ -0,0 +1,101 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Trie} with {@link CompactTrie} on a synthetic dictionary.
+ * Lookups use random words, half of them absent. Run large sizes with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+
+    @Param({"1000000"})
+    private int size;
+
+    private String[] words;
+    private String[] lookupWords;
+    private String[] prefixes;
+    private Trie trie;
+    private CompactTrie compactTrie;
+    private int next;
+
+    @Setup
+    public void fillTries() {
+        words = Words.generate(size);
+        var random = new Random(239);
+        lookupWords = new String[NUMBER_OF_LOOKUPS];
+        prefixes = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            var word = words[random.nextInt(size)];
+            lookupWords[i] = random.nextBoolean() ? word : word + "x";
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+        trie = new Trie();
+        compactTrie = new CompactTrie();
+        for (var word : words) {
+            trie.add(word);
+            compactTrie.add(word);
+        }
+    }
+
+    @Benchmark
+    public boolean trieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.contains(lookupWords[next]);
+    }
+
+    @Benchmark
+    public boolean compactTrieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return compactTrie.contains(lookupWords[next]);
+    }
+
+    @Benchmark
+    public int trieHowManyStartWithPrefix() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.howManyStartWithPrefix(prefixes[next]);
+    }
+
+    @Benchmark
+    public int compactTrieHowManyStartWithPrefix() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return compactTrie.howManyStartWithPrefix(prefixes[next]);
+    }
+
+    /** Time to add all words to an empty trie. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Trie trieFill() {
+        var filledTrie = new Trie();
+        for (var word : words) {
+            filledTrie.add(word);
+        }
+        return filledTrie;
+    }
+
+    /** Time to add all words to an empty trie. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public CompactTrie compactTrieFill() {
+        var filledTrie = new CompactTrie();
+        for (var word : words) {
+            filledTrie.add(word);
+        }
+        return filledTrie;
+    }
+}
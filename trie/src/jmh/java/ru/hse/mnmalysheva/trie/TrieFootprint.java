@@ -0,0 +1,54 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+/**
+ * Prints memory taken by {@link Trie}, {@link CompactTrie} and {@link RadixTrie} per word
+ * of a synthetic dictionary and per URL of {@link Urls}, and numbers of nodes of object tries.
+ * {@link RadixTrie} size includes added strings which are still referenced by labels.
+ */
+public class TrieFootprint {
+    private static final int[] SIZES = {100_000, 1_000_000};
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        System.out.println(VM.current().details());
+        for (int size : SIZES) {
+            print(String.format("%,d words", size), Words.generate(size));
+        }
+        var urls = Urls.load();
+        print(String.format("%,d URLs", urls.length), urls);
+    }
+
+    private static void print(String title, String[] words) throws ClassNotFoundException {
+        var trie = new Trie();
+        for (var word : words) {
+            trie.add(word);
+        }
+        var trieLayout = GraphLayout.parseInstance(trie);
+        trie = null;
+        var compactTrie = new CompactTrie();
+        for (var word : words) {
+            compactTrie.add(word);
+        }
+        long compactTrieSize = GraphLayout.parseInstance(compactTrie).totalSize();
+        compactTrie = null;
+        var radixTrie = new RadixTrie();
+        for (var word : words) {
+            radixTrie.add(word);
+        }
+        var radixTrieLayout = GraphLayout.parseInstance(radixTrie);
+        long radixTrieStringsSize = radixTrieLayout.totalSize()
+                - radixTrieLayout.subtract(GraphLayout.parseInstance((Object[]) words)).totalSize();
+        System.out.printf("%s: Trie %,d nodes, %.1f bytes per word; CompactTrie %.1f bytes per word; "
+                        + "RadixTrie %,d nodes, %.1f bytes per word, %.1f of them in strings%n",
+                title, countNodes(trieLayout, Trie.class), (double) trieLayout.totalSize() / words.length,
+                (double) compactTrieSize / words.length,
+                countNodes(radixTrieLayout, RadixTrie.class), (double) radixTrieLayout.totalSize() / words.length,
+                (double) radixTrieStringsSize / words.length);
+    }
+
+    private static long countNodes(GraphLayout layout, Class<?> trieClass) throws ClassNotFoundException {
+        return layout.getClassCounts().count(Class.forName(trieClass.getName() + "$Node"));
+    }
+}
@@ -0,0 +1,129 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Trie#serialize} with {@link Trie#writeTo} on a synthetic dictionary,
+ * and lookups in a {@link MappedTrie} with lookups in the trie.
+ * Run with enough heap, e.g. {@code -jvmArgs -Xmx4g}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrieFormatBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+
+    @Param({"1000000"})
+    private int size;
+
+    private String[] lookupWords;
+    private Trie trie;
+    private byte[] serialized;
+    private byte[] written;
+    private Path file;
+    private MappedTrie mappedTrie;
+    private int next;
+
+    @Setup
+    public void fillTrie() throws IOException {
+        var words = Words.generate(size);
+        var random = new Random(239);
+        lookupWords = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            var word = words[random.nextInt(size)];
+            lookupWords[i] = random.nextBoolean() ? word : word + "x";
+        }
+        trie = new Trie();
+        for (var word : words) {
+            trie.add(word);
+        }
+        var bytes = new ByteArrayOutputStream();
+        trie.serialize(bytes);
+        serialized = bytes.toByteArray();
+        bytes = new ByteArrayOutputStream();
+        trie.writeTo(Channels.newChannel(bytes));
+        written = bytes.toByteArray();
+        file = Files.createTempFile("trie", ".bin");
+        Files.write(file, written);
+        mappedTrie = new MappedTrie(file);
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        mappedTrie.close();
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public boolean trieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.contains(lookupWords[next]);
+    }
+
+    @Benchmark
+    public boolean mappedTrieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return mappedTrie.contains(lookupWords[next]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void serialize() throws IOException {
+        trie.serialize(OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void writeTo() throws IOException {
+        trie.writeTo(Channels.newChannel(OutputStream.nullOutputStream()));
+    }
+
+    /** Time to read the whole trie into memory. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Trie deserialize() throws IOException {
+        var readTrie = new Trie();
+        readTrie.deserialize(new ByteArrayInputStream(serialized));
+        return readTrie;
+    }
+
+    /** Time to read the whole trie into memory. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Trie readFrom() throws IOException {
+        var readTrie = new Trie();
+        readTrie.readFrom(Channels.newChannel(new ByteArrayInputStream(written)));
+        return readTrie;
+    }
+
+    /** Time to open the file and answer the first lookup, against {@link #readFrom}. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public boolean mappedTrieOpen() throws IOException {
+        try (var openedTrie = new MappedTrie(file)) {
+            return openedTrie.contains(lookupWords[0]);
+        }
+    }
+}
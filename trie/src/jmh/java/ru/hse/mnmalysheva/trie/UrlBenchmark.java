@@ -0,0 +1,127 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RadixTrie} with {@link Trie} and {@link CompactTrie} on the URLs of {@link Urls}.
+ * Lookups use random URLs, half of them absent, prefixes are cut at random positions of URLs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlBenchmark {
+    private static final int NUMBER_OF_LOOKUPS = 1 << 16;
+
+    private String[] urls;
+    private String[] lookupUrls;
+    private String[] prefixes;
+    private Trie trie;
+    private CompactTrie compactTrie;
+    private RadixTrie radixTrie;
+    private int next;
+
+    @Setup
+    public void fillTries() {
+        urls = Urls.load();
+        var random = new Random(239);
+        lookupUrls = new String[NUMBER_OF_LOOKUPS];
+        prefixes = new String[NUMBER_OF_LOOKUPS];
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            var url = urls[random.nextInt(urls.length)];
+            lookupUrls[i] = random.nextBoolean() ? url : url + "#x";
+            prefixes[i] = url.substring(0, 1 + random.nextInt(url.length()));
+        }
+        trie = new Trie();
+        compactTrie = new CompactTrie();
+        radixTrie = new RadixTrie();
+        for (var url : urls) {
+            trie.add(url);
+            compactTrie.add(url);
+            radixTrie.add(url);
+        }
+    }
+
+    @Benchmark
+    public boolean trieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.contains(lookupUrls[next]);
+    }
+
+    @Benchmark
+    public boolean compactTrieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return compactTrie.contains(lookupUrls[next]);
+    }
+
+    @Benchmark
+    public boolean radixTrieContains() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return radixTrie.contains(lookupUrls[next]);
+    }
+
+    @Benchmark
+    public int trieHowManyStartWithPrefix() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return trie.howManyStartWithPrefix(prefixes[next]);
+    }
+
+    @Benchmark
+    public int compactTrieHowManyStartWithPrefix() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return compactTrie.howManyStartWithPrefix(prefixes[next]);
+    }
+
+    @Benchmark
+    public int radixTrieHowManyStartWithPrefix() {
+        next = (next + 1) & (NUMBER_OF_LOOKUPS - 1);
+        return radixTrie.howManyStartWithPrefix(prefixes[next]);
+    }
+
+    /** Time to add all URLs to an empty trie. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Trie trieFill() {
+        var filledTrie = new Trie();
+        for (var url : urls) {
+            filledTrie.add(url);
+        }
+        return filledTrie;
+    }
+
+    /** Time to add all URLs to an empty trie. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public CompactTrie compactTrieFill() {
+        var filledTrie = new CompactTrie();
+        for (var url : urls) {
+            filledTrie.add(url);
+        }
+        return filledTrie;
+    }
+
+    /** Time to add all URLs to an empty trie. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public RadixTrie radixTrieFill() {
+        var filledTrie = new RadixTrie();
+        for (var url : urls) {
+            filledTrie.add(url);
+        }
+        return filledTrie;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hse.mnmalysheva.trie;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+
+/**
+ * Real URL corpus available offline: documentation URLs of all classes of the running JDK,
+ * e.g. {@code https://docs.oracle.com/en/java/javase/17/docs/api/java.base/java/util/HashMap.Entry.html}.
+ * They share long prefixes of the site, module and package names.
+ */
+class Urls {
+    private static final String BASE = "https://docs.oracle.com/en/java/javase/"
+            + Runtime.version().feature() + "/docs/api/";
+
+    private Urls() {
+    }
+
+    /** Distinct URLs in sorted order. */
+    static String[] load() {
+        var modules = FileSystems.getFileSystem(URI.create("jrt:/")).getPath("/modules");
+        try (var files = Files.walk(modules)) {
+            return files.map(file -> modules.relativize(file).toString())
+                    .filter(name -> name.endsWith(".class") && !name.endsWith("module-info.class")
+                            && !name.endsWith("package-info.class"))
+                    .map(name -> BASE + name.substring(0, name.length() - ".class".length()).replace('$', '.')
+                            + ".html")
+                    .distinct()
+                    .sorted()
+                    .toArray(String[]::new);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hse.mnmalysheva.trie;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+/** Synthetic dictionary: words of a few syllables, frequent syllables are more likely, so words share prefixes. */
+class Words {
+    private static final String[] CONSONANTS = {"", "b", "c", "d", "f", "g", "k", "l", "m", "n", "p", "r", "s", "t",
+            "v", "z", "st", "tr", "pr", "ch", "sh"};
+    private static final String[] VOWELS = {"a", "e", "i", "o", "u", "y", "ai", "ou"};
+
+    private Words() {
+    }
+
+    /** Distinct words, the same for the same number of words. */
+    static String[] generate(int numberOfWords) {
+        var random = new Random(239);
+        var words = new LinkedHashSet<String>();
+        while (words.size() < numberOfWords) {
+            var word = new StringBuilder();
+            int numberOfSyllables = 2 + random.nextInt(4);
+            for (int i = 0; i < numberOfSyllables; i++) {
+                word.append(CONSONANTS[skewed(random, CONSONANTS.length)]);
+                word.append(VOWELS[skewed(random, VOWELS.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                word.append(CONSONANTS[skewed(random, CONSONANTS.length)]);
+            }
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+
+    private static int skewed(Random random, int bound) {
+        return random.nextInt(random.nextInt(bound) + 1);
+    }
+}
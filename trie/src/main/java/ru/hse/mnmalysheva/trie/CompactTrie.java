@@ -0,0 +1,344 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Trie with the same operations and serialization format as {@link Trie}, which takes several times less memory.
+ * Nodes are numbers in parallel arrays instead of objects. Children of a node are kept in a single array
+ * sorted by character, so finding a child is a binary search without boxing characters.
+ */
+public class CompactTrie implements StringSet {
+    private static final int ROOT = 0;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long NODE_MASK = 0xffffffffL;
+
+    /** Number of strings in node subtree shifted left by one, the lowest bit is set if node is terminal. */
+    private int[] counts;
+    /** Children of node as sorted {@code character << 32 | child} values, {@code null} if node is a leaf. */
+    private long[][] children;
+    /** Nodes with numbers less than this one are either used or free. */
+    private int numberOfCreatedNodes;
+    /** Free nodes are linked through {@link #counts}, -1 if there are none. */
+    private int firstFreeNode;
+
+    public CompactTrie() {
+        clear();
+    }
+
+    /** Returns trie hash code, it is equal to hash code of {@link Trie} with the same strings. **/
+    @Override
+    public int hashCode() {
+        // frame is {node, index of its next child, hash of its subtree so far}
+        var stack = new ArrayDeque<int[]>();
+        stack.push(new int[] {ROOT, 0, counts[ROOT] & 1});
+        while (true) {
+            var frame = stack.peek();
+            var nodeChildren = children[frame[0]];
+            if (nodeChildren != null && frame[1] < nodeChildren.length) {
+                int child = getNode(nodeChildren[frame[1]++]);
+                stack.push(new int[] {child, 0, counts[child] & 1});
+                continue;
+            }
+            stack.pop();
+            var parent = stack.peek();
+            if (parent == null) {
+                return frame[2];
+            }
+            parent[2] += getCharacter(children[parent[0]][parent[1] - 1]) * frame[2];
+        }
+    }
+
+    /** Returns true if specified object is compact trie and contains the same set of strings. **/
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof CompactTrie)) {
+            return false;
+        }
+        var other = (CompactTrie) object;
+        // pairs of nodes of this and other trie
+        var stack = new ArrayDeque<int[]>();
+        stack.push(new int[] {ROOT, ROOT});
+        while (!stack.isEmpty()) {
+            var pair = stack.pop();
+            if (counts[pair[0]] != other.counts[pair[1]]) {
+                return false;
+            }
+            var nodeChildren = children[pair[0]];
+            var otherChildren = other.children[pair[1]];
+            if (nodeChildren == null || otherChildren == null) {
+                if (nodeChildren != otherChildren) {
+                    return false;
+                }
+                continue;
+            }
+            if (nodeChildren.length != otherChildren.length) {
+                return false;
+            }
+            for (int i = 0; i < nodeChildren.length; i++) {
+                if (getCharacter(nodeChildren[i]) != getCharacter(otherChildren[i])) {
+                    return false;
+                }
+                stack.push(new int[] {getNode(nodeChildren[i]), getNode(otherChildren[i])});
+            }
+        }
+        return true;
+    }
+
+    /** Add string to trie.
+     * @param element String to add.
+     * @return true if trie did not contain this string, false otherwise.
+     */
+    public boolean add(@NotNull String element) {
+        if (contains(element)) {
+            return false;
+        }
+        int node = ROOT;
+        counts[node] += 2;
+        for (int i = 0; i < element.length(); i++) {
+            var character = element.charAt(i);
+            int childIndex = findChild(node, character);
+            int child;
+            if (childIndex >= 0) {
+                child = getNode(children[node][childIndex]);
+            } else {
+                child = createNode();
+                insertChild(node, -childIndex - 1, character, child);
+            }
+            counts[child] += 2;
+            node = child;
+        }
+        counts[node] |= 1;
+        return true;
+    }
+
+    /** Check if trie contains specified string. */
+    public boolean contains(@NotNull String element) {
+        int node = findNode(element);
+        return node >= 0 && (counts[node] & 1) != 0;
+    }
+
+    /** Remove string from trie.
+     * @param element String to remove.
+     * @return true if trie contained this string, false otherwise.
+     */
+    public boolean remove(@NotNull String element) {
+        if (!contains(element)) {
+            return false;
+        }
+        int node = ROOT;
+        counts[node] -= 2;
+        for (int i = 0; i < element.length(); i++) {
+            int childIndex = findChild(node, element.charAt(i));
+            int child = getNode(children[node][childIndex]);
+            counts[child] -= 2;
+            if (counts[child] >>> 1 == 0) {
+                // the rest of the path held only this string
+                removeChild(node, childIndex);
+                freePath(child);
+                return true;
+            }
+            node = child;
+        }
+        counts[node] &= ~1;
+        return true;
+    }
+
+    /** Number of strings in trie. */
+    public int size() {
+        return counts[ROOT] >>> 1;
+    }
+
+    /** Number of strings starting with specified prefix. */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        int node = findNode(prefix);
+        return node >= 0 ? counts[node] >>> 1 : 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void serialize(@NotNull OutputStream out) throws IOException {
+        var dataOut = new DataOutputStream(out);
+        // frame is {node, index of its next child}, node is written before its children
+        var stack = new ArrayDeque<int[]>();
+        writeHeader(ROOT, dataOut);
+        stack.push(new int[] {ROOT, 0});
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var nodeChildren = children[frame[0]];
+            if (nodeChildren == null || frame[1] == nodeChildren.length) {
+                stack.pop();
+                continue;
+            }
+            var child = nodeChildren[frame[1]++];
+            dataOut.writeChar(getCharacter(child));
+            writeHeader(getNode(child), dataOut);
+            stack.push(new int[] {getNode(child), 0});
+        }
+        dataOut.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deserialize(@NotNull InputStream in) throws IOException {
+        clear();
+        var dataIn = new DataInputStream(in);
+        // frame is {node, index of its next child}
+        var stack = new ArrayDeque<int[]>();
+        readHeader(ROOT, dataIn);
+        stack.push(new int[] {ROOT, 0});
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var nodeChildren = children[frame[0]];
+            if (nodeChildren == null || frame[1] == nodeChildren.length) {
+                stack.pop();
+                if (nodeChildren != null) {
+                    // Trie writes children in hash table order
+                    Arrays.sort(nodeChildren);
+                    for (int i = 1; i < nodeChildren.length; i++) {
+                        if (getCharacter(nodeChildren[i]) == getCharacter(nodeChildren[i - 1])) {
+                            throw new IOException("Trie data is corrupted");
+                        }
+                    }
+                }
+                var parent = stack.peek();
+                if (parent != null) {
+                    counts[parent[0]] += counts[frame[0]] & ~1;
+                }
+                continue;
+            }
+            var nextCharacter = dataIn.readChar();
+            int child = createNode();
+            nodeChildren[frame[1]++] = (long) nextCharacter << 32 | child;
+            readHeader(child, dataIn);
+            stack.push(new int[] {child, 0});
+        }
+    }
+
+    private void writeHeader(int node, @NotNull DataOutputStream out) throws IOException {
+        out.writeInt(children[node] == null ? 0 : children[node].length);
+        out.writeBoolean((counts[node] & 1) != 0);
+    }
+
+    /** Read node terminal flag and allocate its children, they are filled later. */
+    private void readHeader(int node, @NotNull DataInputStream in) throws IOException {
+        var numberOfChildren = in.readInt();
+        if (numberOfChildren < 0 || numberOfChildren > TrieFormat.MAX_CHILDREN) {
+            throw new IOException("Trie data is corrupted");
+        }
+        var isTerminal = in.readBoolean();
+        children[node] = numberOfChildren == 0 ? null : new long[numberOfChildren];
+        counts[node] = isTerminal ? 3 : 0;
+    }
+
+    private void clear() {
+        counts = new int[INITIAL_CAPACITY];
+        children = new long[INITIAL_CAPACITY][];
+        numberOfCreatedNodes = 1;
+        firstFreeNode = -1;
+    }
+
+    /** Node of the specified string, -1 if there is none. */
+    private int findNode(@NotNull String element) {
+        int node = ROOT;
+        for (int i = 0; i < element.length(); i++) {
+            int childIndex = findChild(node, element.charAt(i));
+            if (childIndex < 0) {
+                return -1;
+            }
+            node = getNode(children[node][childIndex]);
+        }
+        return node;
+    }
+
+    /**
+     * Find child by character.
+     * @return index of the child in node children if it exists, otherwise (-(insertion point) - 1).
+     */
+    private int findChild(int node, char character) {
+        var nodeChildren = children[node];
+        if (nodeChildren == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = nodeChildren.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            var middleCharacter = getCharacter(nodeChildren[middle]);
+            if (middleCharacter < character) {
+                low = middle + 1;
+            } else if (middleCharacter > character) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /** Children arrays have exact size, since most nodes have only one child. */
+    private void insertChild(int node, int index, char character, int child) {
+        var nodeChildren = children[node];
+        int length = nodeChildren == null ? 0 : nodeChildren.length;
+        var newChildren = new long[length + 1];
+        if (nodeChildren != null) {
+            System.arraycopy(nodeChildren, 0, newChildren, 0, index);
+            System.arraycopy(nodeChildren, index, newChildren, index + 1, length - index);
+        }
+        newChildren[index] = (long) character << 32 | child;
+        children[node] = newChildren;
+    }
+
+    private void removeChild(int node, int index) {
+        var nodeChildren = children[node];
+        if (nodeChildren.length == 1) {
+            children[node] = null;
+            return;
+        }
+        var newChildren = new long[nodeChildren.length - 1];
+        System.arraycopy(nodeChildren, 0, newChildren, 0, index);
+        System.arraycopy(nodeChildren, index + 1, newChildren, index, newChildren.length - index);
+        children[node] = newChildren;
+    }
+
+    private int createNode() {
+        int node;
+        if (firstFreeNode >= 0) {
+            node = firstFreeNode;
+            firstFreeNode = counts[node];
+        } else {
+            if (numberOfCreatedNodes == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+                children = Arrays.copyOf(children, children.length * 2);
+            }
+            node = numberOfCreatedNodes++;
+        }
+        counts[node] = 0;
+        children[node] = null;
+        return node;
+    }
+
+    /** Free node and its descendants, each of them has at most one child. */
+    private void freePath(int node) {
+        while (node >= 0) {
+            var nodeChildren = children[node];
+            children[node] = null;
+            counts[node] = firstFreeNode;
+            firstFreeNode = node;
+            node = nodeChildren == null ? -1 : getNode(nodeChildren[0]);
+        }
+    }
+
+    /** Child node of entry of {@link #children}. */
+    private static int getNode(long child) {
+        return (int) (child & NODE_MASK);
+    }
+
+    /** Character of entry of {@link #children}. */
+    private static char getCharacter(long child) {
+        return (char) (child >>> 32);
+    }
+}
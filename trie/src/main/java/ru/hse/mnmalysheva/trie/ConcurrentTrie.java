@@ -0,0 +1,332 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Thread-safe trie with the same operations, hash code and serialization format as {@link Trie}.
+ * Nodes are immutable: a change copies nodes on the path of the string and publishes a new root,
+ * so readers take no locks and see a consistent snapshot for the whole operation.
+ * Changes are serialized, so the trie suits workloads where reads dominate.
+ */
+public class ConcurrentTrie implements StringSet {
+    private static final char[] NO_CHARACTERS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Node EMPTY = new Node(false, 0, NO_CHARACTERS, NO_CHILDREN);
+
+    /** Root is replaced on every change, readers read it once per operation. */
+    private volatile Node root = EMPTY;
+
+    /** Returns trie hash code, it is equal to hash code of {@link Trie} with the same strings. **/
+    @Override
+    public int hashCode() {
+        // frame is a node with index of its next child and hash of its subtree so far
+        var stack = new ArrayDeque<TraversalFrame>();
+        stack.push(new TraversalFrame(root));
+        while (true) {
+            var frame = stack.peek();
+            if (frame.nextChild < frame.node.children.length) {
+                stack.push(new TraversalFrame(frame.node.children[frame.nextChild++]));
+                continue;
+            }
+            stack.pop();
+            var parent = stack.peek();
+            if (parent == null) {
+                return frame.hash;
+            }
+            parent.hash += parent.node.characters[parent.nextChild - 1] * frame.hash;
+        }
+    }
+
+    /** Returns true if specified object is concurrent trie and contains the same set of strings. **/
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof ConcurrentTrie)) {
+            return false;
+        }
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        stack.push(((ConcurrentTrie) object).root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var otherNode = stack.pop();
+            if (node.isTerminal != otherNode.isTerminal
+                    || node.numberOfTerminalsInSubtree != otherNode.numberOfTerminalsInSubtree
+                    || !Arrays.equals(node.characters, otherNode.characters)) {
+                return false;
+            }
+            for (int i = 0; i < node.children.length; i++) {
+                stack.push(otherNode.children[i]);
+                stack.push(node.children[i]);
+            }
+        }
+        return true;
+    }
+
+    /** Add string to trie.
+     * @param element String to add.
+     * @return true if trie did not contain this string, false otherwise.
+     */
+    public synchronized boolean add(@NotNull String element) {
+        var path = new Node[element.length() + 1];
+        var childIndexes = new int[element.length()];
+        int depth = findPath(element, path, childIndexes);
+        Node replacement;
+        if (depth == element.length()) {
+            var node = path[depth];
+            if (node.isTerminal) {
+                return false;
+            }
+            replacement = new Node(true, node.numberOfTerminalsInSubtree + 1, node.characters, node.children);
+        } else {
+            // the rest of the string goes to a new chain of nodes
+            replacement = new Node(true, 1, NO_CHARACTERS, NO_CHILDREN);
+            for (int i = element.length() - 1; i > depth; i--) {
+                replacement = new Node(false, 1, new char[] {element.charAt(i)}, new Node[] {replacement});
+            }
+            replacement = path[depth].withInsertedChild(-childIndexes[depth] - 1, element.charAt(depth), replacement);
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            replacement = path[i].withReplacedChild(childIndexes[i], replacement, 1);
+        }
+        root = replacement;
+        return true;
+    }
+
+    /** Check if trie contains specified string. */
+    public boolean contains(@NotNull String element) {
+        var node = findNode(element);
+        return node != null && node.isTerminal;
+    }
+
+    /** Remove string from trie.
+     * @param element String to remove.
+     * @return true if trie contained this string, false otherwise.
+     */
+    public synchronized boolean remove(@NotNull String element) {
+        var path = new Node[element.length() + 1];
+        var childIndexes = new int[element.length()];
+        int depth = findPath(element, path, childIndexes);
+        if (depth < element.length() || !path[depth].isTerminal) {
+            return false;
+        }
+        var node = path[depth];
+        // null replacement means that the subtree held only this string
+        Node replacement = node.children.length == 0 && depth > 0 ? null
+                : new Node(false, node.numberOfTerminalsInSubtree - 1, node.characters, node.children);
+        for (int i = depth - 1; i >= 0; i--) {
+            node = path[i];
+            if (replacement != null) {
+                replacement = node.withReplacedChild(childIndexes[i], replacement, -1);
+            } else if (node.numberOfTerminalsInSubtree > 1 || i == 0) {
+                replacement = node.withRemovedChild(childIndexes[i]);
+            }
+        }
+        root = replacement;
+        return true;
+    }
+
+    /** Number of strings in trie. */
+    public int size() {
+        return root.numberOfTerminalsInSubtree;
+    }
+
+    /** Number of strings starting with specified prefix. */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        var node = findNode(prefix);
+        return node == null ? 0 : node.numberOfTerminalsInSubtree;
+    }
+
+    /** {@inheritDoc} Trie is written as it was when the method was called. */
+    @Override
+    public void serialize(@NotNull OutputStream out) throws IOException {
+        var dataOut = new DataOutputStream(out);
+        // node is written before its children, every child is preceded by its character
+        var stack = new ArrayDeque<TraversalFrame>();
+        var snapshot = root;
+        snapshot.writeHeader(dataOut);
+        stack.push(new TraversalFrame(snapshot));
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            if (frame.nextChild == frame.node.children.length) {
+                stack.pop();
+                continue;
+            }
+            dataOut.writeChar(frame.node.characters[frame.nextChild]);
+            var child = frame.node.children[frame.nextChild++];
+            child.writeHeader(dataOut);
+            stack.push(new TraversalFrame(child));
+        }
+        dataOut.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deserialize(@NotNull InputStream in) throws IOException {
+        var dataIn = new DataInputStream(in);
+        // nodes are immutable, so a node is created when all of its children are read
+        var stack = new ArrayDeque<DeserializationFrame>();
+        stack.push(new DeserializationFrame(dataIn));
+        while (true) {
+            var frame = stack.peek();
+            if (frame.numberOfReadChildren < frame.children.length) {
+                frame.characters[frame.numberOfReadChildren] = dataIn.readChar();
+                stack.push(new DeserializationFrame(dataIn));
+                continue;
+            }
+            stack.pop();
+            var node = frame.createNode();
+            var parent = stack.peek();
+            if (parent == null) {
+                // otherwise a concurrent change could publish a root built from the old one
+                synchronized (this) {
+                    root = node;
+                }
+                return;
+            }
+            parent.children[parent.numberOfReadChildren++] = node;
+        }
+    }
+
+    /**
+     * Find existing nodes on the path of the string.
+     * @param path Filled with nodes on the path, the first one is root.
+     * @param childIndexes Filled with indexes of the next nodes of the path in children of the previous ones.
+     *                     The last one is (-(insertion point) - 1) if the path ends before the end of the string.
+     * @return depth of the last node of the path.
+     */
+    private int findPath(@NotNull String element, @NotNull Node[] path, @NotNull int[] childIndexes) {
+        var node = root;
+        path[0] = node;
+        for (int i = 0; i < element.length(); i++) {
+            int childIndex = Arrays.binarySearch(node.characters, element.charAt(i));
+            childIndexes[i] = childIndex;
+            if (childIndex < 0) {
+                return i;
+            }
+            node = node.children[childIndex];
+            path[i + 1] = node;
+        }
+        return element.length();
+    }
+
+    /** Node of the specified string in the current snapshot, null if there is none. */
+    private @Nullable Node findNode(@NotNull String element) {
+        var node = root;
+        for (int i = 0; i < element.length(); i++) {
+            int childIndex = Arrays.binarySearch(node.characters, element.charAt(i));
+            if (childIndex < 0) {
+                return null;
+            }
+            node = node.children[childIndex];
+        }
+        return node;
+    }
+
+    private static class Node {
+        private final boolean isTerminal;
+        private final int numberOfTerminalsInSubtree;
+        /** Characters of children in ascending order. */
+        private final char[] characters;
+        private final Node[] children;
+
+        private Node(boolean isTerminal, int numberOfTerminalsInSubtree, @NotNull char[] characters,
+                     @NotNull Node[] children) {
+            this.isTerminal = isTerminal;
+            this.numberOfTerminalsInSubtree = numberOfTerminalsInSubtree;
+            this.characters = characters;
+            this.children = children;
+        }
+
+        /** Copy of node with the child replaced and number of strings changed by delta. */
+        private @NotNull Node withReplacedChild(int index, @NotNull Node child, int delta) {
+            var newChildren = children.clone();
+            newChildren[index] = child;
+            return new Node(isTerminal, numberOfTerminalsInSubtree + delta, characters, newChildren);
+        }
+
+        /** Copy of node with one more string in the new child. */
+        private @NotNull Node withInsertedChild(int index, char character, @NotNull Node child) {
+            var newCharacters = new char[characters.length + 1];
+            var newChildren = new Node[children.length + 1];
+            System.arraycopy(characters, 0, newCharacters, 0, index);
+            System.arraycopy(characters, index, newCharacters, index + 1, characters.length - index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            newCharacters[index] = character;
+            newChildren[index] = child;
+            return new Node(isTerminal, numberOfTerminalsInSubtree + 1, newCharacters, newChildren);
+        }
+
+        /** Copy of node without the child, which held a single string. */
+        private @NotNull Node withRemovedChild(int index) {
+            var newCharacters = new char[characters.length - 1];
+            var newChildren = new Node[children.length - 1];
+            System.arraycopy(characters, 0, newCharacters, 0, index);
+            System.arraycopy(characters, index + 1, newCharacters, index, newCharacters.length - index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            return new Node(isTerminal, numberOfTerminalsInSubtree - 1, newCharacters, newChildren);
+        }
+
+        private void writeHeader(@NotNull DataOutputStream out) throws IOException {
+            out.writeInt(children.length);
+            out.writeBoolean(isTerminal);
+        }
+    }
+
+    private static class TraversalFrame {
+        private final Node node;
+        private int nextChild;
+        /** Hash of the subtree of the visited children, used by {@link #hashCode}. */
+        private int hash;
+
+        private TraversalFrame(@NotNull Node node) {
+            this.node = node;
+            hash = node.isTerminal ? 1 : 0;
+        }
+    }
+
+    private static class DeserializationFrame {
+        private final boolean isTerminal;
+        private final char[] characters;
+        private final Node[] children;
+        private int numberOfReadChildren;
+
+        /** Read node terminal flag and number of children, children are read later. */
+        private DeserializationFrame(@NotNull DataInputStream in) throws IOException {
+            int numberOfChildren = in.readInt();
+            if (numberOfChildren < 0 || numberOfChildren > TrieFormat.MAX_CHILDREN) {
+                throw new IOException("Trie data is corrupted");
+            }
+            isTerminal = in.readBoolean();
+            characters = numberOfChildren == 0 ? NO_CHARACTERS : new char[numberOfChildren];
+            children = numberOfChildren == 0 ? NO_CHILDREN : new Node[numberOfChildren];
+        }
+
+        private @NotNull Node createNode() throws IOException {
+            int numberOfTerminalsInSubtree = isTerminal ? 1 : 0;
+            // Trie writes children in hash table order, they are sorted by character with their indexes
+            var order = new long[characters.length];
+            for (int i = 0; i < characters.length; i++) {
+                order[i] = (long) characters[i] << 32 | i;
+                numberOfTerminalsInSubtree += children[i].numberOfTerminalsInSubtree;
+            }
+            Arrays.sort(order);
+            var sortedCharacters = characters.length == 0 ? NO_CHARACTERS : new char[characters.length];
+            var sortedChildren = children.length == 0 ? NO_CHILDREN : new Node[children.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedCharacters[i] = (char) (order[i] >>> 32);
+                sortedChildren[i] = children[(int) order[i]];
+                if (i > 0 && sortedCharacters[i] == sortedCharacters[i - 1]) {
+                    throw new IOException("Trie data is corrupted");
+                }
+            }
+            return new Node(isTerminal, numberOfTerminalsInSubtree, sortedCharacters, sortedChildren);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Read-only trie in a memory-mapped file written by {@link Trie#writeTo}.
+ * Opening the file does not read the trie, {@link #contains} walks node records right in the file,
+ * so pages are loaded by the OS on first access and are shared by all processes mapping the same file.
+ * Files larger than 2 GB are not supported. Trie may be used from several threads.
+ */
+public class MappedTrie implements Closeable {
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int size;
+    private boolean hasWeights;
+    private int rootPosition;
+
+    /** Open trie stored in the file. */
+    public MappedTrie(@NotNull Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            open();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Number of strings in trie. */
+    public int size() {
+        return size;
+    }
+
+    /** Check if trie contains specified string. */
+    public boolean contains(@NotNull String element) {
+        var buffer = getBuffer();
+        int record = rootPosition;
+        for (int i = 0; i < element.length() && record >= 0; i++) {
+            record = findChild(buffer, record, element.charAt(i));
+        }
+        // terminal flag is the lowest bit of the record header
+        return record >= 0 && (buffer.get(record) & 1) != 0;
+    }
+
+    /**
+     * Check that the file is not corrupted, it reads the whole file.
+     * @throws IOException if the file checksum does not match.
+     */
+    public void verifyChecksum() throws IOException {
+        var buffer = getBuffer().duplicate();
+        int checksumPosition = buffer.limit() - Integer.BYTES;
+        var checksum = new CRC32C();
+        checksum.update(buffer.limit(checksumPosition));
+        if (getBuffer().getInt(checksumPosition) != (int) checksum.getValue()) {
+            throw new IOException("Trie file is corrupted");
+        }
+    }
+
+    /** Close the file, trie can't be used after that. */
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private void open() throws IOException {
+        long length = channel.size();
+        if (length < TrieFormat.HEADER_SIZE + TrieFormat.TRAILER_SIZE) {
+            throw new IOException("File is too short to hold a trie");
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Trie file is too large to be mapped");
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        var header = TrieFormat.Header.read(buffer.duplicate());
+        size = header.size;
+        hasWeights = (header.flags & TrieFormat.WEIGHTS) != 0;
+        long root = buffer.getLong((int) length - TrieFormat.TRAILER_SIZE);
+        if (root < TrieFormat.HEADER_SIZE || root >= length - TrieFormat.TRAILER_SIZE) {
+            throw new IOException("Trie file is corrupted");
+        }
+        rootPosition = (int) root;
+    }
+
+    /** Position of the record of the child with specified character, -1 if there is none. */
+    private int findChild(@NotNull MappedByteBuffer buffer, int record, char character) {
+        int position = record;
+        long recordHeader = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = buffer.get(position++);
+            recordHeader |= (long) (next & 0x7f) << shift;
+            if (next >= 0) {
+                break;
+            }
+        }
+        if (hasWeights && TrieFormat.isTerminal(recordHeader)) {
+            while (buffer.get(position++) < 0) {
+                // skip weight
+            }
+        }
+        int numberOfChildren = TrieFormat.getNumberOfChildren(recordHeader);
+        int low = 0;
+        int high = numberOfChildren - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            var middleCharacter = buffer.getChar(position + middle * Character.BYTES);
+            if (middleCharacter < character) {
+                low = middle + 1;
+            } else if (middleCharacter > character) {
+                high = middle - 1;
+            } else {
+                int offsetWidth = TrieFormat.getOffsetWidth(recordHeader);
+                int distancePosition = position + numberOfChildren * Character.BYTES + middle * offsetWidth;
+                long distance = 0;
+                for (int i = 0; i < offsetWidth; i++) {
+                    distance = distance << 8 | (buffer.get(distancePosition + i) & 0xff);
+                }
+                return (int) (record - distance);
+            }
+        }
+        return -1;
+    }
+
+    private @NotNull MappedByteBuffer getBuffer() {
+        var currentBuffer = buffer;
+        if (currentBuffer == null) {
+            throw new IllegalStateException("Trie is closed");
+        }
+        return currentBuffer;
+    }
+}
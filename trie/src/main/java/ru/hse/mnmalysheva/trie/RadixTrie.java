@@ -0,0 +1,425 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Path-compressed trie with the same operations and serialization format as {@link Trie}.
+ * Chains of nodes with a single child are merged into one edge, which is labeled with a range of characters
+ * of an added string instead of a copy of them. So strings with long common prefixes, like URLs,
+ * take a few nodes each instead of a node per character. All operations are still O(length).
+ */
+public class RadixTrie implements StringSet {
+    private static final Comparator<Node> BY_FIRST_CHARACTER = Comparator.comparingInt(Node::getFirstCharacter);
+
+    private Node root = new Node("", 0, 0);
+
+    /** Returns trie hash code, it is equal to hash code of {@link Trie} with the same strings. **/
+    @Override
+    public int hashCode() {
+        var stack = new ArrayDeque<HashCodeFrame>();
+        stack.push(new HashCodeFrame(root));
+        while (true) {
+            var frame = stack.peek();
+            var children = frame.node.children;
+            if (children != null && frame.nextChild < children.length) {
+                stack.push(new HashCodeFrame(children[frame.nextChild++]));
+                continue;
+            }
+            stack.pop();
+            var parent = stack.peek();
+            if (parent == null) {
+                return frame.hash;
+            }
+            // every character of the label is a separate node of Trie, all but the last have a single child
+            var node = frame.node;
+            int hash = frame.hash;
+            for (int i = node.labelEnd - 1; i >= node.labelStart; i--) {
+                hash *= node.labelSource.charAt(i);
+            }
+            parent.hash += hash;
+        }
+    }
+
+    /** Returns true if specified object is radix trie and contains the same set of strings. **/
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof RadixTrie)) {
+            return false;
+        }
+        // compressed trie of a set of strings is unique, so it is enough to compare the structure
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        stack.push(((RadixTrie) object).root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var otherNode = stack.pop();
+            int labelLength = node.getLabelLength();
+            if (node.isTerminal != otherNode.isTerminal
+                    || node.numberOfTerminalsInSubtree != otherNode.numberOfTerminalsInSubtree
+                    || labelLength != otherNode.getLabelLength()
+                    || !node.labelSource.regionMatches(node.labelStart,
+                            otherNode.labelSource, otherNode.labelStart, labelLength)) {
+                return false;
+            }
+            if (node.children == null || otherNode.children == null) {
+                if (node.children != otherNode.children) {
+                    return false;
+                }
+                continue;
+            }
+            if (node.children.length != otherNode.children.length) {
+                return false;
+            }
+            for (int i = 0; i < node.children.length; i++) {
+                stack.push(otherNode.children[i]);
+                stack.push(node.children[i]);
+            }
+        }
+        return true;
+    }
+
+    /** Add string to trie.
+     * @param element String to add.
+     * @return true if trie did not contain this string, false otherwise.
+     */
+    public boolean add(@NotNull String element) {
+        if (contains(element)) {
+            return false;
+        }
+        var node = root;
+        node.numberOfTerminalsInSubtree++;
+        int position = 0;
+        while (position < element.length()) {
+            int childIndex = findChild(node, element.charAt(position));
+            if (childIndex < 0) {
+                var leaf = new Node(element, position, element.length());
+                leaf.isTerminal = true;
+                leaf.numberOfTerminalsInSubtree = 1;
+                insertChild(node, -childIndex - 1, leaf);
+                return true;
+            }
+            var child = node.children[childIndex];
+            int matched = matchLabel(child, element, position);
+            if (matched < child.getLabelLength()) {
+                split(child, matched);
+            }
+            child.numberOfTerminalsInSubtree++;
+            position += matched;
+            node = child;
+        }
+        node.isTerminal = true;
+        return true;
+    }
+
+    /** Check if trie contains specified string. */
+    public boolean contains(@NotNull String element) {
+        var node = root;
+        int position = 0;
+        while (position < element.length()) {
+            int childIndex = findChild(node, element.charAt(position));
+            if (childIndex < 0) {
+                return false;
+            }
+            node = node.children[childIndex];
+            int labelLength = node.getLabelLength();
+            if (!element.regionMatches(position, node.labelSource, node.labelStart, labelLength)) {
+                return false;
+            }
+            position += labelLength;
+        }
+        return node.isTerminal;
+    }
+
+    /** Remove string from trie.
+     * @param element String to remove.
+     * @return true if trie contained this string, false otherwise.
+     */
+    public boolean remove(@NotNull String element) {
+        if (!contains(element)) {
+            return false;
+        }
+        var node = root;
+        node.numberOfTerminalsInSubtree--;
+        int position = 0;
+        while (position < element.length()) {
+            int childIndex = findChild(node, element.charAt(position));
+            var child = node.children[childIndex];
+            child.numberOfTerminalsInSubtree--;
+            if (child.numberOfTerminalsInSubtree == 0) {
+                // the rest of the path holds only this string
+                removeChild(node, childIndex);
+                if (!node.isTerminal) {
+                    mergeWithSingleChild(node);
+                }
+                return true;
+            }
+            position += child.getLabelLength();
+            node = child;
+        }
+        node.isTerminal = false;
+        mergeWithSingleChild(node);
+        return true;
+    }
+
+    /** Number of strings in trie. */
+    public int size() {
+        return root.numberOfTerminalsInSubtree;
+    }
+
+    /** Number of strings starting with specified prefix. */
+    public int howManyStartWithPrefix(@NotNull String prefix) {
+        var node = root;
+        int position = 0;
+        while (position < prefix.length()) {
+            int childIndex = findChild(node, prefix.charAt(position));
+            if (childIndex < 0) {
+                return 0;
+            }
+            node = node.children[childIndex];
+            // prefix may end in the middle of the label
+            int length = Math.min(node.getLabelLength(), prefix.length() - position);
+            if (!prefix.regionMatches(position, node.labelSource, node.labelStart, length)) {
+                return 0;
+            }
+            position += length;
+        }
+        return node.numberOfTerminalsInSubtree;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void serialize(@NotNull OutputStream out) throws IOException {
+        var dataOut = new DataOutputStream(out);
+        // node is written before its children, every child is preceded by its label
+        var stack = new ArrayDeque<TraversalFrame>();
+        root.writeHeader(dataOut);
+        stack.push(new TraversalFrame(root));
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var children = frame.node.children;
+            if (children == null || frame.nextChild == children.length) {
+                stack.pop();
+                continue;
+            }
+            var child = children[frame.nextChild++];
+            // label is written as a chain of Trie nodes with a single child
+            for (int i = child.labelStart; i < child.labelEnd - 1; i++) {
+                dataOut.writeChar(child.labelSource.charAt(i));
+                dataOut.writeInt(1);
+                dataOut.writeBoolean(false);
+            }
+            dataOut.writeChar(child.labelSource.charAt(child.labelEnd - 1));
+            child.writeHeader(dataOut);
+            stack.push(new TraversalFrame(child));
+        }
+        dataOut.flush();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deserialize(@NotNull InputStream in) throws IOException {
+        var dataIn = new DataInputStream(in);
+        var path = new StringBuilder();
+        var newRoot = new Node("", 0, 0);
+        int numberOfChildren = dataIn.readInt();
+        newRoot.setHeader(numberOfChildren, dataIn.readBoolean());
+        var stack = new ArrayDeque<TraversalFrame>();
+        stack.push(new TraversalFrame(newRoot));
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var node = frame.node;
+            if (node.children == null || frame.nextChild == node.children.length) {
+                stack.pop();
+                if (node.children != null) {
+                    // Trie writes children in hash table order
+                    Arrays.sort(node.children, BY_FIRST_CHARACTER);
+                    for (int i = 1; i < node.children.length; i++) {
+                        if (node.children[i].getFirstCharacter() == node.children[i - 1].getFirstCharacter()) {
+                            throw new IOException("Trie data is corrupted");
+                        }
+                    }
+                }
+                var parent = stack.peek();
+                if (parent == null) {
+                    continue;
+                }
+                // label source has to start with the path, so leaves make it and the other nodes borrow it
+                node.labelSource = node.children == null ? path.toString() : node.children[0].labelSource;
+                path.setLength(node.labelStart);
+                parent.node.numberOfTerminalsInSubtree += node.numberOfTerminalsInSubtree;
+                continue;
+            }
+            // chain of Trie nodes with a single child becomes one node
+            int labelStart = path.length();
+            boolean isTerminal;
+            do {
+                path.append(dataIn.readChar());
+                numberOfChildren = dataIn.readInt();
+                isTerminal = dataIn.readBoolean();
+            } while (numberOfChildren == 1 && !isTerminal);
+            var child = new Node(null, labelStart, path.length());
+            child.setHeader(numberOfChildren, isTerminal);
+            node.children[frame.nextChild++] = child;
+            stack.push(new TraversalFrame(child));
+        }
+        root = newRoot;
+    }
+
+    /**
+     * Find child by the first character of its label.
+     * @return index of the child in node children if it exists, otherwise (-(insertion point) - 1).
+     */
+    private static int findChild(@NotNull Node node, char character) {
+        var children = node.children;
+        if (children == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            var middleCharacter = children[middle].getFirstCharacter();
+            if (middleCharacter < character) {
+                low = middle + 1;
+            } else if (middleCharacter > character) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -low - 1;
+    }
+
+    /** Length of the common prefix of node label and the string from the specified position. */
+    private static int matchLabel(@NotNull Node node, @NotNull String element, int position) {
+        int length = Math.min(node.getLabelLength(), element.length() - position);
+        int matched = 0;
+        while (matched < length
+                && node.labelSource.charAt(node.labelStart + matched) == element.charAt(position + matched)) {
+            matched++;
+        }
+        return matched;
+    }
+
+    /** Cut node label after the specified length, the rest of the label goes to a new single child. */
+    private static void split(@NotNull Node node, int length) {
+        var lower = new Node(node.labelSource, node.labelStart + length, node.labelEnd);
+        lower.isTerminal = node.isTerminal;
+        lower.numberOfTerminalsInSubtree = node.numberOfTerminalsInSubtree;
+        lower.children = node.children;
+        node.labelEnd = node.labelStart + length;
+        node.isTerminal = false;
+        node.children = new Node[] {lower};
+    }
+
+    /**
+     * Append label of the single child of non-terminal node to the node label, so that the trie stays compressed.
+     * Root and nodes with several children are left as is.
+     */
+    private void mergeWithSingleChild(@NotNull Node node) {
+        if (node == root || node.children == null || node.children.length != 1) {
+            return;
+        }
+        var child = node.children[0];
+        // child label source starts with the path to the child, which ends with the node label
+        node.labelSource = child.labelSource;
+        node.labelStart = child.labelStart - node.getLabelLength();
+        node.labelEnd = child.labelEnd;
+        node.isTerminal = child.isTerminal;
+        node.children = child.children;
+    }
+
+    /** Children arrays have exact size, since most nodes have only a few children. */
+    private static void insertChild(@NotNull Node node, int index, @NotNull Node child) {
+        var children = node.children;
+        int length = children == null ? 0 : children.length;
+        var newChildren = new Node[length + 1];
+        if (children != null) {
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(children, index, newChildren, index + 1, length - index);
+        }
+        newChildren[index] = child;
+        node.children = newChildren;
+    }
+
+    private static void removeChild(@NotNull Node node, int index) {
+        var children = node.children;
+        if (children.length == 1) {
+            node.children = null;
+            return;
+        }
+        var newChildren = new Node[children.length - 1];
+        System.arraycopy(children, 0, newChildren, 0, index);
+        System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+        node.children = newChildren;
+    }
+
+    private static class Node {
+        /**
+         * Label of the edge to the node is a range of this string. The string starts with the path to the node,
+         * so labels of a node and its child are adjacent in the child label source.
+         */
+        private String labelSource;
+        private int labelStart;
+        private int labelEnd;
+        private boolean isTerminal;
+        private int numberOfTerminalsInSubtree;
+        /** Children sorted by the first character of their labels, {@code null} if node is a leaf. */
+        private Node[] children;
+
+        private Node(String labelSource, int labelStart, int labelEnd) {
+            this.labelSource = labelSource;
+            this.labelStart = labelStart;
+            this.labelEnd = labelEnd;
+        }
+
+        private int getLabelLength() {
+            return labelEnd - labelStart;
+        }
+
+        private char getFirstCharacter() {
+            return labelSource.charAt(labelStart);
+        }
+
+        private void writeHeader(@NotNull DataOutputStream out) throws IOException {
+            out.writeInt(children == null ? 0 : children.length);
+            out.writeBoolean(isTerminal);
+        }
+
+        /** Set fields read from Trie format, children array is filled later. */
+        private void setHeader(int numberOfChildren, boolean isTerminal) throws IOException {
+            if (numberOfChildren < 0 || numberOfChildren > TrieFormat.MAX_CHILDREN) {
+                throw new IOException("Trie data is corrupted");
+            }
+            this.isTerminal = isTerminal;
+            numberOfTerminalsInSubtree = isTerminal ? 1 : 0;
+            children = numberOfChildren == 0 ? null : new Node[numberOfChildren];
+        }
+    }
+
+    private static class HashCodeFrame {
+        private final Node node;
+        private int nextChild;
+        /** Hash of the Trie node at the end of the label. */
+        private int hash;
+
+        private HashCodeFrame(@NotNull Node node) {
+            this.node = node;
+            hash = node.isTerminal ? 1 : 0;
+        }
+    }
+
+    private static class TraversalFrame {
+        private final Node node;
+        private int nextChild;
+
+        private TraversalFrame(@NotNull Node node) {
+            this.node = node;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+
+/** Set of strings which counts strings with a prefix and is serialized in {@link Trie} format. */
+public interface StringSet extends Serializable {
+    /** Add string to set, returns true if set did not contain it. */
+    boolean add(@NotNull String element);
+    /** Check if set contains specified string. */
+    boolean contains(@NotNull String element);
+    /** Remove string from set, returns true if set contained it. */
+    boolean remove(@NotNull String element);
+    /** Number of strings in set. */
+    int size();
+    /** Number of strings starting with specified prefix. */
+    int howManyStartWithPrefix(@NotNull String prefix);
+}
@@ -1,44 +1,225 @@
 package ru.hse.mnmalysheva.trie;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
-import java.util.Hashtable;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Trie is a data structure used to store set of strings.
  * Allows to add, find and remove strings in O(length).
+ * All operations use loops and explicit stacks instead of recursion, so strings may be arbitrarily long.
+ * Strings may have weights, which are used to find the most weighted strings with a prefix.
  */
-public class Trie implements Serializable {
+public class Trie implements StringSet {
+    /** Weight-descending, then lexicographic order of {@link #topK} results. */
+    private static final Comparator<Candidate> BY_WEIGHT =
+            Comparator.comparingLong((Candidate candidate) -> candidate.weight).reversed()
+                    .thenComparing(candidate -> candidate.string);
+    /** Part of the digest of a terminal node, which is not contributed by its children. */
+    private static final long TERMINAL_DIGEST = 0x2545f4914f6cdd1dL;
+
     private Node root = new Node();
+    /** Number of nodes including root, they are counted to write the header of {@link #writeTo} format. */
+    private int numberOfNodes = 1;
+    /** Number of strings with nonzero weights, weights are written only if there are such strings. */
+    private int numberOfWeightedStrings;
+    /** Hash code is the sum of products of characters of strings, so it is updated on every change. */
+    private int hash;
 
-    /** Returns trie hash code. **/
+    /** Returns trie hash code, it takes O(1). **/
     @Override
     public int hashCode() {
-        return root.hashCode();
+        return hash;
     }
 
-    /** Returns true if specified object is trie and contains the same set of strings. **/
+    /**
+     * Returns true if specified object is trie and contains the same set of strings.
+     * Tries with different digests of the same subtrees are not equal, so most different tries are compared in O(1).
+     **/
     @Override
     public boolean equals(Object object) {
-        if (object instanceof Trie) {
-            var trie = (Trie) object;
-            return root.equals(trie.root);
+        if (!(object instanceof Trie)) {
+            return false;
+        }
+        var other = (Trie) object;
+        if (hash != other.hash || root.digest != other.root.digest) {
+            return false;
+        }
+        var stack = new ArrayDeque<Node>();
+        stack.push(root);
+        stack.push(other.root);
+        while (!stack.isEmpty()) {
+            var node = stack.pop();
+            var otherNode = stack.pop();
+            if (node.digest != otherNode.digest
+                    || node.isTerminal != otherNode.isTerminal
+                    || node.numberOfTerminalsInSubtree != otherNode.numberOfTerminalsInSubtree
+                    || node.children.size() != otherNode.children.size()) {
+                return false;
+            }
+            for (var entry : node.children.entrySet()) {
+                var otherChild = otherNode.children.get(entry.getKey());
+                if (otherChild == null) {
+                    return false;
+                }
+                stack.push(otherChild);
+                stack.push(entry.getValue());
+            }
+        }
+        return true;
+    }
+
+    /** Hash code computed by walking the whole trie, it is used when the trie is read. */
+    private int computeHashCode() {
+        // hash of node is (isTerminal ? 1 : 0) + sum of (character * hash of child), computed in post-order
+        var stack = new ArrayDeque<HashCodeFrame>();
+        stack.push(new HashCodeFrame(root, (char) 0));
+        int hash = 0;
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            if (frame.children.hasNext()) {
+                var entry = frame.children.next();
+                stack.push(new HashCodeFrame(entry.getValue(), entry.getKey()));
+                continue;
+            }
+            stack.pop();
+            var parent = stack.peek();
+            if (parent == null) {
+                hash = frame.hash;
+            } else {
+                parent.hash += frame.character * frame.hash;
+            }
         }
-        return false;
+        return hash;
     }
 
-    /** Add string to trie.
+    /** Add string with zero weight to trie.
      * @param element String to add.
      * @return true if trie did not contain this string, false otherwise.
      */
     public boolean add(@NotNull String element) {
-        return root.add(element, 0);
+        return add(element, 0);
+    }
+
+    /** Add string with the specified weight to trie.
+     * @param element String to add.
+     * @param weight Weight used by {@link #topK}.
+     * @return true if trie did not contain this string, false otherwise. Weight of existing string is not changed.
+     */
+    public boolean add(@NotNull String element, long weight) {
+        if (contains(element)) {
+            return false;
+        }
+        var node = root;
+        var path = new Node[element.length() + 1];
+        int firstNewDepth = element.length() + 1;
+        for (int i = 0; i < element.length(); i++) {
+            path[i] = node;
+            node.numberOfTerminalsInSubtree++;
+            node.maxWeightInSubtree = Math.max(node.maxWeightInSubtree, weight);
+            var nextCharacter = element.charAt(i);
+            var child = node.children.get(nextCharacter);
+            if (child == null) {
+                child = new Node();
+                node.children.put(nextCharacter, child);
+                numberOfNodes++;
+                firstNewDepth = Math.min(firstNewDepth, i + 1);
+            }
+            node = child;
+        }
+        path[element.length()] = node;
+        node.numberOfTerminalsInSubtree++;
+        node.maxWeightInSubtree = Math.max(node.maxWeightInSubtree, weight);
+        node.isTerminal = true;
+        node.weight = weight;
+        if (weight != 0) {
+            numberOfWeightedStrings++;
+        }
+        hash += multiplyCharacters(element);
+        updateDigests(path, element, element.length(), TERMINAL_DIGEST, firstNewDepth);
+        return true;
+    }
+
+    /**
+     * Build trie of strings given in ascending order, duplicates are allowed.
+     * Every node is created once and its counters are computed when all of its strings are added,
+     * so it is much faster than adding strings one by one.
+     * @throws IllegalArgumentException if strings are not sorted.
+     */
+    public static @NotNull Trie buildFromSorted(@NotNull Iterator<String> sorted) {
+        var builder = new SortedBuilder(0);
+        while (sorted.hasNext()) {
+            builder.add(sorted.next());
+        }
+        var trie = new Trie();
+        builder.finishInto(trie);
+        return trie;
+    }
+
+    /**
+     * Build trie of strings given in ascending order like {@link #buildFromSorted},
+     * subtrees of different first characters are built in parallel in the common fork-join pool.
+     * @param sorted List with fast random access.
+     * @throws IllegalArgumentException if strings are not sorted.
+     */
+    public static @NotNull Trie buildFromSortedInParallel(@NotNull List<String> sorted) {
+        var trie = new Trie();
+        int start = 0;
+        while (start < sorted.size() && sorted.get(start).isEmpty()) {
+            start++;
+        }
+        if (start > 0) {
+            trie.add("");
+        }
+        // strings with the same first character are built into the same subtree
+        var groups = new ArrayList<List<String>>();
+        for (int end = start + 1; end <= sorted.size(); end++) {
+            if (end < sorted.size()) {
+                var firstCharacter = sorted.get(start).charAt(0);
+                var nextString = sorted.get(end);
+                if (nextString.isEmpty() || nextString.charAt(0) < firstCharacter) {
+                    throw new IllegalArgumentException("Strings are not sorted");
+                }
+                if (nextString.charAt(0) == firstCharacter) {
+                    continue;
+                }
+            }
+            groups.add(sorted.subList(start, end));
+            start = end;
+        }
+        // root of a subtrie is the node of the first character
+        var subtries = groups.parallelStream().map(group -> {
+            var builder = new SortedBuilder(1);
+            for (var element : group) {
+                builder.add(element);
+            }
+            var subtrie = new Trie();
+            builder.finishInto(subtrie);
+            return subtrie;
+        }).collect(Collectors.toList());
+        for (int i = 0; i < groups.size(); i++) {
+            var trieOfGroup = subtries.get(i);
+            var character = groups.get(i).get(0).charAt(0);
+            var child = trieOfGroup.root;
+            trie.root.children.put(character, child);
+            trie.root.numberOfTerminalsInSubtree += child.numberOfTerminalsInSubtree;
+            trie.root.maxWeightInSubtree = Math.max(trie.root.maxWeightInSubtree, child.maxWeightInSubtree);
+            trie.root.digest += childDigest(character, child.digest);
+            trie.numberOfNodes += trieOfGroup.numberOfNodes;
+            trie.hash += trieOfGroup.hash;
+        }
+        return trie;
     }
 
     /** Check if trie contains specified string. */
     public boolean contains(@NotNull String element) {
-        return root.contains(element, 0);
+        var node = findNode(element);
+        return node != null && node.isTerminal;
     }
 
     /** Remove string from trie.
@@ -46,7 +227,37 @@ public class Trie implements Serializable {
      * @return true if trie contained this string, false otherwise.
      */
     public boolean remove(@NotNull String element) {
-        return root.remove(element, 0);
+        var removedNode = findNode(element);
+        if (removedNode == null || !removedNode.isTerminal) {
+            return false;
+        }
+        if (removedNode.weight != 0) {
+            numberOfWeightedStrings--;
+        }
+        hash -= multiplyCharacters(element);
+        var node = root;
+        var path = new Node[element.length() + 1];
+        for (int i = 0; i < element.length(); i++) {
+            path[i] = node;
+            node.numberOfTerminalsInSubtree--;
+            var nextCharacter = element.charAt(i);
+            var child = node.children.get(nextCharacter);
+            if (child.numberOfTerminalsInSubtree == 1) {
+                // the rest of the path holds only this string
+                node.children.remove(nextCharacter);
+                numberOfNodes -= element.length() - i;
+                updateMaxWeights(path, i);
+                updateDigests(path, element, i, -childDigest(nextCharacter, child.digest), i + 1);
+                return true;
+            }
+            node = child;
+        }
+        path[element.length()] = node;
+        node.numberOfTerminalsInSubtree--;
+        node.isTerminal = false;
+        updateMaxWeights(path, element.length());
+        updateDigests(path, element, element.length(), -TERMINAL_DIGEST, element.length() + 1);
+        return true;
     }
 
     /** Number of strings in trie. */
@@ -56,136 +267,524 @@ public class Trie implements Serializable {
 
     /** Number of strings starting with specified prefix. */
     public int howManyStartWithPrefix(@NotNull String prefix) {
-        return root.howManyStartWithPrefix(prefix, 0);
+        var node = findNode(prefix);
+        return node == null ? 0 : node.numberOfTerminalsInSubtree;
+    }
+
+    /**
+     * Iterator over strings starting with specified prefix in lexicographic order.
+     * Strings are found lazily while iterating, trie must not be changed until iteration ends.
+     */
+    public @NotNull Iterator<String> startingWith(@NotNull String prefix) {
+        return new PrefixIterator(findNode(prefix), prefix);
+    }
+
+    /** First strings starting with specified prefix in lexicographic order, at most limit of them. */
+    public @NotNull List<String> startingWith(@NotNull String prefix, int limit) {
+        var result = new ArrayList<String>();
+        var iterator = startingWith(prefix);
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * Strings starting with specified prefix with the largest weights, at most k of them.
+     * Strings are ordered by weight descending, strings with equal weights are in lexicographic order.
+     * Subtrees are visited in order of the largest weight in them, so the whole subtree of prefix is not scanned.
+     */
+    public @NotNull List<String> topK(@NotNull String prefix, int k) {
+        var result = new ArrayList<String>();
+        var node = findNode(prefix);
+        if (node == null || k <= 0) {
+            return result;
+        }
+        // string of a node is a bound for all strings in its subtree, string without node is a result
+        var candidates = new PriorityQueue<Candidate>(BY_WEIGHT);
+        candidates.add(new Candidate(prefix, node.maxWeightInSubtree, node));
+        while (result.size() < k && !candidates.isEmpty()) {
+            var candidate = candidates.poll();
+            if (candidate.node == null) {
+                result.add(candidate.string);
+                continue;
+            }
+            if (candidate.node.isTerminal) {
+                candidates.add(new Candidate(candidate.string, candidate.node.weight, null));
+            }
+            for (var entry : candidate.node.children.entrySet()) {
+                var child = entry.getValue();
+                candidates.add(new Candidate(candidate.string + entry.getKey(), child.maxWeightInSubtree, child));
+            }
+        }
+        return result;
     }
 
     /** {@inheritDoc} */
     @Override
     public void serialize(@NotNull OutputStream out) throws IOException {
-        root.serialize(new DataOutputStream(out));
+        var dataOut = new DataOutputStream(out);
+        // node is written before its children, every child is preceded by its character
+        var stack = new ArrayDeque<Iterator<Map.Entry<Character, Node>>>();
+        root.writeHeader(dataOut);
+        stack.push(root.children.entrySet().iterator());
+        while (!stack.isEmpty()) {
+            var children = stack.peek();
+            if (!children.hasNext()) {
+                stack.pop();
+                continue;
+            }
+            var entry = children.next();
+            dataOut.writeChar(entry.getKey());
+            entry.getValue().writeHeader(dataOut);
+            stack.push(entry.getValue().children.entrySet().iterator());
+        }
+        dataOut.flush();
     }
 
     /** {@inheritDoc} */
     @Override
     public void deserialize(@NotNull InputStream in) throws IOException {
-        root = new Node();
-        root.deserialize(new DataInputStream(in));
+        var dataIn = new DataInputStream(in);
+        var newRoot = new Node();
+        int newNumberOfNodes = 1;
+        var stack = new ArrayDeque<DeserializationFrame>();
+        stack.push(new DeserializationFrame(newRoot, (char) 0, newRoot.readHeader(dataIn)));
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            if (frame.remainingChildren == 0) {
+                stack.pop();
+                var parent = stack.peek();
+                if (parent != null) {
+                    parent.node.numberOfTerminalsInSubtree += frame.node.numberOfTerminalsInSubtree;
+                    parent.node.maxWeightInSubtree =
+                            Math.max(parent.node.maxWeightInSubtree, frame.node.maxWeightInSubtree);
+                    parent.node.digest += childDigest(frame.character, frame.node.digest);
+                }
+                continue;
+            }
+            frame.remainingChildren--;
+            var nextCharacter = dataIn.readChar();
+            var child = new Node();
+            frame.node.children.put(nextCharacter, child);
+            newNumberOfNodes++;
+            stack.push(new DeserializationFrame(child, nextCharacter, child.readHeader(dataIn)));
+        }
+        root = newRoot;
+        numberOfNodes = newNumberOfNodes;
+        numberOfWeightedStrings = 0;
+        hash = computeHashCode();
+    }
+
+    /**
+     * Write trie with weights in a compact checksummed format, described in {@link TrieFormat}.
+     * Unlike {@link #serialize}, its output may also be opened as {@link MappedTrie}.
+     * Channel of an output stream may be obtained with {@link java.nio.channels.Channels#newChannel}.
+     */
+    public void writeTo(@NotNull WritableByteChannel channel) throws IOException {
+        boolean hasWeights = numberOfWeightedStrings > 0;
+        var out = new TrieFormat.Output(channel,
+                new TrieFormat.Header(hasWeights ? TrieFormat.WEIGHTS : 0, numberOfNodes, size()));
+        // node is written after its children, so that positions of their records are known
+        var stack = new ArrayDeque<WriteFrame>();
+        stack.push(new WriteFrame(root));
+        long rootPosition = 0;
+        while (!stack.isEmpty()) {
+            var frame = stack.peek();
+            var characters = frame.characters;
+            if (frame.nextCharacter < characters.length) {
+                stack.push(new WriteFrame(frame.node.children.get(characters[frame.nextCharacter++])));
+                continue;
+            }
+            stack.pop();
+            var node = frame.node;
+            long position = out.position();
+            // the first child is written first, so it is the farthest one
+            int offsetWidth = characters.length == 0 ? 1 : TrieFormat.offsetWidth(position - frame.childPositions[0]);
+            out.writeVarLong(TrieFormat.recordHeader(characters.length, offsetWidth, node.isTerminal));
+            if (hasWeights && node.isTerminal) {
+                out.writeVarLong(TrieFormat.encodeWeight(node.weight));
+            }
+            for (var character : characters) {
+                out.writeChar(character);
+            }
+            for (var childPosition : frame.childPositions) {
+                out.writeFixed(position - childPosition, offsetWidth);
+            }
+            var parent = stack.peek();
+            if (parent == null) {
+                rootPosition = position;
+            } else {
+                parent.childPositions[parent.nextCharacter - 1] = position;
+            }
+        }
+        out.finish(rootPosition);
+    }
+
+    /**
+     * Replace trie with one written by {@link #writeTo}.
+     * Trie is not changed if data is corrupted, which is checked with its checksum.
+     */
+    public void readFrom(@NotNull ReadableByteChannel channel) throws IOException {
+        var in = new TrieFormat.Input(channel);
+        var header = in.readHeader();
+        boolean hasWeights = (header.flags & TrieFormat.WEIGHTS) != 0;
+        int newNumberOfWeightedStrings = 0;
+        // nodes whose parents are not read yet, the last read is on the top
+        var stack = new ArrayDeque<Node>();
+        for (int i = 0; i < header.numberOfNodes; i++) {
+            long recordHeader = in.readVarLong();
+            // checked before the cast, so that a corrupted header can't make the number negative
+            if (recordHeader >>> 4 > Math.min(stack.size(), TrieFormat.MAX_CHILDREN)) {
+                throw new IOException("Trie data is corrupted");
+            }
+            int numberOfChildren = TrieFormat.getNumberOfChildren(recordHeader);
+            var node = new Node();
+            if (TrieFormat.isTerminal(recordHeader)) {
+                node.isTerminal = true;
+                node.numberOfTerminalsInSubtree = 1;
+                node.weight = hasWeights ? TrieFormat.decodeWeight(in.readVarLong()) : 0;
+                node.maxWeightInSubtree = node.weight;
+                node.digest = TERMINAL_DIGEST;
+                if (node.weight != 0) {
+                    newNumberOfWeightedStrings++;
+                }
+            }
+            var characters = new char[numberOfChildren];
+            for (int j = 0; j < numberOfChildren; j++) {
+                characters[j] = in.readChar();
+                if (j > 0 && characters[j] <= characters[j - 1]) {
+                    throw new IOException("Trie data is corrupted");
+                }
+            }
+            in.skip((long) numberOfChildren * TrieFormat.getOffsetWidth(recordHeader));
+            for (int j = numberOfChildren - 1; j >= 0; j--) {
+                var child = stack.pop();
+                node.children.put(characters[j], child);
+                node.numberOfTerminalsInSubtree += child.numberOfTerminalsInSubtree;
+                node.maxWeightInSubtree = Math.max(node.maxWeightInSubtree, child.maxWeightInSubtree);
+                node.digest += childDigest(characters[j], child.digest);
+            }
+            stack.push(node);
+        }
+        in.finish();
+        if (stack.size() != 1 || stack.peek().numberOfTerminalsInSubtree != header.size) {
+            throw new IOException("Trie data is corrupted");
+        }
+        root = stack.pop();
+        numberOfNodes = header.numberOfNodes;
+        numberOfWeightedStrings = newNumberOfWeightedStrings;
+        hash = computeHashCode();
+    }
+
+    /** Node of the specified string, null if there is none. */
+    private @Nullable Node findNode(@NotNull String element) {
+        var node = root;
+        for (int i = 0; i < element.length() && node != null; i++) {
+            node = node.children.get(element.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Recompute the largest weights from the deepest changed node of the path up to the root.
+     * Ancestors of a node with unchanged value are unchanged too.
+     */
+    private static void updateMaxWeights(@NotNull Node[] path, int deepest) {
+        for (int i = deepest; i >= 0; i--) {
+            var node = path[i];
+            long maxWeight = node.isTerminal ? node.weight : Long.MIN_VALUE;
+            for (var child : node.children.values()) {
+                maxWeight = Math.max(maxWeight, child.maxWeightInSubtree);
+            }
+            if (maxWeight == node.maxWeightInSubtree) {
+                return;
+            }
+            node.maxWeightInSubtree = maxWeight;
+        }
+    }
+
+    /** Product of characters of the string, hash code of trie is the sum of them. */
+    private static int multiplyCharacters(@NotNull String element) {
+        int product = 1;
+        for (int i = 0; i < element.length(); i++) {
+            product *= element.charAt(i);
+        }
+        return product;
+    }
+
+    /** Part of the digest of a node contributed by its child, it mixes the character with the child digest. */
+    private static long childDigest(char character, long digest) {
+        // finalizer of MurmurHash3
+        long value = digest + character * 0x9e3779b97f4a7c15L;
+        value = (value ^ value >>> 33) * 0xff51afd7ed558ccdL;
+        value = (value ^ value >>> 33) * 0xc4ceb9fe1a85ec53L;
+        return value ^ value >>> 33;
+    }
+
+    /**
+     * Add delta to the digest of the node of the path at specified depth and update digests of its ancestors.
+     * @param firstNewDepth Nodes of the path from this depth were just created, so their parents don't count them yet.
+     */
+    private static void updateDigests(@NotNull Node[] path, @NotNull String element, int depth, long delta,
+                                      int firstNewDepth) {
+        long oldDigest = path[depth].digest;
+        path[depth].digest += delta;
+        for (int i = depth - 1; i >= 0; i--) {
+            var node = path[i];
+            var character = element.charAt(i);
+            long oldNodeDigest = node.digest;
+            if (i + 1 < firstNewDepth) {
+                node.digest -= childDigest(character, oldDigest);
+            }
+            node.digest += childDigest(character, path[i + 1].digest);
+            oldDigest = oldNodeDigest;
+        }
     }
 
     private static class Node {
         private boolean isTerminal = false;
         private int numberOfTerminalsInSubtree;
-        private final Hashtable<Character, Node> children = new Hashtable<>();
+        /** Weight of the string of this node if it is terminal. */
+        private long weight;
+        /** The largest weight of strings in the subtree, {@link Long#MIN_VALUE} if there are none. */
+        private long maxWeightInSubtree = Long.MIN_VALUE;
+        /**
+         * Digest of the set of strings of the subtree: {@link #TERMINAL_DIGEST} if the node is terminal
+         * plus {@link #childDigest} of every child. Equal subtrees have equal digests.
+         */
+        private long digest;
+        private final Hashtable<Character, Node> children;
 
-        @Override
-        public int hashCode() {
-            int hash = isTerminal ? 1 : 0;
-            for (var entry : children.entrySet()) {
-                hash += entry.getKey() * entry.getValue().hashCode();
-            }
-            return hash;
+        private Node() {
+            children = new Hashtable<>();
         }
 
-        @Override
-        public boolean equals(Object object) {
-            if (object instanceof Node) {
-                var node = (Node) object;
-                return isTerminal == node.isTerminal &&
-                        numberOfTerminalsInSubtree == node.numberOfTerminalsInSubtree &&
-                        children.equals(node.children);
-            }
-            return false;
+        private Node(int initialCapacity) {
+            children = new Hashtable<>(initialCapacity);
         }
 
-        private boolean switchTerminal(boolean state) {
-            if (isTerminal == state) {
-                return false;
+        private char[] getSortedCharacters() {
+            var characters = new char[children.size()];
+            int i = 0;
+            for (var character : children.keySet()) {
+                characters[i++] = character;
             }
-            isTerminal = state;
-            numberOfTerminalsInSubtree += isTerminal ? 1 : -1;
-            return true;
+            Arrays.sort(characters);
+            return characters;
+        }
+
+        private void writeHeader(@NotNull DataOutputStream out) throws IOException {
+            out.writeInt(children.size());
+            out.writeBoolean(isTerminal);
         }
 
-        private boolean add(@NotNull String element, int position) {
-            if (position == element.length()) {
-                return switchTerminal(true);
+        /** Read terminal flag and return number of children. */
+        private int readHeader(@NotNull DataInputStream in) throws IOException {
+            var numberOfChildren = in.readInt();
+            isTerminal = in.readBoolean();
+            numberOfTerminalsInSubtree = isTerminal ? 1 : 0;
+            // weights are not serialized
+            maxWeightInSubtree = isTerminal ? 0 : Long.MIN_VALUE;
+            digest = isTerminal ? TERMINAL_DIGEST : 0;
+            return numberOfChildren;
+        }
+    }
+
+    /** Builds a subtree of strings with a common prefix, which are added in ascending order. */
+    private static class SortedBuilder {
+        /** Most nodes of a dictionary have a single child, so children tables of new nodes start small. */
+        private static final int INITIAL_CAPACITY = 2;
+
+        /** Length of the common prefix, root of the subtree is the node of the prefix. */
+        private final int prefixLength;
+        /** Nodes of the previous string, starting from the root of the subtree, whose counters are not final yet. */
+        private Node[] path = new Node[16];
+        private String previous;
+        private int numberOfNodes = 1;
+        private int hash;
+
+        private SortedBuilder(int prefixLength) {
+            this.prefixLength = prefixLength;
+            path[0] = new Node();
+        }
+
+        private void add(@NotNull String element) {
+            int common = prefixLength;
+            if (previous != null) {
+                int limit = Math.min(previous.length(), element.length());
+                while (common < limit && previous.charAt(common) == element.charAt(common)) {
+                    common++;
+                }
+                if (common == element.length() && common == previous.length()) {
+                    return;
+                }
+                if (common == element.length() || common < previous.length()
+                        && previous.charAt(common) > element.charAt(common)) {
+                    throw new IllegalArgumentException("Strings are not sorted");
+                }
+                finishNodes(common);
             }
-            var nextCharacter = element.charAt(position);
-            var child = children.get(nextCharacter);
-            if (child == null) {
-                child = new Node();
-                children.put(nextCharacter, child);
+            if (path.length <= element.length() - prefixLength) {
+                path = Arrays.copyOf(path, Math.max(path.length * 2, element.length() - prefixLength + 1));
             }
-            boolean added = child.add(element, position + 1);
-            if (added) {
-                numberOfTerminalsInSubtree++;
+            for (int depth = common; depth < element.length(); depth++) {
+                var child = new Node(INITIAL_CAPACITY);
+                path[depth - prefixLength].children.put(element.charAt(depth), child);
+                path[depth + 1 - prefixLength] = child;
+                numberOfNodes++;
             }
-            return added;
+            var node = path[element.length() - prefixLength];
+            node.isTerminal = true;
+            node.numberOfTerminalsInSubtree = 1;
+            node.maxWeightInSubtree = 0;
+            node.digest = TERMINAL_DIGEST;
+            hash += multiplyCharacters(element);
+            previous = element;
         }
 
-        private boolean contains(@NotNull String element, int position) {
-            if (position == element.length()) {
-                return isTerminal;
+        /** Add counters of nodes of the previous string deeper than specified depth to their parents. */
+        private void finishNodes(int depth) {
+            for (int i = previous.length(); i > depth; i--) {
+                var child = path[i - prefixLength];
+                var parent = path[i - 1 - prefixLength];
+                parent.numberOfTerminalsInSubtree += child.numberOfTerminalsInSubtree;
+                parent.maxWeightInSubtree = Math.max(parent.maxWeightInSubtree, child.maxWeightInSubtree);
+                parent.digest += childDigest(previous.charAt(i - 1), child.digest);
+                path[i - prefixLength] = null;
             }
-            var nextCharacter = element.charAt(position);
-            var child = children.get(nextCharacter);
-            if (child == null) {
-                return false;
-            }
-            return child.contains(element, position + 1);
         }
 
-        private boolean remove(@NotNull String element, int position) {
-            if (position == element.length()) {
-                return switchTerminal(false);
-            }
-            var nextCharacter = element.charAt(position);
-            var child = children.get(nextCharacter);
-            if (child == null) {
-                return false;
+        /** Make the built subtree the whole content of the trie, builder can't be used after that. */
+        private void finishInto(@NotNull Trie trie) {
+            if (previous != null) {
+                finishNodes(prefixLength);
             }
-            boolean removed = child.remove(element, position + 1);
-            if (removed) {
-                numberOfTerminalsInSubtree--;
-                if (child.numberOfTerminalsInSubtree == 0) {
-                    children.remove(nextCharacter);
-                }
-            }
-            return removed;
+            trie.root = path[0];
+            trie.numberOfNodes = numberOfNodes;
+            trie.numberOfWeightedStrings = 0;
+            trie.hash = hash;
         }
+    }
 
-        private int howManyStartWithPrefix(@NotNull String prefix, int position) {
-            if (position == prefix.length()) {
-                return numberOfTerminalsInSubtree;
+    private static class HashCodeFrame {
+        private final char character;
+        private final Iterator<Map.Entry<Character, Node>> children;
+        private int hash;
+
+        private HashCodeFrame(@NotNull Node node, char character) {
+            this.character = character;
+            children = node.children.entrySet().iterator();
+            hash = node.isTerminal ? 1 : 0;
+        }
+    }
+
+    private static class DeserializationFrame {
+        private final Node node;
+        private final char character;
+        private int remainingChildren;
+
+        private DeserializationFrame(@NotNull Node node, char character, int remainingChildren) {
+            this.node = node;
+            this.character = character;
+            this.remainingChildren = remainingChildren;
+        }
+    }
+
+    /** Lexicographic pre-order traversal of a subtree, the next string is found in advance. */
+    private static class PrefixIterator implements Iterator<String> {
+        private final ArrayDeque<IterationFrame> stack = new ArrayDeque<>();
+        /** String of the node on the top of the stack. */
+        private final StringBuilder path;
+        private String next;
+
+        private PrefixIterator(@Nullable Node node, @NotNull String prefix) {
+            path = new StringBuilder(prefix);
+            if (node == null) {
+                return;
             }
-            var nextCharacter = prefix.charAt(position);
-            var child = children.get(nextCharacter);
-            if (child == null) {
-                return 0;
+            stack.push(new IterationFrame(node));
+            if (node.isTerminal) {
+                next = prefix;
+            } else {
+                advance();
             }
-            return child.howManyStartWithPrefix(prefix, position + 1);
         }
 
-        private void serialize(@NotNull DataOutputStream out) throws IOException {
-            out.writeInt(children.size());
-            out.writeBoolean(isTerminal);
-            for (var entry : children.entrySet()) {
-                out.writeChar(entry.getKey());
-                entry.getValue().serialize(out);
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
             }
+            var result = next;
+            advance();
+            return result;
         }
 
-        private void deserialize(@NotNull DataInputStream in) throws IOException {
-            var numberOfChildren = in.readInt();
-            isTerminal = in.readBoolean();
-            numberOfTerminalsInSubtree = isTerminal ? 1 : 0;
-            for (int i = 0; i < numberOfChildren; i++) {
-                var nextCharacter = in.readChar();
-                var child = new Node();
-                children.put(nextCharacter, child);
-                child.deserialize(in);
-                numberOfTerminalsInSubtree += child.numberOfTerminalsInSubtree;
+        private void advance() {
+            next = null;
+            while (!stack.isEmpty()) {
+                var frame = stack.peek();
+                if (frame.nextCharacter == frame.characters.length) {
+                    stack.pop();
+                    if (!stack.isEmpty()) {
+                        path.setLength(path.length() - 1);
+                    }
+                    continue;
+                }
+                var character = frame.characters[frame.nextCharacter++];
+                var child = frame.node.children.get(character);
+                path.append(character);
+                stack.push(new IterationFrame(child));
+                if (child.isTerminal) {
+                    next = path.toString();
+                    return;
+                }
             }
         }
     }
+
+    private static class IterationFrame {
+        private final Node node;
+        /** Characters of children in ascending order, they are sorted when the node is visited. */
+        private final char[] characters;
+        private int nextCharacter;
+
+        private IterationFrame(@NotNull Node node) {
+            this.node = node;
+            characters = node.getSortedCharacters();
+        }
+    }
+
+    private static class WriteFrame {
+        private final Node node;
+        private final char[] characters;
+        private int nextCharacter;
+        /** Positions of records of written children. */
+        private final long[] childPositions;
+
+        private WriteFrame(@NotNull Node node) {
+            this.node = node;
+            characters = node.getSortedCharacters();
+            childPositions = new long[characters.length];
+        }
+    }
+
+    private static class Candidate {
+        private final String string;
+        private final long weight;
+        /** Node of the string if the candidate is its subtree, null if the candidate is the string itself. */
+        private final Node node;
+
+        private Candidate(@NotNull String string, long weight, @Nullable Node node) {
+            this.string = string;
+            this.weight = weight;
+            this.node = node;
+        }
+    }
 }
@@ -0,0 +1,248 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary format of {@link Trie#writeTo}, which is also read by {@link MappedTrie} without deserializing.
+ *
+ * <p>File consists of a header, node records and a trailer, all numbers are big-endian.
+ * Header is magic, version (short), flags (short), number of nodes and number of strings (ints).
+ * Trailer is position of the root record (long) and CRC32C of all the preceding bytes (int).
+ *
+ * <p>Records are written in post-order, so children precede their parent and the root record is the last one.
+ * Record starts with varint {@code numberOfChildren << 4 | (offsetWidth - 1) << 1 | isTerminal},
+ * followed by zigzag varint weight of terminal nodes if {@link #WEIGHTS} flag is set.
+ * Then there are characters of children in ascending order, and distances from the record back to records
+ * of the children, each taking offsetWidth bytes. So a child is found by a binary search right in the file.
+ */
+class TrieFormat {
+    static final int MAGIC = 0x54524945;
+    static final short VERSION = 1;
+    /** Records of terminal nodes hold weights. */
+    static final short WEIGHTS = 1;
+    static final int HEADER_SIZE = 16;
+    static final int TRAILER_SIZE = 12;
+    static final int MAX_CHILDREN = Character.MAX_VALUE + 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private TrieFormat() {
+    }
+
+    static long recordHeader(int numberOfChildren, int offsetWidth, boolean isTerminal) {
+        return (long) numberOfChildren << 4 | (offsetWidth - 1) << 1 | (isTerminal ? 1 : 0);
+    }
+
+    static int getNumberOfChildren(long recordHeader) {
+        return (int) (recordHeader >>> 4);
+    }
+
+    static int getOffsetWidth(long recordHeader) {
+        return (int) (recordHeader >>> 1 & 7) + 1;
+    }
+
+    static boolean isTerminal(long recordHeader) {
+        return (recordHeader & 1) != 0;
+    }
+
+    /** Number of bytes enough to hold the distance. */
+    static int offsetWidth(long distance) {
+        return Math.max(1, (64 - Long.numberOfLeadingZeros(distance) + 7) / 8);
+    }
+
+    static long encodeWeight(long weight) {
+        return weight << 1 ^ weight >> 63;
+    }
+
+    static long decodeWeight(long encoded) {
+        return encoded >>> 1 ^ -(encoded & 1);
+    }
+
+    static class Header {
+        final short flags;
+        final int numberOfNodes;
+        final int size;
+
+        Header(short flags, int numberOfNodes, int size) {
+            this.flags = flags;
+            this.numberOfNodes = numberOfNodes;
+            this.size = size;
+        }
+
+        /** Read header from the current position of the buffer. */
+        static @NotNull Header read(@NotNull ByteBuffer buffer) throws IOException {
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Data doesn't hold a trie of a supported version");
+            }
+            var header = new Header(buffer.getShort(), buffer.getInt(), buffer.getInt());
+            if (header.numberOfNodes <= 0 || header.size < 0) {
+                throw new IOException("Trie data is corrupted");
+            }
+            return header;
+        }
+
+        private void write(@NotNull ByteBuffer buffer) {
+            buffer.putInt(MAGIC).putShort(VERSION).putShort(flags).putInt(numberOfNodes).putInt(size);
+        }
+    }
+
+    /** Buffered writer to a channel, which computes checksum of the written data. */
+    static class Output {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private final CRC32C checksum = new CRC32C();
+        private long position;
+
+        Output(@NotNull WritableByteChannel channel, @NotNull Header header) throws IOException {
+            this.channel = channel;
+            header.write(buffer);
+            position = HEADER_SIZE;
+        }
+
+        /** Number of bytes written since the start of the header. */
+        long position() {
+            return position;
+        }
+
+        void writeVarLong(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                writeByte((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+
+        void writeChar(char value) throws IOException {
+            ensureRemaining(Character.BYTES);
+            buffer.putChar(value);
+            position += Character.BYTES;
+        }
+
+        /** Write lower bytes of the value, the most significant first. */
+        void writeFixed(long value, int width) throws IOException {
+            for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+                writeByte((int) (value >>> shift));
+            }
+        }
+
+        /** Write trailer and send all buffered data to the channel. */
+        void finish(long rootPosition) throws IOException {
+            ensureRemaining(Long.BYTES);
+            buffer.putLong(rootPosition);
+            flush();
+            buffer.putInt((int) checksum.getValue());
+            writeBuffer();
+        }
+
+        private void writeByte(int value) throws IOException {
+            ensureRemaining(1);
+            buffer.put((byte) value);
+            position++;
+        }
+
+        private void ensureRemaining(int length) throws IOException {
+            if (buffer.remaining() < length) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            buffer.position(buffer.limit());
+            writeBuffer();
+        }
+
+        private void writeBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered reader from a channel, which computes checksum of the read data.
+     * It reads ahead, so data after the trie may be consumed from the channel.
+     */
+    static class Input {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+        private final CRC32C checksum = new CRC32C();
+        /** Bytes of the buffer from this one to the position are read, but not added to the checksum yet. */
+        private int checksumStart;
+
+        Input(@NotNull ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        @NotNull Header readHeader() throws IOException {
+            ensureAvailable(HEADER_SIZE);
+            return Header.read(buffer);
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                ensureAvailable(1);
+                byte next = buffer.get();
+                value |= (long) (next & 0x7f) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Trie data is corrupted");
+        }
+
+        char readChar() throws IOException {
+            ensureAvailable(Character.BYTES);
+            return buffer.getChar();
+        }
+
+        void skip(long length) throws IOException {
+            while (length > 0) {
+                ensureAvailable(1);
+                int skipped = (int) Math.min(length, buffer.remaining());
+                buffer.position(buffer.position() + skipped);
+                length -= skipped;
+            }
+        }
+
+        /** Read trailer and check the checksum. */
+        void finish() throws IOException {
+            ensureAvailable(TRAILER_SIZE);
+            buffer.getLong();
+            updateChecksum();
+            if (buffer.getInt() != (int) checksum.getValue()) {
+                throw new IOException("Trie data is corrupted");
+            }
+        }
+
+        private void ensureAvailable(int length) throws IOException {
+            if (buffer.remaining() >= length) {
+                return;
+            }
+            updateChecksum();
+            buffer.compact();
+            checksumStart = 0;
+            while (buffer.position() < length) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Trie data is truncated");
+                }
+            }
+            buffer.flip();
+        }
+
+        private void updateChecksum() {
+            checksum.update(buffer.array(), checksumStart, buffer.position() - checksumStart);
+            checksumStart = buffer.position();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ru.hse.mnmalysheva.trie;
+
+class CompactTrieTest extends StringSetTest {
+    @Override
+    StringSet createTrie() {
+        return new CompactTrie();
+    }
+}
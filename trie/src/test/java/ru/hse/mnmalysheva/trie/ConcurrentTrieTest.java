@@ -0,0 +1,62 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTrieTest extends StringSetTest {
+    @Override
+    StringSet createTrie() {
+        return new ConcurrentTrie();
+    }
+
+    @Test
+    void readersDoNotSeePartialChanges() throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            testTrie.add("stable" + i);
+        }
+        // the writer keeps 10 "changing" strings, 11 between adding a new one and removing the oldest one
+        for (int i = 0; i < 10; i++) {
+            testTrie.add("changing" + i);
+        }
+        var failures = new AtomicInteger();
+        var writerFinished = new AtomicBoolean();
+        var readers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            var reader = new Thread(() -> {
+                var random = new Random();
+                while (!writerFinished.get()) {
+                    int number = random.nextInt(1000);
+                    int numberOfChanging = testTrie.howManyStartWithPrefix("changing");
+                    if (!testTrie.contains("stable" + number)
+                            || testTrie.howManyStartWithPrefix("stable") != 1000
+                            || numberOfChanging < 10 || numberOfChanging > 11) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        var writer = new Thread(() -> {
+            for (int i = 10; i < 100000; i++) {
+                testTrie.add("changing" + i);
+                testTrie.remove("changing" + (i - 10));
+            }
+        });
+        writer.start();
+        writer.join();
+        writerFinished.set(true);
+        for (var reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, failures.get());
+        assertEquals(1010, testTrie.size());
+        assertEquals(10, testTrie.howManyStartWithPrefix("changing"));
+    }
+}
@@ -0,0 +1,118 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTrieTest {
+    private Path file;
+    private Trie trie;
+
+    @BeforeEach
+    void init() throws IOException {
+        file = Files.createTempFile("mapped-trie", ".bin");
+        trie = new Trie();
+    }
+
+    @AfterEach
+    void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void emptyTrie() throws IOException {
+        try (var mappedTrie = write()) {
+            assertEquals(0, mappedTrie.size());
+            assertFalse(mappedTrie.contains(""));
+            assertFalse(mappedTrie.contains("a"));
+            mappedTrie.verifyChecksum();
+        }
+    }
+
+    @Test
+    void containsMatchesTrie() throws IOException {
+        var random = new Random(239);
+        var expected = new HashSet<String>();
+        for (int i = 0; i < 10000; i++) {
+            var element = randomString(random);
+            // weights make records of terminal nodes longer
+            trie.add(element, random.nextInt(1000) - 500);
+            expected.add(element);
+        }
+        try (var mappedTrie = write()) {
+            assertEquals(expected.size(), mappedTrie.size());
+            for (int i = 0; i < 10000; i++) {
+                var element = randomString(random);
+                assertEquals(expected.contains(element), mappedTrie.contains(element));
+            }
+            mappedTrie.verifyChecksum();
+        }
+    }
+
+    @Test
+    void allCharactersAndLongStrings() throws IOException {
+        for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+            trie.add("x" + (char) i);
+        }
+        var longString = "ab".repeat(100000);
+        trie.add(longString);
+        try (var mappedTrie = write()) {
+            for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+                assertTrue(mappedTrie.contains("x" + (char) i));
+            }
+            assertFalse(mappedTrie.contains("x"));
+            assertTrue(mappedTrie.contains(longString));
+            assertFalse(mappedTrie.contains(longString + "a"));
+            assertFalse(mappedTrie.contains(longString.substring(1)));
+        }
+    }
+
+    @Test
+    void corruptedFile() throws IOException {
+        trie.add("abc");
+        write().close();
+        var bytes = Files.readAllBytes(file);
+        bytes[TrieFormat.HEADER_SIZE] ^= 1;
+        Files.write(file, bytes);
+        try (var mappedTrie = new MappedTrie(file)) {
+            assertThrows(IOException.class, mappedTrie::verifyChecksum);
+        }
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> new MappedTrie(file));
+    }
+
+    @Test
+    void closedTrie() throws IOException {
+        trie.add("abc");
+        var mappedTrie = write();
+        mappedTrie.close();
+        mappedTrie.close();
+        assertThrows(IllegalStateException.class, () -> mappedTrie.contains("abc"));
+    }
+
+    private MappedTrie write() throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            trie.writeTo(channel);
+        }
+        return new MappedTrie(file);
+    }
+
+    private static String randomString(Random random) {
+        var builder = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixTrieTest extends StringSetTest {
+    @Override
+    StringSet createTrie() {
+        return new RadixTrie();
+    }
+
+    @Test
+    void labelsAreSplitAndMerged() {
+        assertTrue(testTrie.add("https://example.com/a/b"));
+        assertTrue(testTrie.add("https://example.com/a/c"));
+        assertTrue(testTrie.add("https://example.com"));
+        assertEquals(3, testTrie.howManyStartWithPrefix("https://exa"));
+        assertEquals(2, testTrie.howManyStartWithPrefix("https://example.com/"));
+        assertEquals(1, testTrie.howManyStartWithPrefix("https://example.com/a/b"));
+        assertEquals(0, testTrie.howManyStartWithPrefix("https://example.org"));
+        assertFalse(testTrie.contains("https://example"));
+        assertFalse(testTrie.contains("https://example.com/a/"));
+
+        assertTrue(testTrie.remove("https://example.com/a/b"));
+        assertTrue(testTrie.remove("https://example.com"));
+        var expected = createTrie();
+        expected.add("https://example.com/a/c");
+        assertEquals(expected, testTrie);
+        assertEquals(expected.hashCode(), testTrie.hashCode());
+        assertEquals(1, testTrie.howManyStartWithPrefix("https://example.com/a/"));
+    }
+
+    @Test
+    void deserializedTrieIsCompressed() throws IOException {
+        var random = new Random(239);
+        var elements = new ArrayList<String>();
+        for (int i = 0; i < 1000; i++) {
+            var element = randomString(random);
+            elements.add(element);
+            testTrie.add(element);
+        }
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var copy = createTrie();
+        copy.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int i = 0; i < elements.size(); i += 2) {
+            testTrie.remove(elements.get(i));
+            copy.remove(elements.get(i));
+        }
+        assertEquals(testTrie, copy);
+        assertEquals(testTrie.hashCode(), copy.hashCode());
+    }
+}
@@ -0,0 +1,232 @@
+package ru.hse.mnmalysheva.trie;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+abstract class StringSetTest {
+    StringSet testTrie;
+
+    abstract StringSet createTrie();
+
+    @BeforeEach
+    void init() {
+        testTrie = createTrie();
+    }
+
+    @Test
+    void emptyTrie() {
+        assertEquals(0, testTrie.size());
+        assertFalse(testTrie.contains(""));
+        assertFalse(testTrie.contains("a"));
+        assertEquals(0, testTrie.howManyStartWithPrefix(""));
+        assertFalse(testTrie.remove("a"));
+    }
+
+    @Test
+    void addContainsRemove() {
+        assertTrue(testTrie.add("Test"));
+        assertTrue(testTrie.add("Test1String"));
+        assertTrue(testTrie.add("РусскийТекст"));
+        assertTrue(testTrie.add(""));
+        assertFalse(testTrie.add("Test"));
+        assertEquals(4, testTrie.size());
+        assertTrue(testTrie.contains("Test"));
+        assertTrue(testTrie.contains(""));
+        assertFalse(testTrie.contains("Tes"));
+        assertFalse(testTrie.contains("Test1"));
+        assertTrue(testTrie.remove("Test"));
+        assertFalse(testTrie.remove("Test"));
+        assertFalse(testTrie.contains("Test"));
+        assertTrue(testTrie.contains("Test1String"));
+        assertEquals(3, testTrie.size());
+    }
+
+    @Test
+    void howManyStartWithPrefix() {
+        testTrie.add("abc");
+        testTrie.add("abd");
+        testTrie.add("ab");
+        testTrie.add("b");
+        assertEquals(4, testTrie.howManyStartWithPrefix(""));
+        assertEquals(3, testTrie.howManyStartWithPrefix("a"));
+        assertEquals(3, testTrie.howManyStartWithPrefix("ab"));
+        assertEquals(1, testTrie.howManyStartWithPrefix("abc"));
+        assertEquals(0, testTrie.howManyStartWithPrefix("abcd"));
+        assertEquals(0, testTrie.howManyStartWithPrefix("c"));
+    }
+
+    @Test
+    void allCharacters() {
+        for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+            assertTrue(testTrie.add("x" + (char) i));
+        }
+        for (int i = Character.MIN_VALUE; i <= Character.MAX_VALUE; i++) {
+            assertTrue(testTrie.contains("x" + (char) i));
+        }
+        assertEquals(Character.MAX_VALUE + 1, testTrie.howManyStartWithPrefix("x"));
+    }
+
+    @Test
+    void randomOperationsMatchHashSet() {
+        var random = new Random(239);
+        var expected = new HashSet<String>();
+        for (int i = 0; i < 100000; i++) {
+            var element = randomString(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(element), testTrie.remove(element));
+            } else {
+                assertEquals(expected.add(element), testTrie.add(element));
+            }
+            assertEquals(expected.size(), testTrie.size());
+        }
+        for (int i = 0; i < 1000; i++) {
+            var prefix = randomString(random);
+            long count = expected.stream().filter(element -> element.startsWith(prefix)).count();
+            assertEquals(count, testTrie.howManyStartWithPrefix(prefix));
+            assertEquals(expected.contains(prefix), testTrie.contains(prefix));
+        }
+    }
+
+    @Test
+    void removeAllEqualsEmpty() {
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) {
+                testTrie.add(Integer.toString(i));
+            }
+            for (int i = 0; i < 1000; i++) {
+                testTrie.remove(Integer.toString(i));
+            }
+            assertEquals(createTrie(), testTrie);
+            assertEquals(createTrie().hashCode(), testTrie.hashCode());
+        }
+    }
+
+    @Test
+    void equalsAndHashCodeDoNotDependOnOrder() {
+        var other = createTrie();
+        var trie = new Trie();
+        for (int i = 0; i < 1000; i++) {
+            testTrie.add(Integer.toString(i));
+            other.add(Integer.toString(999 - i));
+            trie.add(Integer.toString(i));
+        }
+        testTrie.add("extra");
+        testTrie.remove("extra");
+        assertEquals(other, testTrie);
+        assertEquals(other.hashCode(), testTrie.hashCode());
+        assertEquals(trie.hashCode(), testTrie.hashCode());
+        other.remove("5");
+        assertNotEquals(other, testTrie);
+    }
+
+    @Test
+    void serializationIsCompatibleWithTrie() throws IOException {
+        var trie = new Trie();
+        var random = new Random(239);
+        for (int i = 0; i < 1000; i++) {
+            var element = randomString(random);
+            trie.add(element);
+            testTrie.add(element);
+        }
+
+        var trieBytes = new ByteArrayOutputStream();
+        trie.serialize(trieBytes);
+        var fromTrie = createTrie();
+        fromTrie.deserialize(new ByteArrayInputStream(trieBytes.toByteArray()));
+        assertEquals(testTrie, fromTrie);
+
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var fromTestTrie = new Trie();
+        fromTestTrie.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(trie, fromTestTrie);
+    }
+
+    @Test
+    void canChangeTrieAfterDeserialize() throws IOException {
+        testTrie.add("abc");
+        testTrie.add("abd");
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var trie = createTrie();
+        trie.add("other");
+        trie.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertFalse(trie.contains("other"));
+        assertTrue(trie.remove("abc"));
+        assertTrue(trie.add("abe"));
+        assertEquals(2, trie.howManyStartWithPrefix("ab"));
+    }
+
+    @Test
+    void deserializeRejectsCorruptedData() throws IOException {
+        // root with children 'b' and 'a' which are leaves, Trie writes children in any order
+        var unsorted = serializedNodes(2, 0, 'b', 0, 1, 'a', 0, 1);
+        testTrie.deserialize(new ByteArrayInputStream(unsorted));
+        assertTrue(testTrie.contains("a"));
+        assertTrue(testTrie.contains("b"));
+        var duplicate = serializedNodes(2, 0, 'a', 0, 1, 'a', 0, 1);
+        var negative = serializedNodes(-1, 0);
+        var tooMany = serializedNodes(TrieFormat.MAX_CHILDREN + 1, 0);
+        for (var data : List.of(duplicate, negative, tooMany)) {
+            assertThrows(IOException.class, () -> createTrie().deserialize(new ByteArrayInputStream(data)));
+        }
+    }
+
+    @Test
+    void veryLongStrings() throws IOException {
+        var longString = "ab".repeat(100000);
+        assertTrue(testTrie.add(longString));
+        assertTrue(testTrie.add(longString + "c"));
+        assertTrue(testTrie.add("b"));
+        assertTrue(testTrie.contains(longString));
+        assertFalse(testTrie.contains(longString + "d"));
+        assertEquals(2, testTrie.howManyStartWithPrefix(longString.substring(0, 150000)));
+
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var copy = createTrie();
+        copy.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(testTrie, copy);
+        assertEquals(testTrie.hashCode(), copy.hashCode());
+
+        assertTrue(copy.remove(longString + "c"));
+        assertNotEquals(testTrie, copy);
+        assertTrue(copy.remove(longString));
+        assertFalse(copy.contains(longString));
+        assertEquals(1, copy.size());
+    }
+
+    /** Nodes in Trie serialization format, every node is number of children and terminal flag as 0 or 1. */
+    private static byte[] serializedNodes(int... values) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        var out = new DataOutputStream(bytes);
+        // after the root, every node is preceded by its character
+        out.writeInt(values[0]);
+        out.writeBoolean(values[1] != 0);
+        for (int i = 2; i < values.length; i += 3) {
+            out.writeChar(values[i]);
+            out.writeInt(values[i + 1]);
+            out.writeBoolean(values[i + 2] != 0);
+        }
+        return bytes.toByteArray();
+    }
+
+    static String randomString(Random random) {
+        var builder = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
+}
@@ -6,6 +6,12 @@ import org.junit.jupiter.api.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32C;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -603,6 +609,80 @@ class TrieTest {
         assertEquals(first.hashCode(), second.hashCode());
     }
 
+    @Test
+    void equalHashCodesDoNotMakeTriesEqual() {
+        var first = new Trie();
+        var second = new Trie();
+        first.add("ab");
+        second.add("ba");
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void hashCodeAndEqualsMatchRebuiltTrie() throws IOException {
+        var random = new Random(239);
+        var strings = new HashSet<String>();
+        for (int i = 0; i < 10000; i++) {
+            var element = randomString(random);
+            if (random.nextInt(3) == 0) {
+                testTrie.remove(element);
+                strings.remove(element);
+            } else {
+                testTrie.add(element);
+                strings.add(element);
+            }
+            if (i % 100 == 0) {
+                var rebuilt = new Trie();
+                for (var string : strings) {
+                    rebuilt.add(string);
+                }
+                assertEquals(rebuilt.hashCode(), testTrie.hashCode());
+                assertEquals(rebuilt, testTrie);
+                assertEquals(testTrie, rebuilt);
+            }
+        }
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var deserialized = new Trie();
+        deserialized.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        var read = new Trie();
+        read.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        for (var copy : List.of(deserialized, read)) {
+            assertEquals(testTrie.hashCode(), copy.hashCode());
+            assertEquals(testTrie, copy);
+            copy.add("dddddd");
+            assertNotEquals(testTrie, copy);
+            copy.remove("dddddd");
+            assertEquals(testTrie, copy);
+        }
+    }
+
+    @Test
+    void equalsMatchesSetEquality() {
+        var random = new Random(239);
+        var first = new Trie();
+        var second = new Trie();
+        var firstStrings = new HashSet<String>();
+        var secondStrings = new HashSet<String>();
+        for (int i = 0; i < 10000; i++) {
+            // strings are short, so the sets often become equal
+            var element = randomString(random);
+            element = element.substring(0, Math.min(2, element.length()));
+            boolean isFirst = random.nextBoolean();
+            var trie = isFirst ? first : second;
+            var strings = isFirst ? firstStrings : secondStrings;
+            if (random.nextBoolean()) {
+                trie.remove(element);
+                strings.remove(element);
+            } else {
+                trie.add(element);
+                strings.add(element);
+            }
+            assertEquals(firstStrings.equals(secondStrings), first.equals(second));
+        }
+    }
+
     // serialize/deserialize tests
 
     @Test
@@ -818,4 +898,377 @@ class TrieTest {
 
         assertEquals(from, to);
     }
+
+    // startingWith tests
+
+    @Test
+    void startingWithIsInLexicographicOrder() {
+        testTrie.add("abd");
+        testTrie.add("b");
+        testTrie.add("ab");
+        testTrie.add("abc");
+        testTrie.add("a");
+        testTrie.add("aa");
+
+        assertEquals(List.of("a", "aa", "ab", "abc", "abd"), toList(testTrie.startingWith("a")));
+        assertEquals(List.of("ab", "abc", "abd"), toList(testTrie.startingWith("ab")));
+        assertEquals(List.of("a", "aa", "ab", "abc", "abd", "b"), toList(testTrie.startingWith("")));
+    }
+
+    @Test
+    void startingWithNotExistingPrefix() {
+        assertFalse(testTrie.startingWith("").hasNext());
+        testTrie.add("abc");
+        assertFalse(testTrie.startingWith("b").hasNext());
+        assertFalse(testTrie.startingWith("abcd").hasNext());
+        assertThrows(NoSuchElementException.class, () -> testTrie.startingWith("b").next());
+    }
+
+    @Test
+    void startingWithLimit() {
+        for (int i = 0; i < 100; i++) {
+            testTrie.add(Integer.toString(i));
+        }
+        assertEquals(List.of("1", "10", "11"), testTrie.startingWith("1", 3));
+        assertEquals(List.of("5", "50", "51", "52", "53", "54", "55", "56", "57", "58", "59"),
+                testTrie.startingWith("5", 100));
+        assertEquals(List.of(), testTrie.startingWith("5", 0));
+    }
+
+    @Test
+    void startingWithMatchesSortedStrings() {
+        var random = new Random(239);
+        var expected = new TreeSet<String>();
+        for (int i = 0; i < 10000; i++) {
+            var element = randomString(random);
+            if (random.nextInt(3) == 0) {
+                testTrie.remove(element);
+                expected.remove(element);
+            } else {
+                testTrie.add(element);
+                expected.add(element);
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            var prefix = randomString(random);
+            var expectedList = expected.stream().filter(element -> element.startsWith(prefix))
+                    .collect(Collectors.toList());
+            assertEquals(expectedList, toList(testTrie.startingWith(prefix)));
+        }
+    }
+
+    // topK tests
+
+    @Test
+    void topKIsOrderedByWeight() {
+        testTrie.add("apple", 5);
+        testTrie.add("application", 20);
+        testTrie.add("apply", 10);
+        testTrie.add("ape", 10);
+        testTrie.add("banana", 100);
+
+        assertEquals(List.of("application", "ape", "apply"), testTrie.topK("ap", 3));
+        assertEquals(List.of("application", "ape", "apply", "apple"), testTrie.topK("ap", 10));
+        assertEquals(List.of("banana"), testTrie.topK("", 1));
+        assertEquals(List.of(), testTrie.topK("c", 3));
+        assertEquals(List.of(), testTrie.topK("ap", 0));
+    }
+
+    @Test
+    void topKAfterRemove() {
+        testTrie.add("a", 1);
+        testTrie.add("ab", 3);
+        testTrie.add("abc", 2);
+        testTrie.add("b", 0);
+        assertEquals(List.of("ab"), testTrie.topK("", 1));
+
+        testTrie.remove("ab");
+        assertEquals(List.of("abc", "a"), testTrie.topK("", 2));
+        testTrie.remove("abc");
+        assertEquals(List.of("a", "b"), testTrie.topK("", 2));
+        assertFalse(testTrie.add("a", 10));
+        assertEquals(List.of("a"), testTrie.topK("", 1));
+    }
+
+    @Test
+    void topKWithNegativeWeights() {
+        testTrie.add("a", -5);
+        testTrie.add("ab", -1);
+        testTrie.add("b", Long.MIN_VALUE);
+        assertEquals(List.of("ab", "a", "b"), testTrie.topK("", 3));
+        testTrie.remove("ab");
+        assertEquals(List.of("a"), testTrie.topK("", 1));
+    }
+
+    @Test
+    void topKMatchesSortedStrings() {
+        var random = new Random(239);
+        var weights = new HashMap<String, Long>();
+        for (int i = 0; i < 10000; i++) {
+            var element = randomString(random);
+            if (random.nextInt(3) == 0) {
+                testTrie.remove(element);
+                weights.remove(element);
+            } else {
+                long weight = random.nextInt(10);
+                if (testTrie.add(element, weight)) {
+                    weights.put(element, weight);
+                }
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            var prefix = randomString(random);
+            int k = random.nextInt(20);
+            var expected = weights.keySet().stream().filter(element -> element.startsWith(prefix))
+                    .sorted(Comparator.comparing((String element) -> weights.get(element)).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .limit(k)
+                    .collect(Collectors.toList());
+            assertEquals(expected, testTrie.topK(prefix, k));
+        }
+    }
+
+    @Test
+    void weightsAreNotSerialized() throws IOException {
+        testTrie.add("a", 5);
+        testTrie.add("b", 10);
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var copy = new Trie();
+        copy.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(List.of("a", "b"), copy.topK("", 2));
+        copy.add("c", 1);
+        assertEquals(List.of("c", "a"), copy.topK("", 2));
+    }
+
+    // writeTo/readFrom tests
+
+    @Test
+    void writeToReadFromEqualsSource() throws IOException {
+        var random = new Random(239);
+        for (int i = 0; i < 1000; i++) {
+            var element = randomString(random);
+            if (random.nextInt(3) == 0) {
+                testTrie.remove(element);
+            } else {
+                testTrie.add(element, random.nextInt(3));
+            }
+        }
+        testTrie.add("РусскийТекст");
+        var copy = new Trie();
+        copy.add("other");
+        copy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        assertEquals(testTrie, copy);
+        assertEquals(testTrie.size(), copy.size());
+        assertEquals(testTrie.howManyStartWithPrefix("ab"), copy.howManyStartWithPrefix("ab"));
+        assertTrue(copy.remove("РусскийТекст"));
+        assertTrue(copy.add("abcabc"));
+    }
+
+    @Test
+    void writeToAfterDeserialize() throws IOException {
+        testTrie.add("abc", 5);
+        testTrie.add("abd");
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var copy = new Trie();
+        copy.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        copy.add("b");
+        var otherCopy = new Trie();
+        otherCopy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(copy))));
+        assertEquals(copy, otherCopy);
+    }
+
+    @Test
+    void writeToReadFromEmptyTrie() throws IOException {
+        var copy = new Trie();
+        copy.add("other");
+        copy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        assertEquals(new Trie(), copy);
+        testTrie.add("");
+        copy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        assertTrue(copy.contains(""));
+    }
+
+    @Test
+    void writeToKeepsWeights() throws IOException {
+        testTrie.add("a", -5);
+        testTrie.add("ab", Long.MAX_VALUE);
+        testTrie.add("b", 3);
+        var copy = new Trie();
+        copy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        assertEquals(List.of("ab", "b", "a"), copy.topK("", 3));
+    }
+
+    @Test
+    void writeToIsSmallerThanSerialize() throws IOException {
+        for (int i = 0; i < 10000; i++) {
+            testTrie.add(Integer.toString(i));
+        }
+        var serialized = new ByteArrayOutputStream();
+        testTrie.serialize(serialized);
+        assertTrue(writeToBytes(testTrie).length < serialized.size());
+    }
+
+    @Test
+    void readFromDetectsCorruption() throws IOException {
+        testTrie.add("abc");
+        testTrie.add("abd");
+        var bytes = writeToBytes(testTrie);
+        for (int i = 0; i < bytes.length; i++) {
+            var corrupted = bytes.clone();
+            corrupted[i] ^= 4;
+            var copy = new Trie();
+            copy.add("other");
+            assertThrows(IOException.class,
+                    () -> copy.readFrom(Channels.newChannel(new ByteArrayInputStream(corrupted))));
+            assertTrue(copy.contains("other"));
+        }
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IOException.class,
+                () -> testTrie.readFrom(Channels.newChannel(new ByteArrayInputStream(truncated))));
+        assertTrue(testTrie.contains("abc"));
+    }
+
+    @Test
+    void readFromRejectsInvalidRecords() throws IOException {
+        // two leaves at positions 16 and 17 and the root at 18 with distances to them
+        var sorted = formatData(3, 2, 18, 1, 1, 2 << 4, 0, 'a', 0, 'b', 2, 1);
+        testTrie.readFrom(Channels.newChannel(new ByteArrayInputStream(sorted)));
+        assertEquals(Set.of("a", "b"), new HashSet<>(toList(testTrie.startingWith(""))));
+        var duplicate = formatData(3, 2, 18, 1, 1, 2 << 4, 0, 'a', 0, 'a', 2, 1);
+        var unsorted = formatData(3, 2, 18, 1, 1, 2 << 4, 0, 'b', 0, 'a', 2, 1);
+        // number of children is 2^31, which is negative as int
+        var negative = formatData(2, 1, 17, 1, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01);
+        for (var data : List.of(duplicate, unsorted, negative)) {
+            assertThrows(IOException.class,
+                    () -> testTrie.readFrom(Channels.newChannel(new ByteArrayInputStream(data))));
+            assertEquals(2, testTrie.size());
+        }
+    }
+
+    // buildFromSorted tests
+
+    @Test
+    void buildFromSortedEmpty() {
+        assertEquals(testTrie, Trie.buildFromSorted(Collections.emptyIterator()));
+        assertEquals(testTrie, Trie.buildFromSortedInParallel(List.of()));
+        testTrie.add("");
+        assertEquals(testTrie, Trie.buildFromSorted(List.of("", "").iterator()));
+        assertEquals(testTrie, Trie.buildFromSortedInParallel(List.of("", "")));
+    }
+
+    @Test
+    void buildFromSortedEqualsAddedStrings() throws IOException {
+        var random = new Random(239);
+        var strings = new ArrayList<String>();
+        for (int i = 0; i < 10000; i++) {
+            var element = randomString(random);
+            strings.add(element);
+            testTrie.add(element);
+        }
+        testTrie.add("РусскийТекст");
+        strings.add("РусскийТекст");
+        Collections.sort(strings);
+        var built = Trie.buildFromSorted(strings.iterator());
+        var builtInParallel = Trie.buildFromSortedInParallel(strings);
+        for (var trie : List.of(built, builtInParallel)) {
+            assertEquals(testTrie, trie);
+            assertEquals(testTrie.hashCode(), trie.hashCode());
+            assertEquals(testTrie.size(), trie.size());
+            assertEquals(testTrie.howManyStartWithPrefix("ab"), trie.howManyStartWithPrefix("ab"));
+            assertArrayEquals(writeToBytes(testTrie), writeToBytes(trie));
+            assertTrue(trie.remove("РусскийТекст"));
+            assertTrue(trie.add("abcabc", 5));
+            assertEquals(List.of("abcabc"), trie.topK("", 1));
+        }
+        assertEquals(built, builtInParallel);
+    }
+
+    @Test
+    void buildFromUnsortedThrows() {
+        var unsorted = List.of("ab", "abc", "abb");
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSorted(unsorted.iterator()));
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSortedInParallel(unsorted));
+        var unsortedPrefix = List.of("a", "abc", "ab");
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSorted(unsortedPrefix.iterator()));
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSortedInParallel(unsortedPrefix));
+        var unsortedFirstCharacters = List.of("b", "a");
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSorted(unsortedFirstCharacters.iterator()));
+        assertThrows(IllegalArgumentException.class, () -> Trie.buildFromSortedInParallel(unsortedFirstCharacters));
+    }
+
+    // long strings tests
+
+    @Test
+    void veryLongStrings() throws IOException {
+        var longString = "ab".repeat(100000);
+        assertTrue(testTrie.add(longString));
+        assertTrue(testTrie.add(longString + "c"));
+        assertTrue(testTrie.add("b"));
+        assertTrue(testTrie.contains(longString));
+        assertFalse(testTrie.contains(longString + "d"));
+        assertEquals(2, testTrie.howManyStartWithPrefix(longString.substring(0, 150000)));
+
+        var bytes = new ByteArrayOutputStream();
+        testTrie.serialize(bytes);
+        var copy = new Trie();
+        copy.deserialize(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(testTrie, copy);
+        assertEquals(testTrie.hashCode(), copy.hashCode());
+
+        assertTrue(copy.remove(longString + "c"));
+        assertNotEquals(testTrie, copy);
+        assertTrue(copy.remove(longString));
+        assertFalse(copy.contains(longString));
+        assertEquals(1, copy.size());
+    }
+
+    @Test
+    void veryLongStringsWriteTo() throws IOException {
+        var longString = "ab".repeat(100000);
+        testTrie.add(longString, 7);
+        testTrie.add(longString + "c");
+        testTrie.add("b");
+        var copy = new Trie();
+        copy.readFrom(Channels.newChannel(new ByteArrayInputStream(writeToBytes(testTrie))));
+        assertEquals(testTrie, copy);
+        assertEquals(List.of(longString), copy.topK("a", 1));
+    }
+
+    /** Data in {@link Trie#writeTo} format without weights, with specified records and a valid trailer. */
+    private static byte[] formatData(int numberOfNodes, int size, long rootPosition, int... records) {
+        var buffer = ByteBuffer.allocate(TrieFormat.HEADER_SIZE + records.length + TrieFormat.TRAILER_SIZE);
+        buffer.putInt(TrieFormat.MAGIC).putShort(TrieFormat.VERSION).putShort((short) 0);
+        buffer.putInt(numberOfNodes).putInt(size);
+        for (var recordByte : records) {
+            buffer.put((byte) recordByte);
+        }
+        buffer.putLong(rootPosition);
+        var checksum = new CRC32C();
+        checksum.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) checksum.getValue());
+        return buffer.array();
+    }
+
+    private static byte[] writeToBytes(Trie trie) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        trie.writeTo(Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static List<String> toList(Iterator<String> iterator) {
+        var list = new ArrayList<String>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static String randomString(Random random) {
+        var builder = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(4)));
+        }
+        return builder.toString();
+    }
 }